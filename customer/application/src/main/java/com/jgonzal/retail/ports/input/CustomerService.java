@@ -1,13 +1,37 @@
 package com.jgonzal.retail.ports.input;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerBatchResult;
+import com.jgonzal.retail.model.CustomerChanges;
+import com.jgonzal.retail.model.CustomerCreation;
+import com.jgonzal.retail.model.CustomerDeletionResult;
+import com.jgonzal.retail.model.CustomerLookupResult;
+import com.jgonzal.retail.model.CustomerPage;
 
 public interface CustomerService {
     Customer createCustomer(Customer customer);
+    List<CustomerBatchResult> createCustomers(List<Customer> customers);
+    CustomerCreation createCustomerAsync(Customer customer, boolean awaitFlush);
+    CustomerCreation getCustomerCreation(String trackingId);
     Customer getCustomerById(Long id);
+    Customer getCustomerByEmail(String email);
+    CustomerLookupResult getCustomersByIds(Collection<Long> ids);
+    // Largest number of distinct ids getCustomersByIds accepts in one call
+    int getMaxLookupSize();
     List<Customer> getAllCustomers();
+    CustomerPage getCustomersPage(Long afterId, int size);
+    // Larger page sizes are served as this size
+    int getMaxPageSize();
+    void exportCustomers(Consumer<Customer> consumer);
+    CustomerChanges getChangesSince(Long sequence, int limit);
+    List<Customer> searchCustomers(String query, int limit);
     void deleteCustomer(Long id);
+    CustomerDeletionResult deleteCustomers(Collection<Long> ids);
     Customer updateCustomer(Long id, Customer customer);
-} 
\ No newline at end of file
+    Customer patchCustomer(Long id, Customer changes);
+    Customer upsertCustomerByEmail(Customer customer);
+} 
@@ -0,0 +1,7 @@
+package com.jgonzal.retail.ports.output;
+
+import com.jgonzal.retail.model.CustomerChanges;
+
+public interface CustomerChangeFeed {
+    CustomerChanges readSince(Long sequence, int limit);
+}
@@ -1,13 +1,27 @@
 package com.jgonzal.retail.ports.output;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import com.jgonzal.retail.model.Customer;
 
 public interface CustomerRepository {
     Customer save(Customer customer);
+    List<Customer> saveAll(List<Customer> customers);
     Optional<Customer> findById(Long id);
+    // Asks the store of record, skipping caches and replicas that may lag behind a write that just failed
+    boolean existsById(Long id);
+    Optional<Customer> findByEmail(String email);
+    List<Customer> findAllById(Collection<Long> ids);
     List<Customer> findAll();
-    boolean deleteById(Long id);
+    List<Customer> findPage(Long afterId, int limit);
+    void streamAll(Consumer<Customer> consumer);
+    List<Customer> search(String query, int limit);
+    // Deletes return the rows they removed, so their last version can be published
+    Optional<Customer> deleteById(Long id);
+    List<Customer> deleteAllById(Collection<Long> ids);
     Optional<Customer> update(Customer customer);
+    Optional<Customer> patch(Long id, Customer changes);
+    Customer upsertByEmail(Customer customer);
 }
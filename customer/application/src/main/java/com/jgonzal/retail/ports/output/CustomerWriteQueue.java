@@ -0,0 +1,11 @@
+package com.jgonzal.retail.ports.output;
+
+import java.util.Optional;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerCreation;
+
+public interface CustomerWriteQueue {
+    CustomerCreation enqueue(Customer customer);
+    CustomerCreation awaitFlush(String trackingId);
+    Optional<CustomerCreation> findCreation(String trackingId);
+}
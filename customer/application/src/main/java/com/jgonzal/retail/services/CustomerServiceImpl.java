@@ -1,44 +1,302 @@
 package com.jgonzal.retail.services;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerBatchResult;
+import com.jgonzal.retail.model.CustomerChanges;
+import com.jgonzal.retail.model.CustomerCreation;
+import com.jgonzal.retail.model.CustomerDeletionResult;
+import com.jgonzal.retail.model.CustomerLookupResult;
+import com.jgonzal.retail.model.CustomerPage;
 import com.jgonzal.retail.ports.input.CustomerService;
+import com.jgonzal.retail.ports.output.CustomerChangeFeed;
 import com.jgonzal.retail.ports.output.CustomerRepository;
+import com.jgonzal.retail.ports.output.CustomerWriteQueue;
+import com.jgonzal.retail.exception.CustomerCreationNotFoundException;
 import com.jgonzal.retail.exception.CustomerNotFoundException;
+import com.jgonzal.retail.exception.CustomerValidationException;
+import com.jgonzal.retail.exception.CustomerVersionConflictException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@ConditionalOnProperty(name = "customer.stack", havingValue = "servlet", matchIfMissing = true)
 public class CustomerServiceImpl implements CustomerService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BATCH_SIZE = 10_000;
+    public static final int MAX_LOOKUP_SIZE = 500;
+    public static final int MAX_DELETE_SIZE = 1_000;
+    public static final int MAX_SEARCH_SIZE = 50;
+    public static final int MAX_CHANGES_SIZE = 1_000;
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_EMAIL_LENGTH = 255;
+
     private final CustomerRepository customerRepository;
+    private final CustomerWriteQueue customerWriteQueue;
+    private final CustomerChangeFeed customerChangeFeed;
 
 
-    public CustomerServiceImpl(CustomerRepository customerRepository) {
+    // The write queue only exists when write-behind is enabled
+    public CustomerServiceImpl(CustomerRepository customerRepository, @Nullable CustomerWriteQueue customerWriteQueue,
+            CustomerChangeFeed customerChangeFeed) {
         this.customerRepository = customerRepository;
+        this.customerWriteQueue = customerWriteQueue;
+        this.customerChangeFeed = customerChangeFeed;
     }
 
     public Customer createCustomer(Customer customer) {
+        var error = validate(customer);
+        if (error != null) {
+            throw new CustomerValidationException(error);
+        }
+        customer.setEmail(normalizeEmail(customer.getEmail()));
         return customerRepository.save(customer);
     }
 
+    public List<CustomerBatchResult> createCustomers(List<Customer> customers) {
+        if (customers.size() > MAX_BATCH_SIZE) {
+            throw new CustomerValidationException("El lote no puede superar " + MAX_BATCH_SIZE + " clientes");
+        }
+        var results = new CustomerBatchResult[customers.size()];
+        var validCustomers = new ArrayList<Customer>(customers.size());
+        var validIndexes = new ArrayList<Integer>(customers.size());
+        var emails = new HashSet<String>();
+        for (int i = 0; i < customers.size(); i++) {
+            var error = validate(customers.get(i));
+            if (error == null && !emails.add(normalizeEmail(customers.get(i).getEmail()))) {
+                error = "El email está repetido en el lote";
+            }
+            if (error == null) {
+                customers.get(i).setEmail(normalizeEmail(customers.get(i).getEmail()));
+                validCustomers.add(customers.get(i));
+                validIndexes.add(i);
+            } else {
+                results[i] = CustomerBatchResult.rejected(i, error);
+            }
+        }
+        if (!validCustomers.isEmpty()) {
+            var savedCustomers = customerRepository.saveAll(validCustomers);
+            for (int i = 0; i < savedCustomers.size(); i++) {
+                int index = validIndexes.get(i);
+                results[index] = CustomerBatchResult.created(index, savedCustomers.get(i));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    public CustomerCreation createCustomerAsync(Customer customer, boolean awaitFlush) {
+        // Validated up front: once queued, the caller may already have its 202
+        var error = validate(customer);
+        if (error != null) {
+            throw new CustomerValidationException(error);
+        }
+        customer.setEmail(normalizeEmail(customer.getEmail()));
+        if (customerWriteQueue == null) {
+            var createdCustomer = customerRepository.save(customer);
+            return CustomerCreation.created(null, createdCustomer);
+        }
+        var creation = customerWriteQueue.enqueue(customer);
+        return awaitFlush ? customerWriteQueue.awaitFlush(creation.getTrackingId()) : creation;
+    }
+
+    public CustomerCreation getCustomerCreation(String trackingId) {
+        if (customerWriteQueue == null) {
+            throw new CustomerCreationNotFoundException(trackingId);
+        }
+        return customerWriteQueue.findCreation(trackingId)
+                .orElseThrow(() -> new CustomerCreationNotFoundException(trackingId));
+    }
+
     public Customer getCustomerById(Long id) {
         return customerRepository.findById(id).orElseThrow(() -> new CustomerNotFoundException(id));
     }
 
+    public Customer getCustomerByEmail(String email) {
+        var normalizedEmail = normalizeEmail(email);
+        if (normalizedEmail == null || normalizedEmail.isEmpty()) {
+            throw new CustomerValidationException("El email es obligatorio");
+        }
+        return customerRepository.findByEmail(normalizedEmail)
+                .orElseThrow(() -> new CustomerNotFoundException(normalizedEmail));
+    }
+
+    public int getMaxLookupSize() {
+        return MAX_LOOKUP_SIZE;
+    }
+
+    public CustomerLookupResult getCustomersByIds(Collection<Long> ids) {
+        var uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > MAX_LOOKUP_SIZE) {
+            throw new CustomerValidationException("No se pueden consultar más de " + MAX_LOOKUP_SIZE + " clientes a la vez");
+        }
+        if (uniqueIds.isEmpty()) {
+            return new CustomerLookupResult(List.of(), List.of());
+        }
+        var customersById = customerRepository.findAllById(uniqueIds).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        var customers = new ArrayList<Customer>(customersById.size());
+        var missingIds = new ArrayList<Long>();
+        for (Long id : uniqueIds) {
+            var customer = customersById.get(id);
+            if (customer != null) {
+                customers.add(customer);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new CustomerLookupResult(customers, missingIds);
+    }
+
     public List<Customer> getAllCustomers() {
         return customerRepository.findAll();
     }
 
+    public int getMaxPageSize() {
+        return MAX_PAGE_SIZE;
+    }
+
+    public CustomerPage getCustomersPage(Long afterId, int size) {
+        if (size < 1) {
+            throw new CustomerValidationException("El tamaño de página debe ser mayor que 0");
+        }
+        int limit = Math.min(size, MAX_PAGE_SIZE);
+        // One extra row tells us whether another page exists without a COUNT query
+        var customers = customerRepository.findPage(afterId, limit + 1);
+        if (customers.size() <= limit) {
+            return new CustomerPage(customers, null);
+        }
+        var page = customers.subList(0, limit);
+        return new CustomerPage(page, page.get(limit - 1).getId());
+    }
+
+    public void exportCustomers(Consumer<Customer> consumer) {
+        customerRepository.streamAll(consumer);
+    }
+
+    public CustomerChanges getChangesSince(Long sequence, int limit) {
+        if (limit < 1) {
+            throw new CustomerValidationException("El número de cambios debe ser mayor que 0");
+        }
+        return customerChangeFeed.readSince(sequence, Math.min(limit, MAX_CHANGES_SIZE));
+    }
+
+    public List<Customer> searchCustomers(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new CustomerValidationException("El texto de búsqueda es obligatorio");
+        }
+        if (limit < 1) {
+            throw new CustomerValidationException("El número de resultados debe ser mayor que 0");
+        }
+        return customerRepository.search(query.trim(), Math.min(limit, MAX_SEARCH_SIZE));
+    }
+
     public void deleteCustomer(Long id) {
-        if(!customerRepository.deleteById(id)){
+        if (customerRepository.deleteById(id).isEmpty()) {
             throw new CustomerNotFoundException(id);
         }
     }
 
+    public CustomerDeletionResult deleteCustomers(Collection<Long> ids) {
+        var uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > MAX_DELETE_SIZE) {
+            throw new CustomerValidationException("No se pueden eliminar más de " + MAX_DELETE_SIZE + " clientes a la vez");
+        }
+        if (uniqueIds.isEmpty()) {
+            return new CustomerDeletionResult(List.of(), List.of());
+        }
+        var deletedIds = customerRepository.deleteAllById(uniqueIds).stream()
+                .map(Customer::getId)
+                .collect(Collectors.toSet());
+        var deleted = uniqueIds.stream().filter(deletedIds::contains).toList();
+        var missing = uniqueIds.stream().filter(id -> !deletedIds.contains(id)).toList();
+        return new CustomerDeletionResult(deleted, missing);
+    }
+
     public Customer updateCustomer(Long id, Customer customer) {
-        return customerRepository.update(customer).orElseThrow(() -> new CustomerNotFoundException(id));
+        var error = validate(customer);
+        if (error != null) {
+            throw new CustomerValidationException(error);
+        }
+        customer.setId(id);
+        customer.setEmail(normalizeEmail(customer.getEmail()));
+        return customerRepository.update(customer).orElseThrow(() -> notFoundOrConflict(id, customer.getVersion()));
+    }
+
+    public Customer patchCustomer(Long id, Customer changes) {
+        var error = validateChanges(changes);
+        if (error != null) {
+            throw new CustomerValidationException(error);
+        }
+        changes.setEmail(normalizeEmail(changes.getEmail()));
+        return customerRepository.patch(id, changes).orElseThrow(() -> notFoundOrConflict(id, changes.getVersion()));
+    }
 
+    public Customer upsertCustomerByEmail(Customer customer) {
+        var error = validate(customer);
+        if (error != null) {
+            throw new CustomerValidationException(error);
+        }
+        customer.setEmail(normalizeEmail(customer.getEmail()));
+        return customerRepository.upsertByEmail(customer);
+    }
+
+    // A conditional write that matched no row may have lost the race; only then is the extra lookup paid
+    private RuntimeException notFoundOrConflict(Long id, Long expectedVersion) {
+        if (expectedVersion != null && customerRepository.existsById(id)) {
+            return new CustomerVersionConflictException(id, expectedVersion);
+        }
+        return new CustomerNotFoundException(id);
+    }
+
+    // Emails are stored lower-cased so the unique index on the column is case-insensitive in practice
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Mirrors the NOT NULL and length constraints of the customers table
+    public static String validate(Customer customer) {
+        if (customer == null) {
+            return "El cliente es obligatorio";
+        }
+        if (customer.getName() == null || customer.getName().isBlank()) {
+            return "El nombre es obligatorio";
+        }
+        if (customer.getName().length() > MAX_NAME_LENGTH) {
+            return "El nombre no puede superar " + MAX_NAME_LENGTH + " caracteres";
+        }
+        if (customer.getEmail() == null || customer.getEmail().isBlank()) {
+            return "El email es obligatorio";
+        }
+        if (customer.getEmail().length() > MAX_EMAIL_LENGTH || !customer.getEmail().contains("@")) {
+            return "El email no es válido";
+        }
+        return null;
+    }
+
+    private static String validateChanges(Customer changes) {
+        if (changes.getName() != null && changes.getName().isBlank()) {
+            return "El nombre no puede estar vacío";
+        }
+        if (changes.getName() != null && changes.getName().length() > MAX_NAME_LENGTH) {
+            return "El nombre no puede superar " + MAX_NAME_LENGTH + " caracteres";
+        }
+        if (changes.getEmail() != null
+                && (changes.getEmail().length() > MAX_EMAIL_LENGTH || !changes.getEmail().contains("@"))) {
+            return "El email no es válido";
+        }
+        return null;
     }
 }
\ No newline at end of file
@@ -1,19 +1,35 @@
 package com.jgonzal.retail.services;
 
 import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerBatchResult;
+import com.jgonzal.retail.model.CustomerChanges;
+import com.jgonzal.retail.model.CustomerCreation;
+import com.jgonzal.retail.model.CustomerDeletionResult;
+import com.jgonzal.retail.model.CustomerLookupResult;
+import com.jgonzal.retail.model.CustomerPage;
+import com.jgonzal.retail.ports.output.CustomerChangeFeed;
 import com.jgonzal.retail.ports.output.CustomerRepository;
+import com.jgonzal.retail.ports.output.CustomerWriteQueue;
+import com.jgonzal.retail.exception.CustomerCreationNotFoundException;
 import com.jgonzal.retail.exception.CustomerNotFoundException;
+import com.jgonzal.retail.exception.CustomerValidationException;
+import com.jgonzal.retail.exception.CustomerVersionConflictException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 import org.mockito.InjectMocks;
 
@@ -23,6 +39,12 @@ class CustomerServiceImplTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private CustomerWriteQueue customerWriteQueue;
+
+    @Mock
+    private CustomerChangeFeed customerChangeFeed;
+
     @InjectMocks
     private CustomerServiceImpl customerService;
 
@@ -45,6 +67,64 @@ class CustomerServiceImplTest {
         verify(customerRepository).save(customer);
     }
 
+    @Test
+    void createCustomer_ShouldRejectCustomerWithoutName_BeforeReachingRepository() {
+        // Given
+        Customer customer = Customer.builder().email("anon@example.com").build();
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.createCustomer(customer))
+                .isInstanceOf(CustomerValidationException.class)
+                .hasMessage("El nombre es obligatorio");
+        verify(customerRepository, never()).save(any());
+    }
+
+    @Test
+    void createCustomers_ShouldSaveValidCustomersInOneBatch_AndRejectInvalidOnes() {
+        // Given
+        Customer valid = Customer.builder().name("John Doe").email("john@example.com").build();
+        Customer missingName = Customer.builder().email("anon@example.com").build();
+        Customer badEmail = Customer.builder().name("Jane Doe").email("jane.example.com").build();
+        Customer saved = Customer.builder().id(10L).name("John Doe").email("john@example.com").build();
+        when(customerRepository.saveAll(List.of(valid))).thenReturn(List.of(saved));
+
+        // When
+        List<CustomerBatchResult> results = customerService.createCustomers(List.of(missingName, valid, badEmail));
+
+        // Then
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).isCreated()).isFalse();
+        assertThat(results.get(0).getError()).isEqualTo("El nombre es obligatorio");
+        assertThat(results.get(1).isCreated()).isTrue();
+        assertThat(results.get(1).getIndex()).isEqualTo(1);
+        assertThat(results.get(1).getCustomer().getId()).isEqualTo(10L);
+        assertThat(results.get(2).isCreated()).isFalse();
+        assertThat(results.get(2).getError()).isEqualTo("El email no es válido");
+        verify(customerRepository).saveAll(List.of(valid));
+    }
+
+    @Test
+    void createCustomers_ShouldNotHitRepository_WhenAllCustomersAreInvalid() {
+        // When
+        List<CustomerBatchResult> results = customerService.createCustomers(List.of(Customer.builder().build()));
+
+        // Then
+        assertThat(results).extracting(CustomerBatchResult::isCreated).containsExactly(false);
+        verify(customerRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void createCustomers_ShouldThrowException_WhenBatchIsTooLarge() {
+        // Given
+        List<Customer> customers = Collections.nCopies(CustomerServiceImpl.MAX_BATCH_SIZE + 1,
+                Customer.builder().name("John Doe").email("john@example.com").build());
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.createCustomers(customers))
+                .isInstanceOf(CustomerValidationException.class);
+        verify(customerRepository, never()).saveAll(any());
+    }
+
     @Test
     void getCustomerById_ShouldReturnCustomer() {
         // Given
@@ -80,6 +160,33 @@ class CustomerServiceImplTest {
         verify(customerRepository).findById(customerId);
     }
 
+    @Test
+    void getCustomersByIds_ShouldReturnFoundCustomersInRequestOrder_AndReportMissingIds() {
+        // Given
+        Customer first = Customer.builder().id(1L).name("John Doe").build();
+        Customer third = Customer.builder().id(3L).name("Jim Doe").build();
+        when(customerRepository.findAllById(Set.of(3L, 2L, 1L))).thenReturn(List.of(first, third));
+
+        // When
+        CustomerLookupResult result = customerService.getCustomersByIds(List.of(3L, 2L, 1L, 3L));
+
+        // Then
+        assertThat(result.getCustomers()).extracting(Customer::getId).containsExactly(3L, 1L);
+        assertThat(result.getMissingIds()).containsExactly(2L);
+        verify(customerRepository).findAllById(Set.of(3L, 2L, 1L));
+    }
+
+    @Test
+    void getCustomersByIds_ShouldThrowException_WhenTooManyIds() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, CustomerServiceImpl.MAX_LOOKUP_SIZE + 1).boxed().toList();
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.getCustomersByIds(ids))
+                .isInstanceOf(CustomerValidationException.class);
+        verify(customerRepository, never()).findAllById(any());
+    }
+
     @Test
     void getAllCustomers_ShouldReturnListOfCustomers() {
         // Given
@@ -112,11 +219,77 @@ class CustomerServiceImplTest {
         verify(customerRepository).findAll();
     }
 
+    @Test
+    void getCustomersPage_ShouldReturnNextCursor_WhenMoreRowsExist() {
+        // Given
+        List<Customer> rows = List.of(
+                Customer.builder().id(1L).build(),
+                Customer.builder().id(2L).build(),
+                Customer.builder().id(3L).build());
+        when(customerRepository.findPage(null, 3)).thenReturn(rows);
+
+        // When
+        CustomerPage result = customerService.getCustomersPage(null, 2);
+
+        // Then
+        assertThat(result.getCustomers()).extracting(Customer::getId).containsExactly(1L, 2L);
+        assertThat(result.getNextCursor()).isEqualTo(2L);
+        assertThat(result.hasNext()).isTrue();
+        verify(customerRepository).findPage(null, 3);
+    }
+
+    @Test
+    void getCustomersPage_ShouldReturnNoCursor_OnLastPage() {
+        // Given
+        List<Customer> rows = List.of(Customer.builder().id(5L).build());
+        when(customerRepository.findPage(4L, 3)).thenReturn(rows);
+
+        // When
+        CustomerPage result = customerService.getCustomersPage(4L, 2);
+
+        // Then
+        assertThat(result.getCustomers()).extracting(Customer::getId).containsExactly(5L);
+        assertThat(result.hasNext()).isFalse();
+    }
+
+    @Test
+    void getCustomersPage_ShouldCapPageSize() {
+        // Given
+        when(customerRepository.findPage(null, CustomerServiceImpl.MAX_PAGE_SIZE + 1)).thenReturn(List.of());
+
+        // When
+        CustomerPage result = customerService.getCustomersPage(null, 10_000);
+
+        // Then
+        assertThat(result.getCustomers()).isEmpty();
+        verify(customerRepository).findPage(null, CustomerServiceImpl.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void getCustomersPage_ShouldThrowException_WhenSizeIsNotPositive() {
+        // When/Then
+        assertThatThrownBy(() -> customerService.getCustomersPage(null, 0))
+                .isInstanceOf(CustomerValidationException.class);
+        verify(customerRepository, never()).findPage(any(), anyInt());
+    }
+
+    @Test
+    void exportCustomers_ShouldStreamFromRepository() {
+        // Given
+        Consumer<Customer> consumer = customer -> { };
+
+        // When
+        customerService.exportCustomers(consumer);
+
+        // Then
+        verify(customerRepository).streamAll(consumer);
+    }
+
     @Test
     void deleteCustomer_ShouldDeleteCustomer_WhenCustomerExists() {
         // Given
         Long customerId = 1L;
-        when(customerRepository.deleteById(customerId)).thenReturn(true);
+        when(customerRepository.deleteById(customerId)).thenReturn(Optional.of(Customer.builder().id(customerId).build()));
 
         // When
         customerService.deleteCustomer(customerId);
@@ -129,7 +302,7 @@ class CustomerServiceImplTest {
     void deleteCustomer_ShouldThrowException_WhenCustomerDoesNotExist() {
         // Given
         Long customerId = 123L;
-        when(customerRepository.deleteById(customerId)).thenReturn(false);
+        when(customerRepository.deleteById(customerId)).thenReturn(Optional.empty());
 
         // When/Then
         assertThatThrownBy(() -> customerService.deleteCustomer(customerId))
@@ -138,6 +311,33 @@ class CustomerServiceImplTest {
         verify(customerRepository).deleteById(customerId);
     }
 
+    @Test
+    void deleteCustomers_ShouldSplitDeletedAndMissingIds() {
+        // Given
+        when(customerRepository.deleteAllById(Set.of(1L, 2L, 3L))).thenReturn(List.of(
+                Customer.builder().id(3L).build(),
+                Customer.builder().id(1L).build()));
+
+        // When
+        CustomerDeletionResult result = customerService.deleteCustomers(List.of(1L, 2L, 3L, 2L));
+
+        // Then
+        assertThat(result.getDeletedIds()).containsExactly(1L, 3L);
+        assertThat(result.getMissingIds()).containsExactly(2L);
+        verify(customerRepository).deleteAllById(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void deleteCustomers_ShouldThrowException_WhenTooManyIds() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, CustomerServiceImpl.MAX_DELETE_SIZE + 1).boxed().toList();
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.deleteCustomers(ids))
+                .isInstanceOf(CustomerValidationException.class);
+        verify(customerRepository, never()).deleteAllById(any());
+    }
+
     @Test
     void updateCustomer_ShouldUpdateAndReturnCustomer_WhenCustomerExists() {
         // Given
@@ -166,6 +366,18 @@ class CustomerServiceImplTest {
         verify(customerRepository).update(customerToUpdate);
     }
 
+    @Test
+    void updateCustomer_ShouldRejectNameLongerThanColumn() {
+        // Given
+        Customer customerToUpdate = Customer.builder().name("x".repeat(101)).email("john@example.com").build();
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.updateCustomer(1L, customerToUpdate))
+                .isInstanceOf(CustomerValidationException.class)
+                .hasMessage("El nombre no puede superar 100 caracteres");
+        verify(customerRepository, never()).update(any());
+    }
+
     @Test
     void updateCustomer_ShouldThrowException_WhenCustomerNotFound() {
         // Given
@@ -184,4 +396,269 @@ class CustomerServiceImplTest {
                 .hasMessage("Cliente no encontrado con id: " + customerId);
         verify(customerRepository).update(customerToUpdate);
     }
+
+    @Test
+    void updateCustomer_ShouldUseIdFromPath() {
+        // Given
+        Long customerId = 7L;
+        Customer customerToUpdate = Customer.builder()
+                .name("John Updated")
+                .email("john.updated@example.com")
+                .build();
+        when(customerRepository.update(customerToUpdate)).thenReturn(Optional.of(customerToUpdate));
+
+        // When
+        Customer result = customerService.updateCustomer(customerId, customerToUpdate);
+
+        // Then
+        assertThat(result.getId()).isEqualTo(customerId);
+    }
+
+    @Test
+    void updateCustomer_ShouldThrowConflict_WhenVersionIsStale() {
+        // Given
+        Long customerId = 1L;
+        Customer customerToUpdate = Customer.builder()
+                .name("John Updated")
+                .email("john.updated@example.com")
+                .version(2L)
+                .build();
+        when(customerRepository.update(customerToUpdate)).thenReturn(Optional.empty());
+        when(customerRepository.existsById(customerId)).thenReturn(true);
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.updateCustomer(customerId, customerToUpdate))
+                .isInstanceOf(CustomerVersionConflictException.class);
+        verify(customerRepository, never()).findById(any());
+    }
+
+    @Test
+    void updateCustomer_ShouldThrowNotFound_WhenVersionGivenButCustomerMissing() {
+        // Given
+        Long customerId = 999L;
+        Customer customerToUpdate = Customer.builder().name("John").email("john@example.com").version(2L).build();
+        when(customerRepository.update(customerToUpdate)).thenReturn(Optional.empty());
+        when(customerRepository.existsById(customerId)).thenReturn(false);
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.updateCustomer(customerId, customerToUpdate))
+                .isInstanceOf(CustomerNotFoundException.class);
+    }
+
+    @Test
+    void patchCustomer_ShouldReturnPatchedCustomer_WhenCustomerExists() {
+        // Given
+        Long customerId = 1L;
+        Customer changes = Customer.builder().name("John Patched").build();
+        Customer patched = Customer.builder().id(customerId).name("John Patched").email("john@example.com").build();
+        when(customerRepository.patch(customerId, changes)).thenReturn(Optional.of(patched));
+
+        // When
+        Customer result = customerService.patchCustomer(customerId, changes);
+
+        // Then
+        assertThat(result.getName()).isEqualTo("John Patched");
+        assertThat(result.getEmail()).isEqualTo("john@example.com");
+        verify(customerRepository).patch(customerId, changes);
+    }
+
+    @Test
+    void patchCustomer_ShouldThrowException_WhenCustomerNotFound() {
+        // Given
+        Long customerId = 999L;
+        Customer changes = Customer.builder().name("John Patched").build();
+        when(customerRepository.patch(customerId, changes)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.patchCustomer(customerId, changes))
+                .isInstanceOf(CustomerNotFoundException.class)
+                .hasMessage("Cliente no encontrado con id: " + customerId);
+        verify(customerRepository, never()).existsById(any());
+    }
+
+    @Test
+    void patchCustomer_ShouldThrowException_WhenNameIsBlank() {
+        // Given
+        Customer changes = Customer.builder().name(" ").build();
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.patchCustomer(1L, changes))
+                .isInstanceOf(CustomerValidationException.class);
+        verify(customerRepository, never()).patch(any(), any());
+    }
+
+    @Test
+    void getCustomerByEmail_ShouldLookUpNormalizedEmail() {
+        // Given
+        Customer customer = Customer.builder().id(1L).email("john@example.com").build();
+        when(customerRepository.findByEmail("john@example.com")).thenReturn(Optional.of(customer));
+
+        // When
+        Customer result = customerService.getCustomerByEmail("  John@Example.COM ");
+
+        // Then
+        assertThat(result.getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void getCustomerByEmail_ShouldThrowException_WhenEmailNotFound() {
+        // Given
+        when(customerRepository.findByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.getCustomerByEmail("missing@example.com"))
+                .isInstanceOf(CustomerNotFoundException.class)
+                .hasMessage("Cliente no encontrado con email: missing@example.com");
+    }
+
+    @Test
+    void upsertCustomerByEmail_ShouldNormalizeEmailBeforeUpsert() {
+        // Given
+        Customer customer = Customer.builder().name("John Doe").email("John@Example.com").build();
+        when(customerRepository.upsertByEmail(any(Customer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Customer result = customerService.upsertCustomerByEmail(customer);
+
+        // Then
+        assertThat(result.getEmail()).isEqualTo("john@example.com");
+    }
+
+    @Test
+    void upsertCustomerByEmail_ShouldThrowException_WhenCustomerIsInvalid() {
+        // Given
+        Customer customer = Customer.builder().name("John Doe").build();
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.upsertCustomerByEmail(customer))
+                .isInstanceOf(CustomerValidationException.class);
+        verify(customerRepository, never()).upsertByEmail(any());
+    }
+
+    @Test
+    void createCustomers_ShouldRejectEmailRepeatedInBatch() {
+        // Given
+        List<Customer> customers = List.of(
+                Customer.builder().name("John Doe").email("john@example.com").build(),
+                Customer.builder().name("John Again").email("JOHN@example.com").build());
+        when(customerRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<CustomerBatchResult> results = customerService.createCustomers(customers);
+
+        // Then
+        assertThat(results.get(0).isCreated()).isTrue();
+        assertThat(results.get(1).isCreated()).isFalse();
+        assertThat(results.get(1).getError()).isEqualTo("El email está repetido en el lote");
+    }
+
+    @Test
+    void searchCustomers_ShouldTrimQueryAndCapLimit() {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").build();
+        when(customerRepository.search("john", CustomerServiceImpl.MAX_SEARCH_SIZE)).thenReturn(List.of(customer));
+
+        // When
+        List<Customer> result = customerService.searchCustomers("  john ", 1_000);
+
+        // Then
+        assertThat(result).containsExactly(customer);
+    }
+
+    @Test
+    void searchCustomers_ShouldThrowException_WhenQueryIsBlank() {
+        // When/Then
+        assertThatThrownBy(() -> customerService.searchCustomers(" ", 10))
+                .isInstanceOf(CustomerValidationException.class);
+        verify(customerRepository, never()).search(any(), anyInt());
+    }
+
+    @Test
+    void createCustomerAsync_ShouldEnqueueNormalizedCustomer_WhenAckOnEnqueue() {
+        // Given
+        Customer customer = Customer.builder().name("John Doe").email("John@Example.com").build();
+        when(customerWriteQueue.enqueue(customer)).thenReturn(CustomerCreation.pending("abc"));
+
+        // When
+        CustomerCreation result = customerService.createCustomerAsync(customer, false);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(CustomerCreation.Status.PENDING);
+        assertThat(customer.getEmail()).isEqualTo("john@example.com");
+        verify(customerWriteQueue, never()).awaitFlush(any());
+        verify(customerRepository, never()).save(any());
+    }
+
+    @Test
+    void createCustomerAsync_ShouldWaitForFlush_WhenAckOnFlush() {
+        // Given
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        Customer savedCustomer = customer.toBuilder().id(1L).version(0L).build();
+        when(customerWriteQueue.enqueue(customer)).thenReturn(CustomerCreation.pending("abc"));
+        when(customerWriteQueue.awaitFlush("abc")).thenReturn(CustomerCreation.created("abc", savedCustomer));
+
+        // When
+        CustomerCreation result = customerService.createCustomerAsync(customer, true);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(CustomerCreation.Status.CREATED);
+        assertThat(result.getCustomer().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void createCustomerAsync_ShouldSaveDirectly_WhenWriteBehindIsDisabled() {
+        // Given
+        CustomerServiceImpl synchronousService = new CustomerServiceImpl(customerRepository, null, customerChangeFeed);
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        when(customerRepository.save(customer)).thenReturn(customer.toBuilder().id(1L).build());
+
+        // When
+        CustomerCreation result = synchronousService.createCustomerAsync(customer, false);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(CustomerCreation.Status.CREATED);
+        assertThat(result.getCustomer().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void createCustomerAsync_ShouldRejectInvalidCustomer_BeforeQueueing() {
+        // Given
+        Customer customer = Customer.builder().email("john@example.com").build();
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.createCustomerAsync(customer, false))
+                .isInstanceOf(CustomerValidationException.class);
+        verify(customerWriteQueue, never()).enqueue(any());
+    }
+
+    @Test
+    void getCustomerCreation_ShouldThrowException_WhenTrackingIdIsUnknown() {
+        // Given
+        when(customerWriteQueue.findCreation("unknown")).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.getCustomerCreation("unknown"))
+                .isInstanceOf(CustomerCreationNotFoundException.class);
+    }
+
+    @Test
+    void getChangesSince_ShouldCapLimit() {
+        // Given
+        CustomerChanges changes = new CustomerChanges(List.of(), false, 42L);
+        when(customerChangeFeed.readSince(40L, CustomerServiceImpl.MAX_CHANGES_SIZE)).thenReturn(changes);
+
+        // When
+        CustomerChanges result = customerService.getChangesSince(40L, 100_000);
+
+        // Then
+        assertThat(result).isSameAs(changes);
+    }
+
+    @Test
+    void getChangesSince_ShouldThrowException_WhenLimitIsNotPositive() {
+        // When/Then
+        assertThatThrownBy(() -> customerService.getChangesSince(40L, 0))
+                .isInstanceOf(CustomerValidationException.class);
+        verifyNoInteractions(customerChangeFeed);
+    }
 }
\ No newline at end of file
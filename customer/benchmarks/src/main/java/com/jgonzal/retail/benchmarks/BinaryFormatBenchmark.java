@@ -0,0 +1,124 @@
+package com.jgonzal.retail.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jgonzal.retail.adapters.input.rest.data.request.CustomerRequest;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerPageResponse;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerResponse;
+import com.jgonzal.retail.benchmarks.support.CustomerFixtures;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Encode and decode cost of the negotiable body formats, on a page of
+ * customers and on a batch of create requests. The {@code bytes} secondary
+ * result is the payload volume per millisecond; divided by the primary score
+ * it gives the payload size of each format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectWriter pageWriter;
+    private ObjectReader pageReader;
+    private ObjectWriter requestsWriter;
+    private ObjectReader requestsReader;
+    private CustomerPageResponse page;
+    private List<CustomerRequest> requests;
+    private byte[] encodedPage;
+    private byte[] encodedRequests;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Built the same way as the converters registered by BinaryFormatConfig
+        var builder = Jackson2ObjectMapperBuilder.json();
+        switch (format) {
+            case "cbor" -> builder.factory(new CBORFactory());
+            case "smile" -> builder.factory(new SmileFactory());
+            default -> { }
+        }
+        var objectMapper = builder.build();
+        var requestsType = new TypeReference<List<CustomerRequest>>() { };
+        pageWriter = objectMapper.writerFor(CustomerPageResponse.class);
+        pageReader = objectMapper.readerFor(CustomerPageResponse.class);
+        requestsWriter = objectMapper.writerFor(requestsType);
+        requestsReader = objectMapper.readerFor(requestsType);
+
+        List<CustomerResponse> content = LongStream.rangeClosed(1, CustomerFixtures.LIST_SIZE)
+                .mapToObj(CustomerFixtures::response)
+                .toList();
+        page = new CustomerPageResponse(content, "aWQ6NTA");
+        requests = IntStream.range(0, CustomerFixtures.LIST_SIZE)
+                .mapToObj(i -> new CustomerRequest("Customer " + i, "customer" + i + "@example.com"))
+                .toList();
+        encodedPage = pageWriter.writeValueAsBytes(page);
+        encodedRequests = requestsWriter.writeValueAsBytes(requests);
+    }
+
+    @Benchmark
+    public byte[] encodePage(Payload payload) throws IOException {
+        var encoded = pageWriter.writeValueAsBytes(page);
+        payload.bytes += encoded.length;
+        return encoded;
+    }
+
+    @Benchmark
+    public CustomerPageResponse decodePage(Payload payload) throws IOException {
+        payload.bytes += encodedPage.length;
+        return pageReader.readValue(encodedPage);
+    }
+
+    @Benchmark
+    public byte[] encodeRequests(Payload payload) throws IOException {
+        var encoded = requestsWriter.writeValueAsBytes(requests);
+        payload.bytes += encoded.length;
+        return encoded;
+    }
+
+    @Benchmark
+    public List<CustomerRequest> decodeRequests(Payload payload) throws IOException {
+        payload.bytes += encodedRequests.length;
+        return requestsReader.readValue(encodedRequests);
+    }
+
+    // Public fields of an AuxCounters state are reported next to the score, as a rate per output time unit
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Payload {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
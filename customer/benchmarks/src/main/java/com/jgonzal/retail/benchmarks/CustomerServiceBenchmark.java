@@ -0,0 +1,84 @@
+package com.jgonzal.retail.benchmarks;
+
+import com.jgonzal.retail.adapters.out.changes.CustomerChangeRing;
+import com.jgonzal.retail.benchmarks.support.CustomerFixtures;
+import com.jgonzal.retail.benchmarks.support.StubCustomerRepository;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerBatchResult;
+import com.jgonzal.retail.model.CustomerLookupResult;
+import com.jgonzal.retail.model.CustomerPage;
+import com.jgonzal.retail.services.CustomerServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerServiceBenchmark {
+
+    private static final int DATA_SET_SIZE = 10_000;
+
+    private CustomerServiceImpl customerService;
+    private List<Long> lookupIds;
+    private List<Customer> batch;
+    private Customer patchChanges;
+
+    @Setup
+    public void setUp() {
+        customerService = new CustomerServiceImpl(new StubCustomerRepository(DATA_SET_SIZE), null,
+                new CustomerChangeRing(1_024));
+        // Every fifth id is missing so the lookup also exercises the not-found bookkeeping
+        lookupIds = LongStream.rangeClosed(1, CustomerFixtures.LIST_SIZE)
+                .map(id -> id % 5 == 0 ? DATA_SET_SIZE + id : id)
+                .boxed()
+                .toList();
+        batch = CustomerFixtures.customers(CustomerFixtures.LIST_SIZE);
+        patchChanges = Customer.builder().email("patched@example.com").build();
+    }
+
+    @Benchmark
+    public Customer getCustomerById() {
+        return customerService.getCustomerById(42L);
+    }
+
+    @Benchmark
+    public CustomerPage getCustomersPage() {
+        return customerService.getCustomersPage(5_000L, CustomerFixtures.LIST_SIZE);
+    }
+
+    @Benchmark
+    public CustomerLookupResult getCustomersByIds() {
+        return customerService.getCustomersByIds(lookupIds);
+    }
+
+    @Benchmark
+    public List<CustomerBatchResult> createCustomers() {
+        return customerService.createCustomers(batch);
+    }
+
+    @Benchmark
+    public Customer updateCustomer() {
+        // A fresh instance per call: the service writes the path id into its argument
+        return customerService.updateCustomer(42L, Customer.builder().name("John Doe").email("john@example.com").build());
+    }
+
+    @Benchmark
+    public Customer patchCustomer() {
+        return customerService.patchCustomer(42L, patchChanges);
+    }
+}
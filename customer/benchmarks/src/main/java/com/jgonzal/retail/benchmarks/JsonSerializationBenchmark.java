@@ -0,0 +1,79 @@
+package com.jgonzal.retail.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerPageResponse;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerResponse;
+import com.jgonzal.retail.adapters.input.rest.data.response.ErrorResponse;
+import com.jgonzal.retail.benchmarks.support.CustomerFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter customerWriter;
+    private CustomerResponse customer;
+    private CustomerPageResponse page;
+    private ErrorResponse error;
+
+    @Setup
+    public void setUp() {
+        // Same defaults Spring Boot applies to the ObjectMapper used by the controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        customerWriter = objectMapper.writerFor(CustomerResponse.class);
+        customer = CustomerFixtures.response(1L);
+        List<CustomerResponse> content = LongStream.rangeClosed(1, CustomerFixtures.LIST_SIZE)
+                .mapToObj(CustomerFixtures::response)
+                .toList();
+        page = new CustomerPageResponse(content, "aWQ6NTA");
+        error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(404)
+                .error("Not Found")
+                .message("Cliente no encontrado con id: 1")
+                .path("/customers/1")
+                .build();
+    }
+
+    @Benchmark
+    public byte[] customerResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public byte[] customerResponsePrebuiltWriter() throws JsonProcessingException {
+        return customerWriter.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public byte[] customerPageResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] errorResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(error);
+    }
+}
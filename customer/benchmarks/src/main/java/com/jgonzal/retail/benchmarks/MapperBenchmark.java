@@ -0,0 +1,86 @@
+package com.jgonzal.retail.benchmarks;
+
+import com.jgonzal.retail.adapters.input.rest.data.request.CustomerRequest;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerResponse;
+import com.jgonzal.retail.adapters.input.rest.mapper.CustomerRestMapper;
+import com.jgonzal.retail.adapters.out.persistence.entity.CustomerEntity;
+import com.jgonzal.retail.adapters.out.persistence.mapper.CustomerMapper;
+import com.jgonzal.retail.benchmarks.support.CustomerFixtures;
+import com.jgonzal.retail.model.Customer;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private CustomerRestMapper restMapper;
+    private CustomerMapper persistenceMapper;
+    private Customer customer;
+    private List<Customer> customers;
+    private CustomerRequest request;
+    private CustomerEntity entity;
+    private List<CustomerEntity> entities;
+
+    @Setup
+    public void setUp() {
+        restMapper = Mappers.getMapper(CustomerRestMapper.class);
+        persistenceMapper = Mappers.getMapper(CustomerMapper.class);
+        customer = CustomerFixtures.customer(1L);
+        customers = CustomerFixtures.customers(CustomerFixtures.LIST_SIZE);
+        request = CustomerFixtures.request();
+        entity = CustomerFixtures.entity(1L);
+        entities = CustomerFixtures.entities(CustomerFixtures.LIST_SIZE);
+    }
+
+    @Benchmark
+    public Customer restToDomain() {
+        return restMapper.toDomain(request);
+    }
+
+    @Benchmark
+    public CustomerResponse restToResponse() {
+        return restMapper.toResponse(customer);
+    }
+
+    @Benchmark
+    public List<CustomerResponse> restToResponseList() {
+        return restMapper.toResponseList(customers);
+    }
+
+    @Benchmark
+    public CustomerEntity persistenceToEntity() {
+        return persistenceMapper.toEntity(customer);
+    }
+
+    @Benchmark
+    public List<CustomerEntity> persistenceToEntityList() {
+        return persistenceMapper.toEntityList(customers);
+    }
+
+    @Benchmark
+    public Customer persistenceToDomain() {
+        return persistenceMapper.toDomain(entity);
+    }
+
+    @Benchmark
+    public List<Customer> persistenceToDomainList() {
+        return persistenceMapper.toDomainList(entities);
+    }
+}
@@ -0,0 +1,77 @@
+package com.jgonzal.retail.benchmarks;
+
+import com.jgonzal.retail.adapters.out.search.CustomerSearchIndex;
+import com.jgonzal.retail.model.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchIndexBenchmark {
+
+    private static final int SEARCH_LIMIT = 10;
+    private static final String[] FIRST_NAMES = {
+            "María", "José", "Antonio", "Carmen", "Manuel", "Laura", "David", "Lucía", "Javier", "Elena",
+            "Francisco", "Marta", "Daniel", "Paula", "Pablo", "Sara", "Alejandro", "Cristina", "Sergio", "Ana"};
+    private static final String[] LAST_NAMES = {
+            "García", "Rodríguez", "González", "Fernández", "López", "Martínez", "Sánchez", "Pérez", "Gómez", "Martín",
+            "Jiménez", "Ruiz", "Hernández", "Díaz", "Moreno", "Muñoz", "Álvarez", "Romero", "Alonso", "Gutiérrez"};
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private CustomerSearchIndex searchIndex;
+
+    @Setup
+    public void setUp() {
+        searchIndex = new CustomerSearchIndex();
+        searchIndex.load(consumer -> LongStream.rangeClosed(1, size).mapToObj(SearchIndexBenchmark::customer)
+                .forEach(consumer));
+    }
+
+    // Short prefix of a very common word: the first matches end the walk
+    @Benchmark
+    public List<Customer> commonPrefix() {
+        return searchIndex.search("mar", SEARCH_LIMIT);
+    }
+
+    // Two common words: candidates of the longer one are filtered by the other
+    @Benchmark
+    public List<Customer> twoTerms() {
+        return searchIndex.search("lucia gon", SEARCH_LIMIT);
+    }
+
+    // A word held by a single customer
+    @Benchmark
+    public List<Customer> selectiveWord() {
+        return searchIndex.search("user" + size / 2, SEARCH_LIMIT);
+    }
+
+    private static Customer customer(long id) {
+        var firstName = FIRST_NAMES[(int) (id % FIRST_NAMES.length)];
+        var lastName = LAST_NAMES[(int) (id / FIRST_NAMES.length % LAST_NAMES.length)];
+        return Customer.builder()
+                .id(id)
+                .name(firstName + " " + lastName)
+                .email("user" + id + "@example.com")
+                .version(0L)
+                .build();
+    }
+}
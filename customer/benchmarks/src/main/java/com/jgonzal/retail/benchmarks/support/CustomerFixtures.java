@@ -0,0 +1,46 @@
+package com.jgonzal.retail.benchmarks.support;
+
+import com.jgonzal.retail.adapters.input.rest.data.request.CustomerRequest;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerResponse;
+import com.jgonzal.retail.adapters.out.persistence.entity.CustomerEntity;
+import com.jgonzal.retail.model.Customer;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+public final class CustomerFixtures {
+
+    public static final int LIST_SIZE = 50;
+
+    private CustomerFixtures() {
+    }
+
+    public static Customer customer(long id) {
+        return Customer.builder()
+                .id(id)
+                .name("Customer " + id)
+                .email("customer" + id + "@example.com")
+                .version(1L)
+                .build();
+    }
+
+    public static List<Customer> customers(int size) {
+        return LongStream.rangeClosed(1, size).mapToObj(CustomerFixtures::customer).toList();
+    }
+
+    public static CustomerEntity entity(long id) {
+        return new CustomerEntity(id, "Customer " + id, "customer" + id + "@example.com", 1L);
+    }
+
+    public static List<CustomerEntity> entities(int size) {
+        return LongStream.rangeClosed(1, size).mapToObj(CustomerFixtures::entity).toList();
+    }
+
+    public static CustomerRequest request() {
+        return new CustomerRequest("John Doe", "john.doe@example.com");
+    }
+
+    public static CustomerResponse response(long id) {
+        return new CustomerResponse(id, "Customer " + id, "customer" + id + "@example.com");
+    }
+}
@@ -0,0 +1,132 @@
+package com.jgonzal.retail.benchmarks.support;
+
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Fixed in-memory data set behind the output port, so the service benchmarks
+ * measure the service itself. Writes return results but never grow the data set,
+ * which keeps every iteration identical.
+ */
+public class StubCustomerRepository implements CustomerRepository {
+
+    private final TreeMap<Long, Customer> customers = new TreeMap<>();
+
+    public StubCustomerRepository(int size) {
+        CustomerFixtures.customers(size).forEach(customer -> customers.put(customer.getId(), customer));
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        return customer.toBuilder().id(customers.lastKey() + 1).version(0L).build();
+    }
+
+    @Override
+    public List<Customer> saveAll(List<Customer> customersToSave) {
+        var saved = new ArrayList<Customer>(customersToSave.size());
+        long nextId = customers.lastKey() + 1;
+        for (Customer customer : customersToSave) {
+            saved.add(customer.toBuilder().id(nextId++).version(0L).build());
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        return Optional.ofNullable(customers.get(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return customers.containsKey(id);
+    }
+
+    @Override
+    public Optional<Customer> findByEmail(String email) {
+        return customers.values().stream().filter(customer -> customer.getEmail().equals(email)).findFirst();
+    }
+
+    @Override
+    public List<Customer> findAllById(Collection<Long> ids) {
+        var found = new ArrayList<Customer>(ids.size());
+        for (Long id : ids) {
+            var customer = customers.get(id);
+            if (customer != null) {
+                found.add(customer);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return List.copyOf(customers.values());
+    }
+
+    @Override
+    public List<Customer> findPage(Long afterId, int limit) {
+        var page = new ArrayList<Customer>(limit);
+        for (Map.Entry<Long, Customer> entry : customers.tailMap(afterId == null ? 0L : afterId, false).entrySet()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(entry.getValue());
+        }
+        return page;
+    }
+
+    @Override
+    public void streamAll(Consumer<Customer> consumer) {
+        customers.values().forEach(consumer);
+    }
+
+    @Override
+    public List<Customer> search(String query, int limit) {
+        var lowerCaseQuery = query.toLowerCase(Locale.ROOT);
+        return customers.values().stream()
+                .filter(customer -> customer.getName().toLowerCase(Locale.ROOT).contains(lowerCaseQuery)
+                        || customer.getEmail().contains(lowerCaseQuery))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Optional<Customer> deleteById(Long id) {
+        return findById(id);
+    }
+
+    @Override
+    public List<Customer> deleteAllById(Collection<Long> ids) {
+        return findAllById(ids);
+    }
+
+    @Override
+    public Optional<Customer> update(Customer customer) {
+        return findById(customer.getId()).map(existing -> customer.toBuilder().version(existing.getVersion() + 1).build());
+    }
+
+    @Override
+    public Optional<Customer> patch(Long id, Customer changes) {
+        return findById(id).map(existing -> existing.toBuilder()
+                .name(changes.getName() != null ? changes.getName() : existing.getName())
+                .email(changes.getEmail() != null ? changes.getEmail() : existing.getEmail())
+                .version(existing.getVersion() + 1)
+                .build());
+    }
+
+    @Override
+    public Customer upsertByEmail(Customer customer) {
+        return findByEmail(customer.getEmail())
+                .map(existing -> customer.toBuilder().id(existing.getId()).version(existing.getVersion() + 1).build())
+                .orElseGet(() -> save(customer));
+    }
+}
@@ -2,12 +2,8 @@ package com.jgonzal.retail;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.autoconfigure.domain.EntityScan;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication(scanBasePackages = "com.jgonzal.retail")
-@EntityScan("com.jgonzal.retail")
-@EnableJpaRepositories("com.jgonzal.retail")
 public class CustomerApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,7 @@
+package com.jgonzal.retail.exception;
+
+public class CustomerCreationNotFoundException extends RuntimeException {
+    public CustomerCreationNotFoundException(String trackingId) {
+        super("Alta de cliente no encontrada: " + trackingId);
+    }
+}
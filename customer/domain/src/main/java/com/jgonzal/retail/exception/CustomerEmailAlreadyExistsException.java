@@ -0,0 +1,11 @@
+package com.jgonzal.retail.exception;
+
+public class CustomerEmailAlreadyExistsException extends RuntimeException {
+    public CustomerEmailAlreadyExistsException() {
+        super("El email ya está registrado");
+    }
+
+    public CustomerEmailAlreadyExistsException(Throwable cause) {
+        super("El email ya está registrado", cause);
+    }
+}
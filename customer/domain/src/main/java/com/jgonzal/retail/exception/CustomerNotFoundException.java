@@ -4,4 +4,8 @@ public class CustomerNotFoundException extends RuntimeException {
     public CustomerNotFoundException(Long id) {
         super("Cliente no encontrado con id: " + id);
     }
+
+    public CustomerNotFoundException(String email) {
+        super("Cliente no encontrado con email: " + email);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.jgonzal.retail.exception;
+
+public class CustomerQueueFullException extends RuntimeException {
+    public CustomerQueueFullException(int capacity) {
+        super("La cola de altas de clientes está llena (" + capacity + " pendientes); inténtelo más tarde");
+    }
+}
@@ -0,0 +1,7 @@
+package com.jgonzal.retail.exception;
+
+public class CustomerSearchUnavailableException extends RuntimeException {
+    public CustomerSearchUnavailableException() {
+        super("La búsqueda de clientes se está cargando; inténtelo más tarde");
+    }
+}
@@ -0,0 +1,7 @@
+package com.jgonzal.retail.exception;
+
+public class CustomerVersionConflictException extends RuntimeException {
+    public CustomerVersionConflictException(Long id, Long expectedVersion) {
+        super("El cliente con id " + id + " ha sido modificado; versión esperada: " + expectedVersion);
+    }
+}
@@ -6,7 +6,7 @@ import lombok.Setter;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;    
 
-@Builder
+@Builder(toBuilder = true)
 @Getter
 @Setter
 @AllArgsConstructor
@@ -16,4 +16,9 @@ public class Customer {
     private Long id;
     private String name;
     private String email;
+    private Long version;
+
+    public Customer(Long id, String name, String email) {
+        this(id, name, email, null);
+    }
 }
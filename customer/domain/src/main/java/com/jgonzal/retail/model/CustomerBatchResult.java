@@ -0,0 +1,27 @@
+package com.jgonzal.retail.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Builder
+@Getter
+@AllArgsConstructor
+public class CustomerBatchResult {
+
+    private int index;
+    private Customer customer;
+    private String error;
+
+    public static CustomerBatchResult created(int index, Customer customer) {
+        return new CustomerBatchResult(index, customer, null);
+    }
+
+    public static CustomerBatchResult rejected(int index, String error) {
+        return new CustomerBatchResult(index, null, error);
+    }
+
+    public boolean isCreated() {
+        return error == null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.jgonzal.retail.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Builder
+@Getter
+@AllArgsConstructor
+public class CustomerChange {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private long sequence;
+    private Type type;
+    private Long customerId;
+    // Increases with every change to the customer. Sequences follow publication order, which concurrent writes
+    // can swap, so consumers order the changes of one customer by version. A deletion is one past the last version
+    private Long version;
+    // State after the change; null for deletions
+    private Customer customer;
+    private Instant occurredAt;
+}
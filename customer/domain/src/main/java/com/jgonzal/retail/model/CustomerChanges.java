@@ -0,0 +1,19 @@
+package com.jgonzal.retail.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Builder
+@Getter
+@AllArgsConstructor
+public class CustomerChanges {
+
+    private List<CustomerChange> changes;
+    // The requested position is no longer retained, so the consumer has to reload a full snapshot
+    private boolean resyncRequired;
+    // Sequence to resume from on the next read
+    private long latestSequence;
+}
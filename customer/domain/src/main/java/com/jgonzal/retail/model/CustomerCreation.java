@@ -0,0 +1,34 @@
+package com.jgonzal.retail.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Builder
+@Getter
+@AllArgsConstructor
+public class CustomerCreation {
+
+    public enum Status {
+        PENDING,
+        CREATED,
+        FAILED
+    }
+
+    private String trackingId;
+    private Status status;
+    private Customer customer;
+    private String error;
+
+    public static CustomerCreation pending(String trackingId) {
+        return new CustomerCreation(trackingId, Status.PENDING, null, null);
+    }
+
+    public static CustomerCreation created(String trackingId, Customer customer) {
+        return new CustomerCreation(trackingId, Status.CREATED, customer, null);
+    }
+
+    public static CustomerCreation failed(String trackingId, String error) {
+        return new CustomerCreation(trackingId, Status.FAILED, null, error);
+    }
+}
@@ -0,0 +1,16 @@
+package com.jgonzal.retail.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Builder
+@Getter
+@AllArgsConstructor
+public class CustomerDeletionResult {
+
+    private List<Long> deletedIds;
+    private List<Long> missingIds;
+}
@@ -0,0 +1,16 @@
+package com.jgonzal.retail.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Builder
+@Getter
+@AllArgsConstructor
+public class CustomerLookupResult {
+
+    private List<Customer> customers;
+    private List<Long> missingIds;
+}
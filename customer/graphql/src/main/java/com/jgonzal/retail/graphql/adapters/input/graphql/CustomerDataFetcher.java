@@ -0,0 +1,130 @@
+package com.jgonzal.retail.graphql.adapters.input.graphql;
+
+import com.jgonzal.retail.adapters.input.rest.data.request.CustomerRequest;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerDeletionResponse;
+import com.jgonzal.retail.adapters.input.rest.mapper.CustomerRestMapper;
+import com.jgonzal.retail.adapters.input.rest.pagination.CursorCodec;
+import com.jgonzal.retail.exception.CustomerValidationException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerPage;
+import com.jgonzal.retail.ports.input.CustomerService;
+import com.netflix.graphql.dgs.DgsComponent;
+import com.netflix.graphql.dgs.DgsData;
+import com.netflix.graphql.dgs.DgsDataFetchingEnvironment;
+import com.netflix.graphql.dgs.DgsMutation;
+import com.netflix.graphql.dgs.DgsQuery;
+import com.netflix.graphql.dgs.InputArgument;
+import org.dataloader.DataLoader;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@DgsComponent
+@ConditionalOnProperty(name = "customer.stack", havingValue = "servlet", matchIfMissing = true)
+public class CustomerDataFetcher {
+
+    // Same defaults as the schema, which only applies them when the argument is left out, not when it is null
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+
+    private final CustomerService customerService;
+    private final CustomerRestMapper customerMapper;
+
+    public CustomerDataFetcher(CustomerService customerService, CustomerRestMapper customerMapper) {
+        this.customerService = customerService;
+        this.customerMapper = customerMapper;
+    }
+
+    // Both lookups by id go through the DataLoader, so every id in the query costs one batched call together
+    @DgsQuery
+    public CompletableFuture<Customer> customer(@InputArgument String id, DgsDataFetchingEnvironment dfe) {
+        return customerLoader(dfe).load(parseId(id));
+    }
+
+    @DgsQuery
+    public CompletableFuture<List<Customer>> customers(@InputArgument List<String> ids,
+            DgsDataFetchingEnvironment dfe) {
+        return customerLoader(dfe).loadMany(ids.stream().map(CustomerDataFetcher::parseId).toList());
+    }
+
+    @DgsQuery
+    public Customer customerByEmail(@InputArgument String email) {
+        return customerService.getCustomerByEmail(email);
+    }
+
+    @DgsQuery
+    public CustomerPage customerPage(@InputArgument String after, @InputArgument Integer size) {
+        return customerService.getCustomersPage(CursorCodec.decode(after), size == null ? DEFAULT_PAGE_SIZE : size);
+    }
+
+    @DgsData(parentType = "CustomerPage", field = "content")
+    public List<Customer> customerPageContent(DgsDataFetchingEnvironment dfe) {
+        CustomerPage page = dfe.getSource();
+        return page.getCustomers();
+    }
+
+    @DgsData(parentType = "CustomerPage", field = "nextCursor")
+    public String customerPageNextCursor(DgsDataFetchingEnvironment dfe) {
+        CustomerPage page = dfe.getSource();
+        return CursorCodec.encode(page.getNextCursor());
+    }
+
+    @DgsQuery
+    public List<Customer> searchCustomers(@InputArgument String query, @InputArgument Integer limit) {
+        return customerService.searchCustomers(query, limit == null ? DEFAULT_SEARCH_LIMIT : limit);
+    }
+
+    @DgsMutation
+    public Customer createCustomer(@InputArgument CustomerRequest input) {
+        return customerService.createCustomer(customerMapper.toDomain(input));
+    }
+
+    @DgsMutation
+    public Customer updateCustomer(@InputArgument String id, @InputArgument CustomerRequest input,
+            @InputArgument Integer version) {
+        var customer = customerMapper.toDomain(input);
+        customer.setVersion(version == null ? null : version.longValue());
+        return customerService.updateCustomer(parseId(id), customer);
+    }
+
+    @DgsMutation
+    public Customer patchCustomer(@InputArgument String id, @InputArgument CustomerRequest input,
+            @InputArgument Integer version) {
+        var changes = customerMapper.toDomain(input);
+        changes.setVersion(version == null ? null : version.longValue());
+        return customerService.patchCustomer(parseId(id), changes);
+    }
+
+    @DgsMutation
+    public Customer upsertCustomerByEmail(@InputArgument CustomerRequest input) {
+        return customerService.upsertCustomerByEmail(customerMapper.toDomain(input));
+    }
+
+    @DgsMutation
+    public boolean deleteCustomer(@InputArgument String id) {
+        customerService.deleteCustomer(parseId(id));
+        return true;
+    }
+
+    @DgsMutation
+    public CustomerDeletionResponse deleteCustomers(@InputArgument List<String> ids) {
+        var result = customerService.deleteCustomers(ids.stream().map(CustomerDataFetcher::parseId).toList());
+        return CustomerDeletionResponse.builder()
+                .deleted(result.getDeletedIds())
+                .notFound(result.getMissingIds())
+                .build();
+    }
+
+    private static DataLoader<Long, Customer> customerLoader(DgsDataFetchingEnvironment dfe) {
+        return dfe.getDataLoader(CustomerDataLoader.NAME);
+    }
+
+    private static Long parseId(String id) {
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException ex) {
+            throw new CustomerValidationException("Id inválido: " + id);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.jgonzal.retail.graphql.adapters.input.graphql;
+
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.input.CustomerService;
+import com.netflix.graphql.dgs.DgsDataLoader;
+import org.dataloader.MappedBatchLoader;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Collects every customer id requested while one GraphQL query executes and
+ * resolves them through the service, in as few lookups as the service's
+ * lookup limit allows. Ids that do not exist resolve to null.
+ */
+@DgsDataLoader(name = CustomerDataLoader.NAME)
+@ConditionalOnProperty(name = "customer.stack", havingValue = "servlet", matchIfMissing = true)
+public class CustomerDataLoader implements MappedBatchLoader<Long, Customer> {
+
+    static final String NAME = "customers";
+
+    private final CustomerService customerService;
+
+    public CustomerDataLoader(CustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @Override
+    public CompletionStage<Map<Long, Customer>> load(Set<Long> ids) {
+        int maxLookupSize = customerService.getMaxLookupSize();
+        var customers = new HashMap<Long, Customer>(ids.size());
+        if (ids.size() <= maxLookupSize) {
+            lookup(ids, customers);
+            return CompletableFuture.completedFuture(customers);
+        }
+        List<Long> chunk = new ArrayList<>(maxLookupSize);
+        for (Long id : ids) {
+            chunk.add(id);
+            if (chunk.size() == maxLookupSize) {
+                lookup(chunk, customers);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            lookup(chunk, customers);
+        }
+        return CompletableFuture.completedFuture(customers);
+    }
+
+    private void lookup(Collection<Long> ids, Map<Long, Customer> customers) {
+        customerService.getCustomersByIds(ids).getCustomers()
+                .forEach(customer -> customers.put(customer.getId(), customer));
+    }
+}
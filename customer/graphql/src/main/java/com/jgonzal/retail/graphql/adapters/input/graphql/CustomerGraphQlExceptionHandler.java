@@ -0,0 +1,69 @@
+package com.jgonzal.retail.graphql.adapters.input.graphql;
+
+import com.jgonzal.retail.exception.CustomerCreationNotFoundException;
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
+import com.jgonzal.retail.exception.CustomerNotFoundException;
+import com.jgonzal.retail.exception.CustomerQueueFullException;
+import com.jgonzal.retail.exception.CustomerSearchUnavailableException;
+import com.jgonzal.retail.exception.CustomerValidationException;
+import com.jgonzal.retail.exception.CustomerVersionConflictException;
+import com.netflix.graphql.types.errors.ErrorType;
+import com.netflix.graphql.types.errors.TypedGraphQLError;
+import graphql.execution.DataFetcherExceptionHandler;
+import graphql.execution.DataFetcherExceptionHandlerParameters;
+import graphql.execution.DataFetcherExceptionHandlerResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The GraphQL counterpart of GlobalExceptionHandler: turns the exceptions
+ * thrown through the CustomerService port into typed errors with the same
+ * messages, next to whatever part of the query did resolve.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "customer.stack", havingValue = "servlet", matchIfMissing = true)
+public class CustomerGraphQlExceptionHandler implements DataFetcherExceptionHandler {
+
+    @Override
+    public CompletableFuture<DataFetcherExceptionHandlerResult> handleException(
+            DataFetcherExceptionHandlerParameters handlerParameters) {
+        var exception = handlerParameters.getException();
+        // Failures inside the DataLoader batch arrive wrapped by the future that carried them
+        if (exception instanceof CompletionException && exception.getCause() != null) {
+            exception = exception.getCause();
+        }
+        var error = builderFor(exception)
+                .path(handlerParameters.getPath())
+                .location(handlerParameters.getSourceLocation())
+                .build();
+        return CompletableFuture.completedFuture(DataFetcherExceptionHandlerResult.newResult().error(error).build());
+    }
+
+    private static TypedGraphQLError.Builder builderFor(Throwable exception) {
+        if (exception instanceof CustomerNotFoundException || exception instanceof CustomerCreationNotFoundException) {
+            return TypedGraphQLError.newBuilder().errorType(ErrorType.NOT_FOUND).message(exception.getMessage());
+        }
+        if (exception instanceof CustomerValidationException) {
+            return TypedGraphQLError.newBuilder().errorType(ErrorType.BAD_REQUEST).message(exception.getMessage());
+        }
+        if (exception instanceof CustomerVersionConflictException) {
+            return TypedGraphQLError.newBuilder().errorType(ErrorType.FAILED_PRECONDITION)
+                    .message(exception.getMessage());
+        }
+        if (exception instanceof CustomerEmailAlreadyExistsException) {
+            return TypedGraphQLError.newBuilder().errorType(ErrorType.FAILED_PRECONDITION)
+                    .message(exception.getMessage());
+        }
+        if (exception instanceof CustomerQueueFullException || exception instanceof CustomerSearchUnavailableException) {
+            return TypedGraphQLError.newBuilder().errorType(ErrorType.UNAVAILABLE).message(exception.getMessage());
+        }
+        log.error("Unexpected error in GraphQL customer query", exception);
+        return TypedGraphQLError.newBuilder().errorType(ErrorType.INTERNAL)
+                .message("Ha ocurrido un error interno en el servidor");
+    }
+}
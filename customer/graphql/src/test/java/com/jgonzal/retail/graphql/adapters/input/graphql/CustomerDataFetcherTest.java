@@ -0,0 +1,133 @@
+package com.jgonzal.retail.graphql.adapters.input.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import com.jgonzal.retail.adapters.input.rest.mapper.CustomerRestMapperImpl;
+import com.jgonzal.retail.exception.CustomerNotFoundException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerLookupResult;
+import com.jgonzal.retail.model.CustomerPage;
+import com.jgonzal.retail.ports.input.CustomerService;
+import com.netflix.graphql.dgs.DgsQueryExecutor;
+import com.netflix.graphql.dgs.autoconfig.DgsAutoConfiguration;
+import graphql.ExecutionResult;
+
+@SpringBootTest(classes = {
+        DgsAutoConfiguration.class,
+        CustomerDataFetcher.class,
+        CustomerDataLoader.class,
+        CustomerGraphQlExceptionHandler.class,
+        CustomerRestMapperImpl.class})
+class CustomerDataFetcherTest {
+
+    @Autowired
+    private DgsQueryExecutor queryExecutor;
+
+    @MockBean
+    private CustomerService customerService;
+
+    @Test
+    void customers_ShouldResolveEveryIdInTheQueryWithOneLookup() {
+        // Given
+        when(customerService.getMaxLookupSize()).thenReturn(500);
+        when(customerService.getCustomersByIds(anyCollection())).thenReturn(new CustomerLookupResult(
+                List.of(customer(1L), customer(2L), customer(3L)), List.of(99L)));
+        String query = """
+                {
+                    first: customer(id: "1") { name }
+                    second: customer(id: "2") { email }
+                    others: customers(ids: ["3", "99"]) { id version }
+                }
+                """;
+
+        // When
+        ExecutionResult result = queryExecutor.execute(query);
+
+        // Then
+        Map<String, Object> data = result.getData();
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(data.get("first")).isEqualTo(Map.of("name", "Customer 1"));
+        assertThat(data.get("others")).asInstanceOf(InstanceOfAssertFactories.LIST).hasSize(2).element(1).isNull();
+        verify(customerService).getCustomersByIds(Set.of(1L, 2L, 3L, 99L));
+    }
+
+    @Test
+    void customerByEmail_ShouldReturnTypedError_WhenCustomerDoesNotExist() {
+        // Given
+        when(customerService.getCustomerByEmail("missing@example.com"))
+                .thenThrow(new CustomerNotFoundException("missing@example.com"));
+
+        // When
+        var result = queryExecutor.execute("{ customerByEmail(email: \"missing@example.com\") { id } }");
+
+        // Then
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.getErrors().get(0).getMessage())
+                .isEqualTo("Cliente no encontrado con email: missing@example.com");
+        assertThat(result.getErrors().get(0).getExtensions()).containsEntry("errorType", "NOT_FOUND");
+    }
+
+    @Test
+    void customers_ShouldSplitLookups_WhenMoreIdsThanTheServiceAccepts() {
+        // Given
+        when(customerService.getMaxLookupSize()).thenReturn(2);
+        when(customerService.getCustomersByIds(List.of(1L, 2L)))
+                .thenReturn(new CustomerLookupResult(List.of(customer(1L), customer(2L)), List.of()));
+        when(customerService.getCustomersByIds(List.of(3L)))
+                .thenReturn(new CustomerLookupResult(List.of(customer(3L)), List.of()));
+
+        // When
+        ExecutionResult result = queryExecutor.execute("{ customers(ids: [\"1\", \"2\", \"3\"]) { id } }");
+
+        // Then
+        Map<String, Object> data = result.getData();
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(data.get("customers")).asInstanceOf(InstanceOfAssertFactories.LIST).hasSize(3);
+        verify(customerService).getCustomersByIds(List.of(1L, 2L));
+        verify(customerService).getCustomersByIds(List.of(3L));
+    }
+
+    @Test
+    void searchCustomers_ShouldUseDefaultLimit_WhenLimitIsNull() {
+        // Given
+        when(customerService.searchCustomers("doe", 10)).thenReturn(List.of(customer(1L)));
+
+        // When
+        var result = queryExecutor.execute("{ searchCustomers(query: \"doe\", limit: null) { id } }");
+
+        // Then
+        assertThat(result.getErrors()).isEmpty();
+        verify(customerService).searchCustomers("doe", 10);
+    }
+
+    @Test
+    void customerPage_ShouldUseDefaultSize_WhenSizeIsNull() {
+        // Given
+        when(customerService.getCustomersPage(null, 50)).thenReturn(new CustomerPage(List.of(customer(1L)), null));
+
+        // When
+        var result = queryExecutor.execute("{ customerPage(size: null) { content { id } nextCursor } }");
+
+        // Then
+        assertThat(result.getErrors()).isEmpty();
+        verify(customerService).getCustomersPage(null, 50);
+    }
+
+    private static Customer customer(long id) {
+        return Customer.builder().id(id).name("Customer " + id).email("customer" + id + "@example.com").version(0L)
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.jgonzal.retail.grpc.adapters.input.grpc;
+
+import com.jgonzal.retail.exception.CustomerCreationNotFoundException;
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
+import com.jgonzal.retail.exception.CustomerNotFoundException;
+import com.jgonzal.retail.exception.CustomerQueueFullException;
+import com.jgonzal.retail.exception.CustomerSearchUnavailableException;
+import com.jgonzal.retail.exception.CustomerValidationException;
+import com.jgonzal.retail.exception.CustomerVersionConflictException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The gRPC counterpart of GlobalExceptionHandler: turns the exceptions thrown
+ * through the CustomerService port into status codes with the same messages.
+ */
+@Slf4j
+final class CustomerGrpcErrors {
+
+    private CustomerGrpcErrors() {
+    }
+
+    static StatusRuntimeException toStatus(RuntimeException ex) {
+        if (ex instanceof CustomerNotFoundException || ex instanceof CustomerCreationNotFoundException) {
+            return Status.NOT_FOUND.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        if (ex instanceof CustomerValidationException) {
+            return Status.INVALID_ARGUMENT.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        // ABORTED is gRPC's code for a lost read-modify-write race; the client re-reads and retries
+        if (ex instanceof CustomerVersionConflictException) {
+            return Status.ABORTED.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        if (ex instanceof CustomerEmailAlreadyExistsException) {
+            return Status.ALREADY_EXISTS.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        if (ex instanceof CustomerQueueFullException) {
+            return Status.RESOURCE_EXHAUSTED.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        if (ex instanceof CustomerSearchUnavailableException) {
+            return Status.UNAVAILABLE.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        log.error("Unexpected error in gRPC customer call", ex);
+        return Status.INTERNAL.withDescription("Ha ocurrido un error interno en el servidor").asRuntimeException();
+    }
+}
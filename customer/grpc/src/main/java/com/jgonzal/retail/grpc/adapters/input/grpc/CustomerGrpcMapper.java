@@ -0,0 +1,108 @@
+package com.jgonzal.retail.grpc.adapters.input.grpc;
+
+import com.jgonzal.retail.grpc.v1.BatchGetCustomersResponse;
+import com.jgonzal.retail.grpc.v1.CreateCustomersResponse;
+import com.jgonzal.retail.grpc.v1.CustomerInput;
+import com.jgonzal.retail.grpc.v1.DeleteCustomersResponse;
+import com.jgonzal.retail.grpc.v1.PatchCustomerRequest;
+import com.jgonzal.retail.grpc.v1.SearchCustomersResponse;
+import com.jgonzal.retail.grpc.v1.UpdateCustomerRequest;
+import com.jgonzal.retail.grpc.v1.UpsertCustomerResponse;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerBatchResult;
+import com.jgonzal.retail.model.CustomerDeletionResult;
+import com.jgonzal.retail.model.CustomerLookupResult;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Protobuf messages have no nulls and no setters, which MapStruct handles poorly, so this one is written by hand
+@Component
+public class CustomerGrpcMapper {
+
+    public Customer toDomain(CustomerInput input) {
+        return Customer.builder()
+                .name(emptyToNull(input.getName()))
+                .email(emptyToNull(input.getEmail()))
+                .build();
+    }
+
+    public List<Customer> toDomainList(List<CustomerInput> inputs) {
+        return inputs.stream().map(this::toDomain).toList();
+    }
+
+    public Customer toDomain(UpdateCustomerRequest request) {
+        var customer = toDomain(request.getCustomer());
+        customer.setVersion(request.hasVersion() ? request.getVersion() : null);
+        return customer;
+    }
+
+    public Customer toDomain(PatchCustomerRequest request) {
+        return Customer.builder()
+                .name(request.hasName() ? request.getName() : null)
+                .email(request.hasEmail() ? request.getEmail() : null)
+                .version(request.hasVersion() ? request.getVersion() : null)
+                .build();
+    }
+
+    public com.jgonzal.retail.grpc.v1.Customer toMessage(Customer customer) {
+        var message = com.jgonzal.retail.grpc.v1.Customer.newBuilder().setId(customer.getId());
+        if (customer.getName() != null) {
+            message.setName(customer.getName());
+        }
+        if (customer.getEmail() != null) {
+            message.setEmail(customer.getEmail());
+        }
+        if (customer.getVersion() != null) {
+            message.setVersion(customer.getVersion());
+        }
+        return message.build();
+    }
+
+    public CreateCustomersResponse toCreateCustomersResponse(List<CustomerBatchResult> results) {
+        var response = CreateCustomersResponse.newBuilder();
+        int created = 0;
+        for (CustomerBatchResult result : results) {
+            var item = CreateCustomersResponse.Item.newBuilder().setIndex(result.getIndex());
+            if (result.isCreated()) {
+                item.setCustomer(toMessage(result.getCustomer()));
+                created++;
+            } else {
+                item.setError(result.getError());
+            }
+            response.addResults(item);
+        }
+        return response.setCreated(created).setRejected(results.size() - created).build();
+    }
+
+    public BatchGetCustomersResponse toBatchGetResponse(CustomerLookupResult result) {
+        var response = BatchGetCustomersResponse.newBuilder().addAllNotFound(result.getMissingIds());
+        result.getCustomers().forEach(customer -> response.addCustomers(toMessage(customer)));
+        return response.build();
+    }
+
+    public SearchCustomersResponse toSearchResponse(List<Customer> customers) {
+        var response = SearchCustomersResponse.newBuilder();
+        customers.forEach(customer -> response.addCustomers(toMessage(customer)));
+        return response.build();
+    }
+
+    public UpsertCustomerResponse toUpsertResponse(Customer customer) {
+        // Inserted rows start at version 0, every update bumps it
+        return UpsertCustomerResponse.newBuilder()
+                .setCustomer(toMessage(customer))
+                .setCreated(Long.valueOf(0L).equals(customer.getVersion()))
+                .build();
+    }
+
+    public DeleteCustomersResponse toDeleteResponse(CustomerDeletionResult result) {
+        return DeleteCustomersResponse.newBuilder()
+                .addAllDeleted(result.getDeletedIds())
+                .addAllNotFound(result.getMissingIds())
+                .build();
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,201 @@
+package com.jgonzal.retail.grpc.adapters.input.grpc;
+
+import com.google.protobuf.Empty;
+import com.jgonzal.retail.grpc.v1.BatchGetCustomersRequest;
+import com.jgonzal.retail.grpc.v1.BatchGetCustomersResponse;
+import com.jgonzal.retail.grpc.v1.CreateCustomersRequest;
+import com.jgonzal.retail.grpc.v1.CreateCustomersResponse;
+import com.jgonzal.retail.grpc.v1.Customer;
+import com.jgonzal.retail.grpc.v1.CustomerInput;
+import com.jgonzal.retail.grpc.v1.CustomersGrpc;
+import com.jgonzal.retail.grpc.v1.DeleteCustomerRequest;
+import com.jgonzal.retail.grpc.v1.DeleteCustomersRequest;
+import com.jgonzal.retail.grpc.v1.DeleteCustomersResponse;
+import com.jgonzal.retail.grpc.v1.GetCustomerByEmailRequest;
+import com.jgonzal.retail.grpc.v1.GetCustomerRequest;
+import com.jgonzal.retail.grpc.v1.ListCustomersRequest;
+import com.jgonzal.retail.grpc.v1.PatchCustomerRequest;
+import com.jgonzal.retail.grpc.v1.SearchCustomersRequest;
+import com.jgonzal.retail.grpc.v1.SearchCustomersResponse;
+import com.jgonzal.retail.grpc.v1.UpdateCustomerRequest;
+import com.jgonzal.retail.grpc.v1.UpsertCustomerResponse;
+import com.jgonzal.retail.ports.input.CustomerService;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+@Component
+@ConditionalOnProperty(name = "customer.stack", havingValue = "servlet", matchIfMissing = true)
+public class CustomerGrpcService extends CustomersGrpc.CustomersImplBase {
+
+    private static final int LIST_PAGE_SIZE = 500;
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+
+    private final CustomerService customerService;
+    private final CustomerGrpcMapper customerMapper;
+
+    public CustomerGrpcService(CustomerService customerService, CustomerGrpcMapper customerMapper) {
+        this.customerService = customerService;
+        this.customerMapper = customerMapper;
+    }
+
+    @Override
+    public void createCustomer(CustomerInput request, StreamObserver<Customer> responseObserver) {
+        unary(responseObserver, () -> customerMapper.toMessage(
+                customerService.createCustomer(customerMapper.toDomain(request))));
+    }
+
+    @Override
+    public void createCustomers(CreateCustomersRequest request,
+            StreamObserver<CreateCustomersResponse> responseObserver) {
+        unary(responseObserver, () -> customerMapper.toCreateCustomersResponse(
+                customerService.createCustomers(customerMapper.toDomainList(request.getCustomersList()))));
+    }
+
+    @Override
+    public void getCustomer(GetCustomerRequest request, StreamObserver<Customer> responseObserver) {
+        unary(responseObserver, () -> customerMapper.toMessage(customerService.getCustomerById(request.getId())));
+    }
+
+    @Override
+    public void getCustomerByEmail(GetCustomerByEmailRequest request, StreamObserver<Customer> responseObserver) {
+        unary(responseObserver, () -> customerMapper.toMessage(
+                customerService.getCustomerByEmail(request.getEmail())));
+    }
+
+    @Override
+    public void listCustomers(ListCustomersRequest request, StreamObserver<Customer> responseObserver) {
+        var call = new ListCustomersCall((ServerCallStreamObserver<Customer>) responseObserver,
+                request.hasAfterId() ? request.getAfterId() : null);
+        // Called whenever the client can take more, so a slow reader never makes the server buffer the whole table
+        call.observer.setOnReadyHandler(call::sendWhileReady);
+    }
+
+    @Override
+    public StreamObserver<BatchGetCustomersRequest> batchGetCustomers(
+            StreamObserver<BatchGetCustomersResponse> responseObserver) {
+        return new StreamObserver<>() {
+
+            private boolean failed;
+
+            @Override
+            public void onNext(BatchGetCustomersRequest request) {
+                if (failed) {
+                    return;
+                }
+                try {
+                    responseObserver.onNext(customerMapper.toBatchGetResponse(
+                            customerService.getCustomersByIds(request.getIdsList())));
+                } catch (RuntimeException ex) {
+                    failed = true;
+                    responseObserver.onError(CustomerGrpcErrors.toStatus(ex));
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // The client cancelled or the connection dropped; there is nobody left to answer
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!failed) {
+                    responseObserver.onCompleted();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void searchCustomers(SearchCustomersRequest request,
+            StreamObserver<SearchCustomersResponse> responseObserver) {
+        int limit = request.getLimit() == 0 ? DEFAULT_SEARCH_LIMIT : request.getLimit();
+        unary(responseObserver, () -> customerMapper.toSearchResponse(
+                customerService.searchCustomers(request.getQuery(), limit)));
+    }
+
+    @Override
+    public void updateCustomer(UpdateCustomerRequest request, StreamObserver<Customer> responseObserver) {
+        unary(responseObserver, () -> customerMapper.toMessage(
+                customerService.updateCustomer(request.getId(), customerMapper.toDomain(request))));
+    }
+
+    @Override
+    public void patchCustomer(PatchCustomerRequest request, StreamObserver<Customer> responseObserver) {
+        unary(responseObserver, () -> customerMapper.toMessage(
+                customerService.patchCustomer(request.getId(), customerMapper.toDomain(request))));
+    }
+
+    @Override
+    public void upsertCustomerByEmail(CustomerInput request, StreamObserver<UpsertCustomerResponse> responseObserver) {
+        unary(responseObserver, () -> customerMapper.toUpsertResponse(
+                customerService.upsertCustomerByEmail(customerMapper.toDomain(request))));
+    }
+
+    @Override
+    public void deleteCustomer(DeleteCustomerRequest request, StreamObserver<Empty> responseObserver) {
+        unary(responseObserver, () -> {
+            customerService.deleteCustomer(request.getId());
+            return Empty.getDefaultInstance();
+        });
+    }
+
+    @Override
+    public void deleteCustomers(DeleteCustomersRequest request,
+            StreamObserver<DeleteCustomersResponse> responseObserver) {
+        unary(responseObserver, () -> customerMapper.toDeleteResponse(
+                customerService.deleteCustomers(request.getIdsList())));
+    }
+
+    private static <T> void unary(StreamObserver<T> responseObserver, Supplier<T> call) {
+        T response;
+        try {
+            response = call.get();
+        } catch (RuntimeException ex) {
+            responseObserver.onError(CustomerGrpcErrors.toStatus(ex));
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    private final class ListCustomersCall {
+
+        private final ServerCallStreamObserver<Customer> observer;
+        private Iterator<com.jgonzal.retail.model.Customer> page = Collections.emptyIterator();
+        private Long cursor;
+        private boolean lastPage;
+        private boolean done;
+
+        private ListCustomersCall(ServerCallStreamObserver<Customer> observer, Long afterId) {
+            this.observer = observer;
+            this.cursor = afterId;
+        }
+
+        private synchronized void sendWhileReady() {
+            try {
+                while (!done && observer.isReady() && !observer.isCancelled()) {
+                    if (page.hasNext()) {
+                        observer.onNext(customerMapper.toMessage(page.next()));
+                    } else if (lastPage) {
+                        done = true;
+                        observer.onCompleted();
+                    } else {
+                        var next = customerService.getCustomersPage(cursor, LIST_PAGE_SIZE);
+                        page = next.getCustomers().iterator();
+                        cursor = next.getNextCursor();
+                        lastPage = !next.hasNext();
+                    }
+                }
+            } catch (RuntimeException ex) {
+                done = true;
+                observer.onError(CustomerGrpcErrors.toStatus(ex));
+            }
+        }
+    }
+}
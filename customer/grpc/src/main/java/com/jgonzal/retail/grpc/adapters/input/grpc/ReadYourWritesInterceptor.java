@@ -0,0 +1,80 @@
+package com.jgonzal.retail.grpc.adapters.input.grpc;
+
+import com.jgonzal.retail.adapters.out.persistence.routing.ReadYourWritesWindow;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Binds the calling client to the read-your-writes window for gRPC calls,
+ * taken from the same client header as HTTP, sent as call metadata. Each
+ * listener callback may run on a different executor thread, so the client
+ * is bound around every one of them. Calls without the header stay unbound.
+ */
+public class ReadYourWritesInterceptor implements ServerInterceptor {
+
+    private final ReadYourWritesWindow readYourWritesWindow;
+    private final Metadata.Key<String> clientKey;
+
+    public ReadYourWritesInterceptor(ReadYourWritesWindow readYourWritesWindow, String clientHeader) {
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.clientKey = Metadata.Key.of(clientHeader.toLowerCase(Locale.ROOT), Metadata.ASCII_STRING_MARSHALLER);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+            ServerCallHandler<ReqT, RespT> next) {
+        var client = headers.get(clientKey);
+        if (client == null || client.isBlank()) {
+            return next.startCall(call, headers);
+        }
+        var listener = bound(client, () -> next.startCall(call, headers));
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                run(client, () -> super.onMessage(message));
+            }
+
+            @Override
+            public void onHalfClose() {
+                run(client, super::onHalfClose);
+            }
+
+            @Override
+            public void onCancel() {
+                run(client, super::onCancel);
+            }
+
+            @Override
+            public void onComplete() {
+                run(client, super::onComplete);
+            }
+
+            @Override
+            public void onReady() {
+                run(client, super::onReady);
+            }
+        };
+    }
+
+    private void run(String client, Runnable callback) {
+        bound(client, () -> {
+            callback.run();
+            return null;
+        });
+    }
+
+    private <T> T bound(String client, Supplier<T> callback) {
+        readYourWritesWindow.bindClient(client);
+        try {
+            return callback.get();
+        } finally {
+            readYourWritesWindow.clearClient();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.jgonzal.retail.grpc.config;
+
+import com.jgonzal.retail.adapters.out.persistence.routing.ReadYourWritesWindow;
+import com.jgonzal.retail.grpc.adapters.input.grpc.ReadYourWritesInterceptor;
+import io.grpc.BindableService;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@ConditionalOnExpression("'${customer.stack:servlet}' == 'servlet' and ${customer.grpc.enabled:true}")
+public class GrpcServerConfig {
+
+    @Bean
+    public GrpcServerLifecycle grpcServer(
+            List<BindableService> services,
+            ObjectProvider<ReadYourWritesWindow> readYourWritesWindow,
+            @Value("${customer.datasource.read-your-writes.client-header:X-Client-Id}") String clientHeader,
+            @Value("${customer.grpc.port:9090}") int port,
+            @Value("${customer.grpc.max-concurrent-calls-per-connection:1000}") int maxConcurrentCalls,
+            @Value("${customer.grpc.keep-alive-time:30s}") Duration keepAliveTime,
+            @Value("${spring.lifecycle.timeout-per-shutdown-phase:30s}") Duration shutdownGracePeriod) {
+        var builder = NettyServerBuilder.forPort(port)
+                // One HTTP/2 connection multiplexes this many calls before the client has to open another
+                .maxConcurrentCallsPerConnection(maxConcurrentCalls)
+                .keepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                .permitKeepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS);
+        // The window only exists with read replicas; callers then send the client header as metadata
+        var window = readYourWritesWindow.getIfAvailable();
+        if (window == null) {
+            services.forEach(builder::addService);
+        } else {
+            var interceptor = new ReadYourWritesInterceptor(window, clientHeader);
+            services.forEach(service -> builder.addService(ServerInterceptors.intercept(service, interceptor)));
+        }
+        return new GrpcServerLifecycle(builder.build(), shutdownGracePeriod);
+    }
+}
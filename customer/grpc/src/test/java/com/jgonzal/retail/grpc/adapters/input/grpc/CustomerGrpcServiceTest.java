@@ -0,0 +1,188 @@
+package com.jgonzal.retail.grpc.adapters.input.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.jgonzal.retail.exception.CustomerNotFoundException;
+import com.jgonzal.retail.exception.CustomerVersionConflictException;
+import com.jgonzal.retail.grpc.v1.BatchGetCustomersRequest;
+import com.jgonzal.retail.grpc.v1.BatchGetCustomersResponse;
+import com.jgonzal.retail.grpc.v1.CustomerInput;
+import com.jgonzal.retail.grpc.v1.CustomersGrpc;
+import com.jgonzal.retail.grpc.v1.GetCustomerRequest;
+import com.jgonzal.retail.grpc.v1.ListCustomersRequest;
+import com.jgonzal.retail.grpc.v1.PatchCustomerRequest;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerLookupResult;
+import com.jgonzal.retail.model.CustomerPage;
+import com.jgonzal.retail.ports.input.CustomerService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerGrpcServiceTest {
+
+    @Mock
+    private CustomerService customerService;
+
+    private Server server;
+    private ManagedChannel channel;
+    private CustomersGrpc.CustomersBlockingStub blockingStub;
+    private CustomersGrpc.CustomersStub asyncStub;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new CustomerGrpcService(customerService, new CustomerGrpcMapper()))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        blockingStub = CustomersGrpc.newBlockingStub(channel);
+        asyncStub = CustomersGrpc.newStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void getCustomer_ShouldReturnCustomer() {
+        // Given
+        when(customerService.getCustomerById(1L)).thenReturn(customer(1L));
+
+        // When
+        var result = blockingStub.getCustomer(GetCustomerRequest.newBuilder().setId(1L).build());
+
+        // Then
+        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result.getEmail()).isEqualTo("customer1@example.com");
+        assertThat(result.getVersion()).isZero();
+    }
+
+    @Test
+    void getCustomer_ShouldFailWithNotFound_WhenCustomerDoesNotExist() {
+        // Given
+        when(customerService.getCustomerById(99L)).thenThrow(new CustomerNotFoundException(99L));
+
+        // When/Then
+        assertThatThrownBy(() -> blockingStub.getCustomer(GetCustomerRequest.newBuilder().setId(99L).build()))
+                .isInstanceOf(StatusRuntimeException.class)
+                .extracting(ex -> ((StatusRuntimeException) ex).getStatus().getCode())
+                .isEqualTo(Status.Code.NOT_FOUND);
+    }
+
+    @Test
+    void createCustomer_ShouldPassEmptyFieldsAsMissing() {
+        // Given
+        when(customerService.createCustomer(any(Customer.class))).thenAnswer(invocation -> {
+            Customer customer = invocation.getArgument(0);
+            assertThat(customer.getName()).isNull();
+            return customer.toBuilder().id(1L).version(0L).build();
+        });
+
+        // When
+        var result = blockingStub.createCustomer(CustomerInput.newBuilder().setEmail("john@example.com").build());
+
+        // Then
+        assertThat(result.getEmail()).isEqualTo("john@example.com");
+    }
+
+    @Test
+    void patchCustomer_ShouldFailWithAborted_WhenVersionIsStale() {
+        // Given
+        when(customerService.patchCustomer(eq(1L), any(Customer.class)))
+                .thenThrow(new CustomerVersionConflictException(1L, 3L));
+
+        // When/Then
+        assertThatThrownBy(() -> blockingStub.patchCustomer(PatchCustomerRequest.newBuilder()
+                .setId(1L).setName("John Updated").setVersion(3L).build()))
+                .isInstanceOf(StatusRuntimeException.class)
+                .extracting(ex -> ((StatusRuntimeException) ex).getStatus().getCode())
+                .isEqualTo(Status.Code.ABORTED);
+    }
+
+    @Test
+    void listCustomers_ShouldStreamEveryPage() {
+        // Given
+        when(customerService.getCustomersPage(null, 500))
+                .thenReturn(new CustomerPage(List.of(customer(1L), customer(2L)), 2L));
+        when(customerService.getCustomersPage(2L, 500))
+                .thenReturn(new CustomerPage(List.of(customer(3L)), null));
+
+        // When
+        var ids = new ArrayList<Long>();
+        blockingStub.listCustomers(ListCustomersRequest.getDefaultInstance())
+                .forEachRemaining(customer -> ids.add(customer.getId()));
+
+        // Then
+        assertThat(ids).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void batchGetCustomers_ShouldAnswerEachRequestOnTheSameStream() throws InterruptedException {
+        // Given
+        when(customerService.getCustomersByIds(List.of(1L, 2L)))
+                .thenReturn(new CustomerLookupResult(List.of(customer(1L)), List.of(2L)));
+        when(customerService.getCustomersByIds(List.of(3L)))
+                .thenReturn(new CustomerLookupResult(List.of(customer(3L)), List.of()));
+        var responses = new ArrayList<BatchGetCustomersResponse>();
+        var completed = new CountDownLatch(1);
+
+        // When
+        var requests = asyncStub.batchGetCustomers(new StreamObserver<>() {
+            @Override
+            public void onNext(BatchGetCustomersResponse response) {
+                responses.add(response);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.countDown();
+            }
+        });
+        requests.onNext(BatchGetCustomersRequest.newBuilder().addAllIds(List.of(1L, 2L)).build());
+        requests.onNext(BatchGetCustomersRequest.newBuilder().addIds(3L).build());
+        requests.onCompleted();
+
+        // Then
+        assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(responses).hasSize(2);
+        assertThat(responses.get(0).getNotFoundList()).containsExactly(2L);
+        assertThat(responses.get(1).getCustomers(0).getId()).isEqualTo(3L);
+    }
+
+    private static Customer customer(long id) {
+        return Customer.builder().id(id).name("Customer " + id).email("customer" + id + "@example.com").version(0L)
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.jgonzal.retail.grpc.adapters.input.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.jgonzal.retail.adapters.out.persistence.routing.ReadYourWritesWindow;
+import com.jgonzal.retail.grpc.v1.CustomerInput;
+import com.jgonzal.retail.grpc.v1.CustomersGrpc;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.input.CustomerService;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+
+@ExtendWith(MockitoExtension.class)
+class ReadYourWritesInterceptorTest {
+
+    private static final Metadata.Key<String> CLIENT_ID = Metadata.Key.of("x-client-id", Metadata.ASCII_STRING_MARSHALLER);
+
+    @Mock
+    private CustomerService customerService;
+
+    private ReadYourWritesWindow readYourWritesWindow;
+    private ExecutorService executor;
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        readYourWritesWindow = new ReadYourWritesWindow(Duration.ofMinutes(1), 100);
+        // A real executor, so the call runs on a thread the interceptor did not start on
+        executor = Executors.newFixedThreadPool(2);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .executor(executor)
+                .addService(ServerInterceptors.intercept(
+                        new CustomerGrpcService(customerService, new CustomerGrpcMapper()),
+                        new ReadYourWritesInterceptor(readYourWritesWindow, "X-Client-Id")))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void interceptCall_ShouldBindClientFromMetadata_WhileTheServiceRuns() {
+        // Given
+        AtomicReference<String> boundClient = new AtomicReference<>();
+        when(customerService.createCustomer(any(Customer.class))).thenAnswer(invocation -> {
+            boundClient.set(readYourWritesWindow.currentClient());
+            readYourWritesWindow.recordWrite();
+            return invocation.<Customer>getArgument(0).toBuilder().id(1L).version(0L).build();
+        });
+        Metadata headers = new Metadata();
+        headers.put(CLIENT_ID, "client-a");
+        var stub = CustomersGrpc.newBlockingStub(channel)
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+
+        // When
+        stub.createCustomer(CustomerInput.newBuilder().setName("John Doe").setEmail("john@example.com").build());
+
+        // Then
+        assertThat(boundClient.get()).isEqualTo("client-a");
+        readYourWritesWindow.bindClient("client-a");
+        assertThat(readYourWritesWindow.isOpen()).isTrue();
+        readYourWritesWindow.clearClient();
+    }
+
+    @Test
+    void interceptCall_ShouldLeaveClientUnbound_WithoutMetadata() {
+        // Given
+        AtomicReference<String> boundClient = new AtomicReference<>("unset");
+        when(customerService.createCustomer(any(Customer.class))).thenAnswer(invocation -> {
+            boundClient.set(readYourWritesWindow.currentClient());
+            return invocation.<Customer>getArgument(0).toBuilder().id(1L).version(0L).build();
+        });
+
+        // When
+        CustomersGrpc.newBlockingStub(channel)
+                .createCustomer(CustomerInput.newBuilder().setName("John Doe").setEmail("john@example.com").build());
+
+        // Then
+        assertThat(boundClient.get()).isNull();
+    }
+}
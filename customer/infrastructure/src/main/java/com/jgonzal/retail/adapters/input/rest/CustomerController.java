@@ -1,57 +1,311 @@
 package com.jgonzal.retail.adapters.input.rest;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.jgonzal.retail.adapters.input.rest.cache.EncodedResponseCache;
+import com.jgonzal.retail.adapters.input.rest.conditional.ETagCodec;
 import com.jgonzal.retail.adapters.input.rest.data.request.CustomerRequest;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerBatchItemResponse;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerBatchResponse;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerCreationResponse;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerDeletionResponse;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerLookupResponse;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerPageResponse;
 import com.jgonzal.retail.adapters.input.rest.data.response.CustomerResponse;
 import com.jgonzal.retail.adapters.input.rest.mapper.CustomerRestMapper;
+import com.jgonzal.retail.adapters.input.rest.pagination.CursorCodec;
+import com.jgonzal.retail.exception.CustomerValidationException;
 import com.jgonzal.retail.ports.input.CustomerService;
 import org.springframework.http.HttpStatus;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 
 @RestController
+@ConditionalOnProperty(name = "customer.stack", havingValue = "servlet", matchIfMissing = true)
 @RequestMapping("/customers")
 public class CustomerController {
 
+    private static final String DEFAULT_PAGE_SIZE = "50";
+    private static final String DEFAULT_SEARCH_LIMIT = "10";
+    private static final String GZIP = "gzip";
+
     private final CustomerService customerService;
     private final CustomerRestMapper customerMapper;
+    private final ObjectWriter customerWriter;
+    private final ObjectWriter pageWriter;
+    private final EncodedResponseCache responseCache;
 
-    public CustomerController(CustomerService customerService, CustomerRestMapper customerMapper) {
+    // The response cache only exists when customer.response-cache.enabled is set
+    public CustomerController(CustomerService customerService, CustomerRestMapper customerMapper,
+            ObjectMapper objectMapper, @Nullable EncodedResponseCache responseCache) {
         this.customerService = customerService;
         this.customerMapper = customerMapper;
+        this.customerWriter = objectMapper.writerFor(CustomerResponse.class);
+        this.pageWriter = objectMapper.writerFor(CustomerPageResponse.class);
+        this.responseCache = responseCache;
     }
 
     @PostMapping
     public ResponseEntity<CustomerResponse> createCustomer(@RequestBody CustomerRequest customerRequest) {
         var customer = customerMapper.toDomain(customerRequest);
         var createdCustomer = customerService.createCustomer(customer);
-        return new ResponseEntity<>(customerMapper.toResponse(createdCustomer), HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(ETagCodec.encode(createdCustomer.getVersion()))
+                .body(customerMapper.toResponse(createdCustomer));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<CustomerBatchResponse> createCustomers(@RequestBody List<CustomerRequest> customerRequests) {
+        var results = customerService.createCustomers(customerMapper.toDomainList(customerRequests));
+        var items = results.stream()
+                .map(result -> CustomerBatchItemResponse.builder()
+                        .index(result.getIndex())
+                        .status(result.isCreated() ? "CREATED" : "REJECTED")
+                        .customer(result.isCreated() ? customerMapper.toResponse(result.getCustomer()) : null)
+                        .error(result.getError())
+                        .build())
+                .toList();
+        int created = (int) items.stream().filter(item -> item.getError() == null).count();
+        var response = CustomerBatchResponse.builder()
+                .created(created)
+                .rejected(items.size() - created)
+                .results(items)
+                .build();
+        var status = created == items.size() ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return new ResponseEntity<>(response, status);
+    }
+
+    @PostMapping("/async")
+    public ResponseEntity<CustomerCreationResponse> createCustomerAsync(@RequestBody CustomerRequest customerRequest,
+            @RequestParam(defaultValue = "enqueue") String ack) {
+        boolean awaitFlush = switch (ack) {
+            case "enqueue" -> false;
+            case "flush" -> true;
+            default -> throw new CustomerValidationException("Modo de confirmación inválido: " + ack);
+        };
+        var creation = customerService.createCustomerAsync(customerMapper.toDomain(customerRequest), awaitFlush);
+        var response = customerMapper.toCreationResponse(creation);
+        return switch (creation.getStatus()) {
+            case CREATED -> ResponseEntity.created(URI.create("/customers/" + creation.getCustomer().getId()))
+                    .eTag(ETagCodec.encode(creation.getCustomer().getVersion()))
+                    .body(response);
+            case PENDING -> ResponseEntity.accepted()
+                    .location(URI.create("/customers/creations/" + creation.getTrackingId()))
+                    .body(response);
+            case FAILED -> ResponseEntity.unprocessableEntity().body(response);
+        };
+    }
+
+    @GetMapping("/creations/{trackingId}")
+    public ResponseEntity<CustomerCreationResponse> getCustomerCreation(@PathVariable String trackingId) {
+        var creation = customerService.getCustomerCreation(trackingId);
+        return new ResponseEntity<>(customerMapper.toCreationResponse(creation), HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CustomerResponse> getCustomerById(@PathVariable Long id) {
+    public ResponseEntity<?> getCustomerById(@PathVariable Long id, WebRequest request) {
         var customer = customerService.getCustomerById(id);
-        return new ResponseEntity<>(customerMapper.toResponse(customer), HttpStatus.OK);
+        if (responseCache != null && acceptsJson(request)) {
+            // The coding decides the ETag, so the cached body is looked up first; Spring answers If-None-Match from
+            // the returned entity, which keeps Vary on the 304
+            var body = responseCache.customer(customer, () -> encode(customerWriter, customerMapper.toResponse(customer)));
+            boolean gzip = body.getGzipped() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            return encoded(ResponseEntity.ok().eTag(ETagCodec.encode(customer.getVersion(), gzip)), body, gzip);
+        }
+        var etag = ETagCodec.encode(customer.getVersion());
+        // The lookup is normally served by the cache, so a 304 costs neither a query nor serialization
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(customerMapper.toResponse(customer));
     }
 
     @GetMapping
-    public ResponseEntity<List<CustomerResponse>> getAllCustomers() {
-        var customers = customerService.getAllCustomers();
+    public ResponseEntity<?> getCustomers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size,
+            WebRequest request) {
+        if (responseCache != null && acceptsJson(request)) {
+            // Sizes above the maximum return the same page, so they share one entry
+            int pageSize = Math.min(size, customerService.getMaxPageSize());
+            var body = responseCache.page(cursor, pageSize, () -> encode(pageWriter, loadPage(cursor, pageSize)));
+            boolean gzip = body.getGzipped() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            return encoded(ResponseEntity.ok(), body, gzip);
+        }
+        return new ResponseEntity<>(loadPage(cursor, size), HttpStatus.OK);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<CustomerLookupResponse> getCustomersByIds(@RequestParam List<Long> ids) {
+        var result = customerService.getCustomersByIds(ids);
+        var response = CustomerLookupResponse.builder()
+                .content(customerMapper.toResponseList(result.getCustomers()))
+                .notFound(result.getMissingIds())
+                .build();
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping(params = "email")
+    public ResponseEntity<CustomerResponse> getCustomerByEmail(@RequestParam String email) {
+        var customer = customerService.getCustomerByEmail(email);
+        return ResponseEntity.ok()
+                .eTag(ETagCodec.encode(customer.getVersion()))
+                .body(customerMapper.toResponse(customer));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<CustomerResponse>> searchCustomers(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = DEFAULT_SEARCH_LIMIT) int limit) {
+        var customers = customerService.searchCustomers(q, limit);
         return new ResponseEntity<>(customerMapper.toResponseList(customers), HttpStatus.OK);
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCustomers() {
+        StreamingResponseBody body = outputStream -> customerService.exportCustomers(customer -> {
+            try {
+                outputStream.write(customerWriter.writeValueAsBytes(customerMapper.toResponse(customer)));
+                outputStream.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCustomer(@PathVariable Long id) {
         customerService.deleteCustomer(id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<CustomerDeletionResponse> deleteCustomers(@RequestParam List<Long> ids) {
+        var result = customerService.deleteCustomers(ids);
+        var response = CustomerDeletionResponse.builder()
+                .deleted(result.getDeletedIds())
+                .notFound(result.getMissingIds())
+                .build();
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<CustomerResponse> updateCustomer(@PathVariable Long id, @RequestBody CustomerRequest customerRequest) {
+    public ResponseEntity<CustomerResponse> updateCustomer(@PathVariable Long id, @RequestBody CustomerRequest customerRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         var customer = customerMapper.toDomain(customerRequest);
+        customer.setVersion(ETagCodec.decode(ifMatch));
         var updatedCustomer = customerService.updateCustomer(id, customer);
-        return new ResponseEntity<>(customerMapper.toResponse(updatedCustomer), HttpStatus.OK);
+        return ResponseEntity.ok()
+                .eTag(ETagCodec.encode(updatedCustomer.getVersion()))
+                .body(customerMapper.toResponse(updatedCustomer));
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<CustomerResponse> patchCustomer(@PathVariable Long id, @RequestBody CustomerRequest customerRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var changes = customerMapper.toDomain(customerRequest);
+        changes.setVersion(ETagCodec.decode(ifMatch));
+        var patchedCustomer = customerService.patchCustomer(id, changes);
+        return ResponseEntity.ok()
+                .eTag(ETagCodec.encode(patchedCustomer.getVersion()))
+                .body(customerMapper.toResponse(patchedCustomer));
+    }
+
+    @PutMapping("/by-email")
+    public ResponseEntity<CustomerResponse> upsertCustomerByEmail(@RequestBody CustomerRequest customerRequest) {
+        var customer = customerMapper.toDomain(customerRequest);
+        var upsertedCustomer = customerService.upsertCustomerByEmail(customer);
+        // Inserted rows start at version 0, every update bumps it
+        var status = Objects.equals(upsertedCustomer.getVersion(), 0L) ? HttpStatus.CREATED : HttpStatus.OK;
+        return ResponseEntity.status(status)
+                .eTag(ETagCodec.encode(upsertedCustomer.getVersion()))
+                .body(customerMapper.toResponse(upsertedCustomer));
+    }
+
+    private CustomerPageResponse loadPage(String cursor, int size) {
+        var page = customerService.getCustomersPage(CursorCodec.decode(cursor), size);
+        return CustomerPageResponse.builder()
+                .content(customerMapper.toResponseList(page.getCustomers()))
+                .nextCursor(CursorCodec.encode(page.getNextCursor()))
+                .build();
+    }
+
+    // Cached bodies are JSON, so callers negotiating CBOR or Smile take the regular path
+    private static boolean acceptsJson(WebRequest request) {
+        var accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept == null || MediaType.parseMediaTypes(accept).stream()
+                .allMatch(mediaType -> mediaType.includes(MediaType.APPLICATION_JSON));
+    }
+
+    // The body depends on Accept (JSON or the negotiated path) and on Accept-Encoding
+    private static ResponseEntity<byte[]> encoded(ResponseEntity.BodyBuilder response,
+            EncodedResponseCache.EncodedBody body, boolean gzip) {
+        response.contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(body.getGzipped());
+        }
+        return response.body(body.getIdentity());
+    }
+
+    // gzip counts when listed, or covered by *, with a non-zero q-value
+    static boolean acceptsGzip(@Nullable String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String element : acceptEncoding.split(",")) {
+            var parts = element.split(";");
+            var coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = qualityOf(parts);
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (coding.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return anyQuality != null && anyQuality > 0;
+    }
+
+    private static double qualityOf(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            var parameter = parts[i].trim();
+            if (parameter.length() > 2 && (parameter.startsWith("q=") || parameter.startsWith("Q="))) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static byte[] encode(ObjectWriter writer, Object value) {
+        try {
+            return writer.writeValueAsBytes(value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
     }
 }
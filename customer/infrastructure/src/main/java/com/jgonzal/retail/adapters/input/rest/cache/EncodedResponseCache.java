@@ -0,0 +1,94 @@
+package com.jgonzal.retail.adapters.input.rest.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerChange;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ready-to-send JSON bodies, optionally gzip-compressed, for single customers
+ * and list pages. A customer body is reused only while its version matches
+ * the customer being returned. A page body is reused only while no write has
+ * been published since it was built. Hot reads therefore skip mapping and
+ * serialization and write the cached bytes as they are.
+ */
+public class EncodedResponseCache {
+
+    private final Cache<Long, EncodedBody> customers;
+    private final Cache<String, EncodedBody> pages;
+    private final int gzipMinSize;
+    // Bumped on every published write; a page built before the bump is never served after it
+    private final AtomicLong listVersion = new AtomicLong();
+
+    public EncodedResponseCache(Cache<Long, EncodedBody> customers, Cache<String, EncodedBody> pages,
+            int gzipMinSize) {
+        this.customers = customers;
+        this.pages = pages;
+        this.gzipMinSize = gzipMinSize;
+    }
+
+    public EncodedBody customer(Customer customer, Supplier<byte[]> encoder) {
+        var cached = customers.getIfPresent(customer.getId());
+        if (cached != null && cached.getVersion() == versionOf(customer)) {
+            return cached;
+        }
+        var body = encode(versionOf(customer), encoder.get());
+        customers.put(customer.getId(), body);
+        return body;
+    }
+
+    public EncodedBody page(String cursor, int size, Supplier<byte[]> encoder) {
+        var key = Objects.toString(cursor, "") + ':' + size;
+        // Read before the page is loaded, so a write racing with the load leaves the entry already stale
+        long version = listVersion.get();
+        var cached = pages.getIfPresent(key);
+        if (cached != null && cached.getVersion() == version) {
+            return cached;
+        }
+        var body = encode(version, encoder.get());
+        pages.put(key, body);
+        return body;
+    }
+
+    public void onChange(CustomerChange change) {
+        listVersion.incrementAndGet();
+        customers.invalidate(change.getCustomerId());
+        pages.invalidateAll();
+    }
+
+    private EncodedBody encode(long version, byte[] identity) {
+        return new EncodedBody(version, identity, identity.length >= gzipMinSize ? gzip(identity) : null);
+    }
+
+    private static long versionOf(Customer customer) {
+        return customer.getVersion() == null ? 0L : customer.getVersion();
+    }
+
+    private static byte[] gzip(byte[] identity) {
+        var compressed = new ByteArrayOutputStream(identity.length / 2);
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(identity);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return compressed.toByteArray();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class EncodedBody {
+        private final long version;
+        private final byte[] identity;
+        // Null when the body is too small for compression to pay off
+        private final byte[] gzipped;
+    }
+}
@@ -0,0 +1,36 @@
+package com.jgonzal.retail.adapters.input.rest.changes;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+@RestController
+@ConditionalOnProperty(name = "customer.stack", havingValue = "servlet", matchIfMissing = true)
+@RequestMapping("/customers/changes")
+public class CustomerChangeController {
+
+    private final CustomerChangeStream changeStream;
+    private final Duration streamTimeout;
+
+    public CustomerChangeController(CustomerChangeStream changeStream,
+            @Value("${customer.changes.stream-timeout:30m}") Duration streamTimeout) {
+        this.changeStream = changeStream;
+        this.streamTimeout = streamTimeout;
+    }
+
+    // A reconnecting EventSource sends the id of the last event it saw, which wins over the query parameter
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeStream.subscribe(lastEventId != null ? lastEventId : since, streamTimeout);
+    }
+}
@@ -0,0 +1,210 @@
+package com.jgonzal.retail.adapters.input.rest.changes;
+
+import com.jgonzal.retail.adapters.input.rest.mapper.CustomerRestMapper;
+import com.jgonzal.retail.model.CustomerChange;
+import com.jgonzal.retail.model.CustomerChanges;
+import com.jgonzal.retail.ports.input.CustomerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes customer changes to Server-Sent Events subscribers. A shared scheduler
+ * only reads the in-memory feed; the blocking writes run on a bounded writer
+ * pool with at most one write in flight per subscriber, so a slow client holds
+ * one writer and never delays the others. A subscriber whose write has been
+ * pending longer than the send timeout is disconnected.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "customer.stack", havingValue = "servlet", matchIfMissing = true)
+public class CustomerChangeStream implements AutoCloseable {
+
+    static final String RESET_EVENT = "reset";
+
+    private final CustomerService customerService;
+    private final CustomerRestMapper customerMapper;
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor writers;
+    private final Duration pollInterval;
+    private final Duration sendTimeout;
+    private final int batchSize;
+
+    public CustomerChangeStream(CustomerService customerService, CustomerRestMapper customerMapper,
+            @Value("${customer.changes.poll-interval:100ms}") Duration pollInterval,
+            @Value("${customer.changes.batch-size:500}") int batchSize,
+            @Value("${customer.changes.send-timeout:10s}") Duration sendTimeout,
+            @Value("${customer.changes.max-writers:64}") int maxWriters) {
+        this.customerService = customerService;
+        this.customerMapper = customerMapper;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("customer-change-stream"));
+        // No queue: when every writer is busy the subscriber simply tries again on its next poll
+        this.writers = new ThreadPoolExecutor(0, maxWriters, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), daemonThreads("customer-change-writer"));
+    }
+
+    public SseEmitter subscribe(Long since, Duration timeout) {
+        var emitter = new SseEmitter(timeout.toMillis());
+        // Without a position the subscriber starts at the current end of the feed
+        var subscriber = new Subscriber(emitter, customerService.getChangesSince(since, batchSize));
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscriber.start();
+        return emitter;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        var count = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // The poll runs on the scheduler and never touches the emitter, whose methods block while a send is stuck
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private volatile CustomerChanges cursor;
+        private volatile boolean closed;
+        private volatile boolean fellBehind;
+        // Claimed by the writer when it starts, or by disconnect when the write never started
+        private final AtomicBoolean writeStarted = new AtomicBoolean();
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private ScheduledFuture<?> poll;
+        private Future<?> write;
+        private long writeStartedAt;
+
+        private Subscriber(SseEmitter emitter, CustomerChanges cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        private synchronized void start() {
+            if (!closed) {
+                poll = scheduler.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void poll() {
+            if (closed) {
+                return;
+            }
+            if (write != null && !write.isDone()) {
+                if (System.nanoTime() - writeStartedAt > sendTimeout.toNanos()) {
+                    disconnect();
+                }
+                return;
+            }
+            var changes = cursor;
+            if (!changes.isResyncRequired() && changes.getChanges().isEmpty()) {
+                changes = customerService.getChangesSince(changes.getLatestSequence(), batchSize);
+                cursor = changes;
+                if (!changes.isResyncRequired() && changes.getChanges().isEmpty()) {
+                    return;
+                }
+            }
+            var pending = changes;
+            try {
+                writeStartedAt = System.nanoTime();
+                writeStarted.set(false);
+                write = writers.submit(() -> send(pending));
+            } catch (RejectedExecutionException ex) {
+                // Every writer is busy; the changes stay in the cursor for the next poll
+            }
+        }
+
+        private void send(CustomerChanges changes) {
+            if (!writeStarted.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (changes.isResyncRequired()) {
+                    emitter.send(SseEmitter.event().name(RESET_EVENT).data(changes.getLatestSequence()));
+                    emitter.complete();
+                    close();
+                    return;
+                }
+                for (CustomerChange change : changes.getChanges()) {
+                    if (closed) {
+                        break;
+                    }
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.getSequence()))
+                            .name(change.getType().name().toLowerCase(Locale.ROOT))
+                            .data(customerMapper.toChangeResponse(change), MediaType.APPLICATION_JSON));
+                }
+                cursor = customerService.getChangesSince(changes.getLatestSequence(), batchSize);
+            } catch (IOException | IllegalStateException ex) {
+                // Either disconnect interrupted this write, or the client went away and the container completes it
+                log.debug("Customer change subscriber disconnected", ex);
+                close();
+                if (fellBehind) {
+                    failBehind();
+                }
+                return;
+            }
+            if (fellBehind) {
+                failBehind();
+            }
+        }
+
+        private void disconnect() {
+            log.debug("Disconnecting customer change subscriber after {} without finishing a write", sendTimeout);
+            fellBehind = true;
+            close();
+            if (writeStarted.compareAndSet(false, true)) {
+                // The writer never ran and now never will, so nothing else completes the emitter
+                write.cancel(false);
+                failBehind();
+            } else if (!write.cancel(true)) {
+                // The write finished in the meantime, so the emitter is free to complete here
+                failBehind();
+            }
+            // Otherwise interrupting the writer unblocks the stuck write, and the writer completes the emitter
+        }
+
+        private void failBehind() {
+            if (failed.compareAndSet(false, true)) {
+                emitter.completeWithError(new TimeoutException("Customer change subscriber fell behind"));
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            if (poll != null) {
+                poll.cancel(false);
+            }
+        }
+    }
+}
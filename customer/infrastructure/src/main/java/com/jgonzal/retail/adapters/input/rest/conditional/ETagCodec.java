@@ -0,0 +1,46 @@
+package com.jgonzal.retail.adapters.input.rest.conditional;
+
+import com.jgonzal.retail.exception.CustomerValidationException;
+
+/**
+ * Maps the customer version to a strong entity tag and back, so
+ * If-None-Match and If-Match can be answered from the version alone.
+ * The gzip-coded body is a different representation and gets its own tag,
+ * which If-Match still reads as the same version.
+ */
+public final class ETagCodec {
+
+    private static final String ANY = "*";
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private ETagCodec() {
+    }
+
+    public static String encode(Long version) {
+        return encode(version, false);
+    }
+
+    public static String encode(Long version, boolean gzip) {
+        // Rows written before versioning existed are treated as version 0, as in the update statements
+        return "\"" + (version == null ? 0L : version) + (gzip ? GZIP_SUFFIX : "") + "\"";
+    }
+
+    public static Long decode(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        var etag = ifMatch.trim();
+        if (etag.length() < 3 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            throw new CustomerValidationException("Cabecera If-Match inválida");
+        }
+        var opaque = etag.substring(1, etag.length() - 1);
+        if (opaque.endsWith(GZIP_SUFFIX)) {
+            opaque = opaque.substring(0, opaque.length() - GZIP_SUFFIX.length());
+        }
+        try {
+            return Long.parseLong(opaque);
+        } catch (NumberFormatException ex) {
+            throw new CustomerValidationException("Cabecera If-Match inválida");
+        }
+    }
+}
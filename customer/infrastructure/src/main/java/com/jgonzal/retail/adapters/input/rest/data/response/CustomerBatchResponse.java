@@ -0,0 +1,18 @@
+package com.jgonzal.retail.adapters.input.rest.data.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerBatchResponse {
+    private int created;
+    private int rejected;
+    private List<CustomerBatchItemResponse> results;
+}
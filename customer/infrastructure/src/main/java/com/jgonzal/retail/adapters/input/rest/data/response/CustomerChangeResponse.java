@@ -0,0 +1,21 @@
+package com.jgonzal.retail.adapters.input.rest.data.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerChangeResponse {
+    private long sequence;
+    private String type;
+    private Long customerId;
+    private Long version;
+    private CustomerResponse customer;
+    private Instant occurredAt;
+}
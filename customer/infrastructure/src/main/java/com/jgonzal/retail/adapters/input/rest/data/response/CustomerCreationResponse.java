@@ -0,0 +1,17 @@
+package com.jgonzal.retail.adapters.input.rest.data.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerCreationResponse {
+    private String trackingId;
+    private String status;
+    private CustomerResponse customer;
+    private String error;
+}
@@ -0,0 +1,17 @@
+package com.jgonzal.retail.adapters.input.rest.data.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerDeletionResponse {
+    private List<Long> deleted;
+    private List<Long> notFound;
+}
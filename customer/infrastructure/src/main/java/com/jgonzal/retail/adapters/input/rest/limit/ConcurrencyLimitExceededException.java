@@ -0,0 +1,14 @@
+package com.jgonzal.retail.adapters.input.rest.limit;
+
+import lombok.Getter;
+
+@Getter
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimitExceededException(String kind, int limit, long retryAfterSeconds) {
+        super("Servicio saturado: hay " + limit + " peticiones de " + kind + " en curso; inténtelo más tarde");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,88 @@
+package com.jgonzal.retail.adapters.input.rest.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows measured latency instead of a fixed pool
+ * size. A slow moving average of latency stands for the no-load baseline
+ * and a fast one for the latency right now. While they agree the limit grows
+ * by roughly its square root; once latency rises above the baseline the
+ * limit shrinks in proportion, so queueing moves out of the connection pool
+ * and into quick rejections.
+ */
+public class GradientConcurrencyLimiter {
+
+    private static final double LONG_SMOOTHING = 1.0 / 600;
+    private static final double SHORT_SMOOTHING = 1.0 / 10;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longLatency;
+    private double shortLatency;
+
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max: "
+                    + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > limit) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void release(long latencyNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        onSample(latencyNanos, inFlightAtCompletion);
+    }
+
+    // For requests whose duration says nothing about the backend, such as streams handed off to another thread
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Only arithmetic under the lock, so holding it never blocks on I/O
+    private synchronized void onSample(long latencyNanos, int inFlightAtCompletion) {
+        if (longLatency == 0) {
+            longLatency = latencyNanos;
+            shortLatency = latencyNanos;
+            return;
+        }
+        shortLatency += (latencyNanos - shortLatency) * SHORT_SMOOTHING;
+        longLatency += (latencyNanos - longLatency) * LONG_SMOOTHING;
+        // After a slow spell the baseline would stay inflated for hundreds of samples; let it come down faster
+        if (longLatency > shortLatency * 2) {
+            longLatency *= 0.95;
+        }
+        // Without enough load the latency says nothing about a higher limit, so it is not raised
+        if (inFlightAtCompletion < estimatedLimit / 2 && shortLatency <= longLatency) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, longLatency / shortLatency));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                estimatedLimit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -1,18 +1,31 @@
 package com.jgonzal.retail.adapters.input.rest.mapper;
 
 import com.jgonzal.retail.adapters.input.rest.data.request.CustomerRequest;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerChangeResponse;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerCreationResponse;
 import com.jgonzal.retail.adapters.input.rest.data.response.CustomerResponse;
 import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerChange;
+import com.jgonzal.retail.model.CustomerCreation;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.List;
 
 @Mapper(componentModel = "spring")
 public interface CustomerRestMapper {
     
+    // The version comes from the If-Match header, never from the body
+    @Mapping(target = "version", ignore = true)
     Customer toDomain(CustomerRequest customerRequest);
+
+    List<Customer> toDomainList(List<CustomerRequest> customerRequests);
     
     CustomerResponse toResponse(Customer customer);
     
     List<CustomerResponse> toResponseList(List<Customer> customers);
+
+    CustomerCreationResponse toCreationResponse(CustomerCreation creation);
+
+    CustomerChangeResponse toChangeResponse(CustomerChange change);
 } 
\ No newline at end of file
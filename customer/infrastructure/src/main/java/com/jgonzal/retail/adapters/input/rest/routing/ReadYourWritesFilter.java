@@ -0,0 +1,74 @@
+package com.jgonzal.retail.adapters.input.rest.routing;
+
+import com.jgonzal.retail.adapters.out.persistence.routing.ReadYourWritesWindow;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Binds the calling client to the request thread for the read-your-writes
+ * window. The client is identified by an explicit token, the client header
+ * or else the client cookie; a write without either gets a new cookie, so
+ * the client's next reads carry it. Reads without a token stay unbound.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWritesWindow readYourWritesWindow;
+    private final String clientHeader;
+    private final String clientCookie;
+    private final Duration cookieMaxAge;
+
+    public ReadYourWritesFilter(ReadYourWritesWindow readYourWritesWindow, String clientHeader, String clientCookie,
+            Duration cookieMaxAge) {
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.clientHeader = clientHeader;
+        this.clientCookie = clientCookie;
+        this.cookieMaxAge = cookieMaxAge;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var clientKey = clientKeyOf(request);
+        if (clientKey == null && !isRead(request)) {
+            clientKey = UUID.randomUUID().toString();
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(clientCookie, clientKey)
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(cookieMaxAge)
+                    .build()
+                    .toString());
+        }
+        readYourWritesWindow.bindClient(clientKey);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            readYourWritesWindow.clearClient();
+        }
+    }
+
+    private String clientKeyOf(HttpServletRequest request) {
+        var header = request.getHeader(clientHeader);
+        if (header != null && !header.isBlank()) {
+            return header;
+        }
+        var cookie = WebUtils.getCookie(request, clientCookie);
+        return cookie == null || cookie.getValue().isBlank() ? null : cookie.getValue();
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        var method = HttpMethod.valueOf(request.getMethod());
+        return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method);
+    }
+}
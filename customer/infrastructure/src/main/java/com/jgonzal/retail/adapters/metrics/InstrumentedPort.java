@@ -0,0 +1,104 @@
+package com.jgonzal.retail.adapters.metrics;
+
+import com.jgonzal.retail.exception.CustomerNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps a port implementation in a proxy that times every call in the
+ * customer.port.calls timer, tagged by port, adapter, method and outcome.
+ */
+public final class InstrumentedPort implements InvocationHandler {
+
+    public static final String METRIC_NAME = "customer.port.calls";
+
+    enum Outcome {
+        FOUND("found"),
+        NOT_FOUND("not_found"),
+        SUCCESS("success"),
+        ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Object target;
+    private final String port;
+    private final String adapter;
+    private final MeterRegistry meterRegistry;
+    // Resolved once per method and outcome so the hot path does not rebuild meter ids
+    private final ConcurrentHashMap<Method, Timer[]> timers = new ConcurrentHashMap<>();
+
+    private InstrumentedPort(Class<?> portType, Object target, MeterRegistry meterRegistry) {
+        this.target = target;
+        this.port = portType.getSimpleName();
+        this.adapter = ClassUtils.getUserClass(target).getSimpleName();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static <T> T instrument(Class<T> portType, T target, MeterRegistry meterRegistry) {
+        var handler = new InstrumentedPort(portType, target, meterRegistry);
+        return portType.cast(Proxy.newProxyInstance(portType.getClassLoader(), new Class<?>[] {portType}, handler));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(target, args);
+        }
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            var result = method.invoke(target, args);
+            outcome = outcomeOf(result);
+            return result;
+        } catch (InvocationTargetException ex) {
+            if (ex.getCause() instanceof CustomerNotFoundException) {
+                outcome = Outcome.NOT_FOUND;
+            }
+            throw ex.getCause();
+        } finally {
+            timer(method, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Outcome outcomeOf(Object result) {
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? Outcome.FOUND : Outcome.NOT_FOUND;
+        }
+        if (result instanceof Boolean found) {
+            return found ? Outcome.FOUND : Outcome.NOT_FOUND;
+        }
+        return Outcome.SUCCESS;
+    }
+
+    private Timer timer(Method method, Outcome outcome) {
+        var byOutcome = timers.computeIfAbsent(method, key -> new Timer[Outcome.values().length]);
+        var timer = byOutcome[outcome.ordinal()];
+        if (timer == null) {
+            // A racing thread may register the same timer too; the registry hands both the same instance
+            timer = Timer.builder(METRIC_NAME)
+                    .description("Calls to the customer ports")
+                    .tag("port", port)
+                    .tag("adapter", adapter)
+                    .tag("method", method.getName())
+                    .tag("outcome", outcome.tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            byOutcome[outcome.ordinal()] = timer;
+        }
+        return timer;
+    }
+}
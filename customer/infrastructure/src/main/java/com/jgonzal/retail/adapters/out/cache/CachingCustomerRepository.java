@@ -0,0 +1,173 @@
+package com.jgonzal.retail.adapters.out.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class CachingCustomerRepository implements CustomerRepository {
+
+    private final CustomerRepository delegate;
+    private final Cache<Long, Customer> cache;
+    // Bumped by every write before it touches the cache, so a read that raced with it can drop what it cached
+    private final AtomicLong writes = new AtomicLong();
+
+    public CachingCustomerRepository(CustomerRepository delegate, Cache<Long, Customer> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        var savedCustomer = delegate.save(customer);
+        put(savedCustomer);
+        return savedCustomer;
+    }
+
+    @Override
+    public List<Customer> saveAll(List<Customer> customers) {
+        // Bulk imports are not cached so they do not evict the hot working set
+        return delegate.saveAll(customers);
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        var cachedCustomer = cache.getIfPresent(id);
+        if (cachedCustomer != null) {
+            return Optional.of(copyOf(cachedCustomer));
+        }
+        // Loading inside cache.get(key, loader) would run the JDBC call within ConcurrentHashMap's
+        // synchronized compute, pinning the carrier when running on virtual threads
+        var writesBeforeLoad = writes.get();
+        var loadedCustomer = delegate.findById(id);
+        loadedCustomer.ifPresent(customer -> fill(customer, writesBeforeLoad));
+        return loadedCustomer;
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public Optional<Customer> findByEmail(String email) {
+        // The cache is keyed by id, so email lookups always go to the index
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public List<Customer> findAllById(Collection<Long> ids) {
+        // Only the ids that are not cached yet go to the delegate, in a single call
+        var cachedCustomers = cache.getAllPresent(ids);
+        var result = new ArrayList<Customer>(cachedCustomers.size());
+        cachedCustomers.values().forEach(customer -> result.add(copyOf(customer)));
+        var missingIds = ids.stream().distinct().filter(id -> !cachedCustomers.containsKey(id)).toList();
+        if (!missingIds.isEmpty()) {
+            var writesBeforeLoad = writes.get();
+            for (var customer : delegate.findAllById(missingIds)) {
+                fill(customer, writesBeforeLoad);
+                result.add(customer);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Customer> findPage(Long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Customer> consumer) {
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public List<Customer> search(String query, int limit) {
+        return delegate.search(query, limit);
+    }
+
+    @Override
+    public Optional<Customer> deleteById(Long id) {
+        try {
+            return delegate.deleteById(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public List<Customer> deleteAllById(Collection<Long> ids) {
+        try {
+            return delegate.deleteAllById(ids);
+        } finally {
+            writes.incrementAndGet();
+            cache.invalidateAll(ids);
+        }
+    }
+
+    @Override
+    public Optional<Customer> update(Customer customer) {
+        return refresh(customer.getId(), () -> delegate.update(customer));
+    }
+
+    @Override
+    public Optional<Customer> patch(Long id, Customer changes) {
+        return refresh(id, () -> delegate.patch(id, changes));
+    }
+
+    @Override
+    public Customer upsertByEmail(Customer customer) {
+        var upsertedCustomer = delegate.upsertByEmail(customer);
+        put(upsertedCustomer);
+        return upsertedCustomer;
+    }
+
+    private Optional<Customer> refresh(Long id, Supplier<Optional<Customer>> write) {
+        try {
+            var updatedCustomer = write.get();
+            updatedCustomer.ifPresentOrElse(this::put, () -> invalidate(id));
+            return updatedCustomer;
+        } catch (RuntimeException ex) {
+            invalidate(id);
+            throw ex;
+        }
+    }
+
+    private void put(Customer customer) {
+        writes.incrementAndGet();
+        cache.put(customer.getId(), copyOf(customer));
+    }
+
+    private void invalidate(Long id) {
+        writes.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    // putIfAbsent keeps a value written by a concurrent write instead of replacing it with this read. A write
+    // that commits while the read is in flight may still invalidate before the fill lands, so the fill is
+    // taken back whenever any write happened since the load started; that write's own cache update follows
+    private void fill(Customer customer, long writesBeforeLoad) {
+        var cached = copyOf(customer);
+        if (cache.asMap().putIfAbsent(customer.getId(), cached) == null && writes.get() != writesBeforeLoad) {
+            cache.asMap().remove(customer.getId(), cached);
+        }
+    }
+
+    // Customer is mutable, so callers never get a reference to the cached instance
+    private static Customer copyOf(Customer customer) {
+        return customer.toBuilder().build();
+    }
+}
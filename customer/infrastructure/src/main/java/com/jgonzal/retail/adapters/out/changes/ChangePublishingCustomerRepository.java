@@ -0,0 +1,128 @@
+package com.jgonzal.retail.adapters.out.changes;
+
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerChange;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class ChangePublishingCustomerRepository implements CustomerRepository {
+
+    private final CustomerRepository delegate;
+    private final CustomerChangeRing changeRing;
+
+    public ChangePublishingCustomerRepository(CustomerRepository delegate, CustomerChangeRing changeRing) {
+        this.delegate = delegate;
+        this.changeRing = changeRing;
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        var savedCustomer = delegate.save(customer);
+        publish(CustomerChange.Type.CREATED, savedCustomer);
+        return savedCustomer;
+    }
+
+    @Override
+    public List<Customer> saveAll(List<Customer> customers) {
+        var savedCustomers = delegate.saveAll(customers);
+        savedCustomers.forEach(savedCustomer -> publish(CustomerChange.Type.CREATED, savedCustomer));
+        return savedCustomers;
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public Optional<Customer> findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public List<Customer> findAllById(Collection<Long> ids) {
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Customer> findPage(Long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Customer> consumer) {
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public List<Customer> search(String query, int limit) {
+        return delegate.search(query, limit);
+    }
+
+    @Override
+    public Optional<Customer> deleteById(Long id) {
+        var deletedCustomer = delegate.deleteById(id);
+        deletedCustomer.ifPresent(this::publishDeletion);
+        return deletedCustomer;
+    }
+
+    @Override
+    public List<Customer> deleteAllById(Collection<Long> ids) {
+        var deletedCustomers = delegate.deleteAllById(ids);
+        deletedCustomers.forEach(this::publishDeletion);
+        return deletedCustomers;
+    }
+
+    @Override
+    public Optional<Customer> update(Customer customer) {
+        var updatedCustomer = delegate.update(customer);
+        updatedCustomer.ifPresent(updated -> publish(CustomerChange.Type.UPDATED, updated));
+        return updatedCustomer;
+    }
+
+    @Override
+    public Optional<Customer> patch(Long id, Customer changes) {
+        var patchedCustomer = delegate.patch(id, changes);
+        patchedCustomer.ifPresent(patched -> publish(CustomerChange.Type.UPDATED, patched));
+        return patchedCustomer;
+    }
+
+    @Override
+    public Customer upsertByEmail(Customer customer) {
+        var upsertedCustomer = delegate.upsertByEmail(customer);
+        // Version 0 is only ever handed out on insert
+        var type = Long.valueOf(0L).equals(upsertedCustomer.getVersion())
+                ? CustomerChange.Type.CREATED
+                : CustomerChange.Type.UPDATED;
+        publish(type, upsertedCustomer);
+        return upsertedCustomer;
+    }
+
+    private void publish(CustomerChange.Type type, Customer customer) {
+        changeRing.publish(type, customer.getId(), versionOf(customer), customer);
+    }
+
+    // No write can reach the version after the last one once the row is gone, so the deletion takes it
+    private void publishDeletion(Customer deletedCustomer) {
+        changeRing.publish(CustomerChange.Type.DELETED, deletedCustomer.getId(), versionOf(deletedCustomer) + 1, null);
+    }
+
+    // Rows written before versioning existed count as version 0, as in the update statements
+    private static long versionOf(Customer customer) {
+        return customer.getVersion() == null ? 0L : customer.getVersion();
+    }
+}
@@ -0,0 +1,95 @@
+package com.jgonzal.retail.adapters.out.changes;
+
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerChange;
+import com.jgonzal.retail.model.CustomerChanges;
+import com.jgonzal.retail.ports.output.CustomerChangeFeed;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-size, lock-free ring of the most recent customer changes. Writers
+ * claim a sequence number with one atomic increment and store the change in
+ * its slot, overwriting the change published capacity sequences earlier.
+ * Readers copy forward from any retained sequence without blocking writers,
+ * and are told to resync once their position has been overwritten.
+ * Sequences are claimed after the write committed, so two concurrent writes
+ * to one customer may appear out of order; the version on each change tells
+ * their real order.
+ */
+public class CustomerChangeRing implements CustomerChangeFeed {
+
+    private final AtomicReferenceArray<CustomerChange> slots;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong lastSequence = new AtomicLong();
+    private final List<Consumer<CustomerChange>> listeners = new CopyOnWriteArrayList<>();
+
+    public CustomerChangeRing(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+    }
+
+    public void publish(CustomerChange.Type type, Long customerId, Long version, Customer customer) {
+        long sequence = lastSequence.incrementAndGet();
+        var change = CustomerChange.builder()
+                .sequence(sequence)
+                .type(type)
+                .customerId(customerId)
+                .version(version)
+                // Customer has setters, so the ring keeps its own copy
+                .customer(customer == null ? null : customer.toBuilder().build())
+                .occurredAt(Instant.now())
+                .build();
+        slots.set(slot(sequence), change);
+        listeners.forEach(listener -> listener.accept(change));
+    }
+
+    public void addListener(Consumer<CustomerChange> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public CustomerChanges readSince(Long sequence, int limit) {
+        long latest = lastSequence.get();
+        if (sequence == null) {
+            return new CustomerChanges(List.of(), false, latest);
+        }
+        // Ahead of the ring means sequences restarted (a redeploy); too far behind means they were overwritten
+        if (sequence > latest || latest - sequence > capacity) {
+            return resync(latest);
+        }
+        var changes = new ArrayList<CustomerChange>(Math.min(limit, (int) (latest - sequence)));
+        long next = sequence + 1;
+        for (; next <= latest && changes.size() < limit; next++) {
+            var change = slots.get(slot(next));
+            if (change == null || change.getSequence() < next) {
+                // Claimed but not stored yet; the next read picks it up, in order
+                break;
+            }
+            if (change.getSequence() > next) {
+                return resync(latest);
+            }
+            changes.add(change);
+        }
+        return new CustomerChanges(changes, false, next - 1);
+    }
+
+    private CustomerChanges resync(long latest) {
+        return new CustomerChanges(List.of(), true, latest);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence & mask);
+    }
+}
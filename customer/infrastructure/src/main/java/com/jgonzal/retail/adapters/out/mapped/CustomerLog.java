@@ -0,0 +1,158 @@
+package com.jgonzal.retail.adapters.out.mapped;
+
+import com.jgonzal.retail.model.Customer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only customer log stored in fixed-size memory-mapped segments of one
+ * file, so record data lives in the page cache rather than on the Java heap.
+ * A record never spans two segments. Its length is written after its body, so
+ * replaying after a crash stops cleanly at a half-written record. Not thread-safe.
+ */
+final class CustomerLog implements Closeable {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    private static final int LENGTH_SIZE = Integer.BYTES;
+    private static final int NULL_STRING = -1;
+
+    interface RecordVisitor {
+        void visit(long offset, byte type, long id);
+    }
+
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private long writeOffset;
+
+    CustomerLog(Path path, int segmentSize) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.segmentSize = segmentSize;
+        long segmentCount = Math.max(1, (channel.size() + segmentSize - 1) / segmentSize);
+        for (int segment = 0; segment < segmentCount; segment++) {
+            segments.add(map(segment));
+        }
+    }
+
+    void replay(RecordVisitor visitor) {
+        long offset = 0;
+        while (offset / segmentSize < segments.size()) {
+            int segment = (int) (offset / segmentSize);
+            int position = (int) (offset % segmentSize);
+            var buffer = segments.get(segment);
+            int length = position + LENGTH_SIZE <= segmentSize ? buffer.getInt(position) : 0;
+            if (length > 0) {
+                visitor.visit(offset, buffer.get(position + LENGTH_SIZE), buffer.getLong(position + LENGTH_SIZE + 1));
+                offset += LENGTH_SIZE + length;
+                continue;
+            }
+            // No record here: either the unused tail of a full segment or the end of the log
+            boolean nextSegmentUsed = segment + 1 < segments.size() && segments.get(segment + 1).getInt(0) > 0;
+            if (!nextSegmentUsed) {
+                break;
+            }
+            offset = (long) (segment + 1) * segmentSize;
+        }
+        writeOffset = offset;
+    }
+
+    long appendPut(Customer customer) throws IOException {
+        var name = encode(customer.getName());
+        var email = encode(customer.getEmail());
+        var body = ByteBuffer.allocate(1 + Long.BYTES * 2 + Integer.BYTES * 2 + length(name) + length(email));
+        body.put(PUT).putLong(customer.getId()).putLong(customer.getVersion());
+        putString(body, name);
+        putString(body, email);
+        return append(body.array());
+    }
+
+    long appendDelete(long id) throws IOException {
+        return append(ByteBuffer.allocate(1 + Long.BYTES).put(DELETE).putLong(id).array());
+    }
+
+    Customer read(long offset) {
+        var buffer = segments.get((int) (offset / segmentSize));
+        int position = (int) (offset % segmentSize) + LENGTH_SIZE + 1;
+        long id = buffer.getLong(position);
+        long version = buffer.getLong(position + Long.BYTES);
+        position += Long.BYTES * 2;
+        var name = getString(buffer, position);
+        position += Integer.BYTES + (name == null ? 0 : buffer.getInt(position));
+        var email = getString(buffer, position);
+        return Customer.builder().id(id).name(name).email(email).version(version).build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        segments.forEach(MappedByteBuffer::force);
+        channel.close();
+    }
+
+    private long append(byte[] body) throws IOException {
+        int recordSize = LENGTH_SIZE + body.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Record of " + recordSize + " bytes does not fit in a segment");
+        }
+        if (writeOffset % segmentSize + recordSize > segmentSize) {
+            writeOffset += segmentSize - writeOffset % segmentSize;
+        }
+        int segment = (int) (writeOffset / segmentSize);
+        int position = (int) (writeOffset % segmentSize);
+        if (segment == segments.size()) {
+            segments.add(map(segment));
+        }
+        var buffer = segments.get(segment);
+        buffer.put(position + LENGTH_SIZE, body);
+        buffer.putInt(position, body.length);
+        long offset = writeOffset;
+        writeOffset += recordSize;
+        return offset;
+    }
+
+    // Mapping past the end of the file grows it; the new region reads as zeros
+    private MappedByteBuffer map(int segment) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, (long) segment * segmentSize, segmentSize);
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_STRING);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer, int position) {
+        int length = buffer.getInt(position);
+        if (length == NULL_STRING) {
+            return null;
+        }
+        var bytes = new byte[length];
+        buffer.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
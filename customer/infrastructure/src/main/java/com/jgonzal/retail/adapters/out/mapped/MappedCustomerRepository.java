@@ -0,0 +1,386 @@
+package com.jgonzal.retail.adapters.out.mapped;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Component
+@ConditionalOnExpression("'${customer.stack:servlet}' == 'servlet' and '${customer.store:sql}' == 'mapped'")
+public class MappedCustomerRepository implements CustomerRepository, Closeable {
+
+    private static final int STREAM_CHUNK_SIZE = 1_000;
+    // Column sizes of the customers table
+    private static final int NAME_LENGTH = 100;
+    private static final int EMAIL_LENGTH = 255;
+
+    private final CustomerLog log;
+    private final LongLongHashMap offsetsById = new LongLongHashMap();
+    private final Map<String, Long> idsByEmail = new HashMap<>();
+    // Ids are handed out in increasing order and never reused, so appending keeps this sorted for paging
+    private long[] ids = new long[1_024];
+    private int idCount;
+    private long lastId;
+    // A ReentrantReadWriteLock rather than synchronized, which would pin virtual threads during file I/O
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MappedCustomerRepository(
+            @Value("${customer.store.mapped.path:data/customers.log}") Path path,
+            @Value("${customer.store.mapped.segment-size:64MB}") DataSize segmentSize) {
+        try {
+            this.log = new CustomerLog(path, Math.toIntExact(segmentSize.toBytes()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        log.replay(this::replay);
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        lock.writeLock().lock();
+        try {
+            checkEmailAvailable(customer.getEmail(), null);
+            return insert(customer);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Customer> saveAll(List<Customer> customers) {
+        lock.writeLock().lock();
+        try {
+            // Checked up front so a conflict leaves the whole batch unwritten, as a rolled-back transaction would
+            var batchEmails = new HashSet<String>();
+            for (Customer customer : customers) {
+                checkColumns(customer);
+                checkEmailAvailable(customer.getEmail(), null);
+                if (!batchEmails.add(customer.getEmail())) {
+                    throw new CustomerEmailAlreadyExistsException();
+                }
+            }
+            var savedCustomers = new ArrayList<Customer>(customers.size());
+            for (Customer customer : customers) {
+                savedCustomers.add(insert(customer));
+            }
+            return savedCustomers;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(read(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public Optional<Customer> findByEmail(String email) {
+        lock.readLock().lock();
+        try {
+            var id = idsByEmail.get(email);
+            return id == null ? Optional.empty() : Optional.ofNullable(read(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Customer> findAllById(Collection<Long> idsToFind) {
+        lock.readLock().lock();
+        try {
+            var customers = new ArrayList<Customer>(idsToFind.size());
+            for (Long id : idsToFind) {
+                var customer = read(id);
+                if (customer != null) {
+                    customers.add(customer);
+                }
+            }
+            return customers;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        var customers = new ArrayList<Customer>();
+        streamAll(customers::add);
+        return customers;
+    }
+
+    @Override
+    public List<Customer> findPage(Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            int start = 0;
+            if (afterId != null) {
+                int index = Arrays.binarySearch(ids, 0, idCount, afterId);
+                start = index >= 0 ? index + 1 : -index - 1;
+            }
+            var customers = new ArrayList<Customer>(Math.min(limit, idCount - start));
+            for (int i = start; i < idCount && customers.size() < limit; i++) {
+                // Deleted ids stay in the array and are skipped here
+                var customer = read(ids[i]);
+                if (customer != null) {
+                    customers.add(customer);
+                }
+            }
+            return customers;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void streamAll(Consumer<Customer> consumer) {
+        // Chunked so a slow consumer, such as an export being written to a client, never holds the lock
+        Long afterId = null;
+        List<Customer> chunk;
+        do {
+            chunk = findPage(afterId, STREAM_CHUNK_SIZE);
+            chunk.forEach(consumer);
+            afterId = chunk.isEmpty() ? afterId : chunk.get(chunk.size() - 1).getId();
+        } while (chunk.size() == STREAM_CHUNK_SIZE);
+    }
+
+    @Override
+    public List<Customer> search(String query, int limit) {
+        var lowerCaseQuery = query.toLowerCase(Locale.ROOT);
+        var matches = new ArrayList<Customer>();
+        streamAll(customer -> {
+            if (matches.size() < limit && (contains(customer.getName(), lowerCaseQuery)
+                    || contains(customer.getEmail(), lowerCaseQuery))) {
+                matches.add(customer);
+            }
+        });
+        return matches;
+    }
+
+    @Override
+    public Optional<Customer> deleteById(Long id) {
+        lock.writeLock().lock();
+        try {
+            return Optional.ofNullable(delete(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Customer> deleteAllById(Collection<Long> idsToDelete) {
+        lock.writeLock().lock();
+        try {
+            var deletedCustomers = new ArrayList<Customer>(idsToDelete.size());
+            for (Long id : idsToDelete) {
+                var deletedCustomer = delete(id);
+                if (deletedCustomer != null) {
+                    deletedCustomers.add(deletedCustomer);
+                }
+            }
+            return deletedCustomers;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Customer> update(Customer customer) {
+        return write(customer.getId(), customer.getVersion(), existing -> existing.toBuilder()
+                .name(customer.getName())
+                .email(customer.getEmail()));
+    }
+
+    @Override
+    public Optional<Customer> patch(Long id, Customer changes) {
+        return write(id, changes.getVersion(), existing -> existing.toBuilder()
+                .name(changes.getName() != null ? changes.getName() : existing.getName())
+                .email(changes.getEmail() != null ? changes.getEmail() : existing.getEmail()));
+    }
+
+    @Override
+    public Customer upsertByEmail(Customer customer) {
+        lock.writeLock().lock();
+        try {
+            var id = idsByEmail.get(customer.getEmail());
+            if (id == null) {
+                return insert(customer);
+            }
+            var existing = read(id);
+            return replace(existing, existing.toBuilder().name(customer.getName()).version(existing.getVersion() + 1)
+                    .build());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            log.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Optional<Customer> write(Long id, Long expectedVersion,
+            Function<Customer, Customer.CustomerBuilder> changes) {
+        lock.writeLock().lock();
+        try {
+            var existing = read(id);
+            // Same contract as the SQL adapter: no match when the row is missing or the version is stale
+            if (existing == null || (expectedVersion != null && !expectedVersion.equals(existing.getVersion()))) {
+                return Optional.empty();
+            }
+            return Optional.of(replace(existing, changes.apply(existing).version(existing.getVersion() + 1).build()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Customer insert(Customer customer) {
+        checkColumns(customer);
+        var insertedCustomer = customer.toBuilder().id(lastId + 1).version(0L).build();
+        append(insertedCustomer);
+        lastId = insertedCustomer.getId();
+        addId(lastId);
+        return insertedCustomer;
+    }
+
+    private Customer replace(Customer existing, Customer updated) {
+        checkColumns(updated);
+        checkEmailAvailable(updated.getEmail(), existing.getId());
+        append(updated);
+        if (existing.getEmail() != null && !existing.getEmail().equals(updated.getEmail())) {
+            idsByEmail.remove(existing.getEmail());
+        }
+        return updated;
+    }
+
+    private Customer delete(Long id) {
+        var existing = read(id);
+        if (existing == null) {
+            return null;
+        }
+        try {
+            log.appendDelete(id);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        offsetsById.remove(id);
+        removeEmail(existing);
+        return existing;
+    }
+
+    private void append(Customer customer) {
+        try {
+            offsetsById.put(customer.getId(), log.appendPut(customer));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        idsByEmail.put(customer.getEmail(), customer.getId());
+    }
+
+    private Customer read(Long id) {
+        long offset = id == null ? LongLongHashMap.MISSING : offsetsById.get(id);
+        return offset == LongLongHashMap.MISSING ? null : log.read(offset);
+    }
+
+    // The NOT NULL and length constraints of the SQL schema, checked before anything is written
+    private static void checkColumns(Customer customer) {
+        checkColumn("name", customer.getName(), NAME_LENGTH);
+        checkColumn("email", customer.getEmail(), EMAIL_LENGTH);
+    }
+
+    private static void checkColumn(String column, String value, int length) {
+        if (value == null) {
+            throw new DataIntegrityViolationException("customers." + column + ": no admite valores nulos");
+        }
+        if (value.length() > length) {
+            throw new DataIntegrityViolationException("customers." + column + ": supera " + length + " caracteres");
+        }
+    }
+
+    private static boolean contains(String value, String lowerCaseQuery) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(lowerCaseQuery);
+    }
+
+    // The unique email index of the SQL schema, reported the way the SQL adapter reports it
+    private void checkEmailAvailable(String email, Long ownerId) {
+        var id = idsByEmail.get(email);
+        if (id != null && !id.equals(ownerId)) {
+            throw new CustomerEmailAlreadyExistsException();
+        }
+    }
+
+    private void replay(long offset, byte type, long id) {
+        if (type == CustomerLog.DELETE) {
+            var existing = read(id);
+            if (existing != null) {
+                removeEmail(existing);
+                offsetsById.remove(id);
+            }
+            return;
+        }
+        var previous = read(id);
+        if (previous != null) {
+            removeEmail(previous);
+        } else if (id > lastId) {
+            addId(id);
+            lastId = id;
+        }
+        offsetsById.put(id, offset);
+        var email = log.read(offset).getEmail();
+        // Entries written before the columns were checked may lack an email; they are not indexed by it
+        if (email != null) {
+            idsByEmail.put(email, id);
+        }
+    }
+
+    private void removeEmail(Customer customer) {
+        if (customer.getEmail() != null) {
+            idsByEmail.remove(customer.getEmail(), customer.getId());
+        }
+    }
+
+    private void addId(long id) {
+        if (idCount == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[idCount++] = id;
+    }
+}
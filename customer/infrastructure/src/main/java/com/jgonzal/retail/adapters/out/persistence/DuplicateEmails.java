@@ -0,0 +1,56 @@
+package com.jgonzal.retail.adapters.out.persistence;
+
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Tells a write rejected by the unique email index apart from the other
+ * integrity errors a customer write can hit, such as NOT NULL or column length,
+ * so the store adapters can report it as the domain's own exception.
+ */
+public final class DuplicateEmails {
+
+    public static final String EMAIL_INDEX = "customers_email_key";
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private DuplicateEmails() {
+    }
+
+    public static boolean isDuplicateEmail(Throwable ex) {
+        // JPA, JDBC and batch failures wrap the driver's exception at different depths
+        for (var cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DuplicateKeyException && mentionsEmailIndex(cause)) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException) {
+                for (var next = sqlException; next != null; next = next.getNextException()) {
+                    if (UNIQUE_VIOLATION.equals(next.getSQLState()) && mentionsEmailIndex(next)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Anything else stays a DataIntegrityViolationException: inputs are validated, so it is a server fault
+    public static <T> T translate(Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (DataIntegrityViolationException ex) {
+            if (isDuplicateEmail(ex)) {
+                throw new CustomerEmailAlreadyExistsException(ex);
+            }
+            throw ex;
+        }
+    }
+
+    private static boolean mentionsEmailIndex(Throwable ex) {
+        return ex.getMessage() != null && ex.getMessage().contains(EMAIL_INDEX);
+    }
+}
@@ -1,39 +1,87 @@
 package com.jgonzal.retail.adapters.out.persistence;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.jgonzal.retail.model.Customer;
 import com.jgonzal.retail.ports.output.CustomerRepository;
 import com.jgonzal.retail.adapters.out.persistence.mapper.CustomerMapper;
 import com.jgonzal.retail.adapters.out.persistence.repository.JpaCustomerRepository;
-import com.jgonzal.retail.exception.CustomerNotFoundException;
+import jakarta.persistence.EntityManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Component
+@ConditionalOnExpression("'${customer.stack:servlet}' == 'servlet' and '${customer.store:sql}' == 'sql'")
 public class SqlCustomerRepository implements CustomerRepository {
 
+    // Matches hibernate.jdbc.batch_size so each chunk is flushed as a single JDBC batch
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
     private final JpaCustomerRepository jpaCustomerRepository;
     private final CustomerMapper customerMapper;
+    private final EntityManager entityManager;
 
-    public SqlCustomerRepository(JpaCustomerRepository jpaCustomerRepository, CustomerMapper customerMapper) {
+    public SqlCustomerRepository(JpaCustomerRepository jpaCustomerRepository, CustomerMapper customerMapper,
+            EntityManager entityManager) {
         this.jpaCustomerRepository = jpaCustomerRepository;
         this.customerMapper = customerMapper;
+        this.entityManager = entityManager;
     }
 
     @Override
     public Customer save(Customer customer) {
         var customerEntity = customerMapper.toEntity(customer);
-        jpaCustomerRepository.save(customerEntity);
+        DuplicateEmails.translate(() -> jpaCustomerRepository.save(customerEntity));
         return customerMapper.toDomain(customerEntity);
     }
 
+    @Override
+    @Transactional
+    public List<Customer> saveAll(List<Customer> customers) {
+        var savedCustomers = new ArrayList<Customer>(customers.size());
+        for (int start = 0; start < customers.size(); start += FLUSH_CHUNK_SIZE) {
+            var chunk = customers.subList(start, Math.min(start + FLUSH_CHUNK_SIZE, customers.size()));
+            var customerEntities = DuplicateEmails.translate(() -> {
+                var savedEntities = jpaCustomerRepository.saveAll(customerMapper.toEntityList(chunk));
+                jpaCustomerRepository.flush();
+                return savedEntities;
+            });
+            savedCustomers.addAll(customerMapper.toDomainList(customerEntities));
+            // Flushed entities are not needed anymore; clearing keeps large imports from piling up in memory
+            entityManager.clear();
+        }
+        return savedCustomers;
+    }
+
     @Override
     public Optional<Customer> findById(Long id) {
         return jpaCustomerRepository.findById(id).map(customerMapper::toDomain);
     }
 
+    @Override
+    public boolean existsById(Long id) {
+        return jpaCustomerRepository.existsById(id);
+    }
+
+    @Override
+    public Optional<Customer> findByEmail(String email) {
+        return jpaCustomerRepository.findByEmail(email).map(customerMapper::toDomain);
+    }
+
+    @Override
+    public List<Customer> findAllById(Collection<Long> ids) {
+        var customerEntities = jpaCustomerRepository.findAllById(ids);
+        return customerMapper.toDomainList(customerEntities);
+    }
+
     @Override
     public List<Customer> findAll() {
         var customerEntities = jpaCustomerRepository.findAll();
@@ -41,21 +89,60 @@ public class SqlCustomerRepository implements CustomerRepository {
     }
 
     @Override
-    public boolean deleteById(Long id) {
-        if (jpaCustomerRepository.existsById(id)) {
-            jpaCustomerRepository.deleteById(id);
-            return true;
+    public List<Customer> findPage(Long afterId, int limit) {
+        var customerEntities = jpaCustomerRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0L : afterId, Limit.of(limit));
+        return customerMapper.toDomainList(customerEntities);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Customer> consumer) {
+        try (var customerEntities = jpaCustomerRepository.streamAllByOrderByIdAsc()) {
+            customerEntities.forEach(customerEntity -> {
+                consumer.accept(customerMapper.toDomain(customerEntity));
+                // Keep the persistence context from growing with every row already written out
+                entityManager.detach(customerEntity);
+            });
         }
-        return false;
+    }
+
+    @Override
+    public List<Customer> search(String query, int limit) {
+        var escapedQuery = query.toLowerCase(Locale.ROOT)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        var customerEntities = jpaCustomerRepository.searchByNameOrEmail("%" + escapedQuery + "%", Limit.of(limit));
+        return customerMapper.toDomainList(customerEntities);
+    }
+
+    @Override
+    public Optional<Customer> deleteById(Long id) {
+        return jpaCustomerRepository.deleteByIdReturning(id).map(customerMapper::toDomain);
+    }
+
+    @Override
+    public List<Customer> deleteAllById(Collection<Long> ids) {
+        return customerMapper.toDomainList(jpaCustomerRepository.deleteAllByIdReturning(ids));
     }
 
     @Override   
     public Optional<Customer> update(Customer customer) {
-        if (jpaCustomerRepository.existsById(customer.getId())) {
-            var customerEntity = customerMapper.toEntity(customer);
-            var updatedCustomer = jpaCustomerRepository.save(customerEntity);
-            return Optional.of(customerMapper.toDomain(updatedCustomer));
-        }
-        return Optional.empty();
+        return DuplicateEmails.translate(() -> jpaCustomerRepository.updateReturning(customer.getId(),
+                        customer.getName(), customer.getEmail(), customer.getVersion()))
+                .map(customerMapper::toDomain);
+    }
+
+    @Override
+    public Optional<Customer> patch(Long id, Customer changes) {
+        return DuplicateEmails.translate(() -> jpaCustomerRepository.patchReturning(id, changes.getName(),
+                        changes.getEmail(), changes.getVersion()))
+                .map(customerMapper::toDomain);
+    }
+
+    @Override
+    public Customer upsertByEmail(Customer customer) {
+        return customerMapper.toDomain(jpaCustomerRepository.upsertByEmail(customer.getName(), customer.getEmail()));
     }
 }
\ No newline at end of file
@@ -4,20 +4,26 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.persistence.Column;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = @Index(name = "customers_email_key", columnList = "email", unique = true))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class CustomerEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // A pooled sequence lets Hibernate assign ids before flushing, which IDENTITY
+    // prevents, so inserts can be grouped into JDBC batches
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 100)
     private Long id;
     
     @Column(nullable = false, length = 100)
@@ -25,4 +31,7 @@ public class CustomerEntity {
     
     @Column(nullable = false, length = 255)
     private String email;
+
+    @Version
+    private Long version;
 } 
\ No newline at end of file
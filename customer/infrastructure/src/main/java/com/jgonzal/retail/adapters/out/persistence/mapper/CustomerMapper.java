@@ -11,6 +11,8 @@ import java.util.List;
 public interface CustomerMapper {
     
     CustomerEntity toEntity(Customer customer);
+
+    List<CustomerEntity> toEntityList(List<Customer> customers);
     
     Customer toDomain(CustomerEntity customerEntity);
     
@@ -1,10 +1,78 @@
 package com.jgonzal.retail.adapters.out.persistence.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.jgonzal.retail.adapters.out.persistence.entity.CustomerEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface JpaCustomerRepository extends JpaRepository<CustomerEntity, Long> {
+
+    List<CustomerEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    Optional<CustomerEntity> findByEmail(String email);
+
+    // Fallback for when the in-memory search index is not available; the leading wildcard scans the whole table
+    @Query("SELECT c FROM CustomerEntity c WHERE LOWER(c.name) LIKE :pattern ESCAPE '!' "
+            + "OR c.email LIKE :pattern ESCAPE '!' ORDER BY c.name, c.id")
+    List<CustomerEntity> searchByNameOrEmail(@Param("pattern") String pattern, Limit limit);
+
+    // A positive fetch size inside a transaction makes pgjdbc use a server-side cursor
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CustomerEntity> streamAllByOrderByIdAsc();
+
+    // RETURNING gives back the stored row in the same round trip; no row means no such customer
+    // or, when an expected version is given, that someone else changed it first.
+    // Rows created before the version column existed count as version 0
+    @Transactional
+    @Query(value = "UPDATE customers SET name = :name, email = :email, version = COALESCE(version, 0) + 1 "
+            + "WHERE id = :id AND (CAST(:version AS BIGINT) IS NULL OR COALESCE(version, 0) = :version) "
+            + "RETURNING *",
+            nativeQuery = true)
+    Optional<CustomerEntity> updateReturning(@Param("id") Long id, @Param("name") String name,
+            @Param("email") String email, @Param("version") Long version);
+
+    // Null parameters keep the stored value, so only the fields sent by the client change
+    @Transactional
+    @Query(value = "UPDATE customers SET name = COALESCE(CAST(:name AS VARCHAR), name), "
+            + "email = COALESCE(CAST(:email AS VARCHAR), email), version = COALESCE(version, 0) + 1 "
+            + "WHERE id = :id AND (CAST(:version AS BIGINT) IS NULL OR COALESCE(version, 0) = :version) "
+            + "RETURNING *",
+            nativeQuery = true)
+    Optional<CustomerEntity> patchReturning(@Param("id") Long id, @Param("name") String name,
+            @Param("email") String email, @Param("version") Long version);
+
+    // One round trip whether the email is new or not; ids come from the same sequence Hibernate uses,
+    // whose values it never hands out itself with the pooled optimizer. New rows start at version 0
+    @Transactional
+    @Query(value = "INSERT INTO customers (id, name, email, version) "
+            + "VALUES (nextval('customers_seq'), :name, :email, 0) "
+            + "ON CONFLICT (email) DO UPDATE SET name = EXCLUDED.name, "
+            + "version = COALESCE(customers.version, 0) + 1 RETURNING *",
+            nativeQuery = true)
+    CustomerEntity upsertByEmail(@Param("name") String name, @Param("email") String email);
+
+    // One statement and no entity load; RETURNING hands back the removed row, or nothing if it did not exist
+    @Transactional
+    @Query(value = "DELETE FROM customers WHERE id = :id RETURNING *", nativeQuery = true)
+    Optional<CustomerEntity> deleteByIdReturning(@Param("id") Long id);
+
+    @Transactional
+    @Query(value = "DELETE FROM customers WHERE id IN (:ids) RETURNING *", nativeQuery = true)
+    List<CustomerEntity> deleteAllByIdReturning(@Param("ids") Collection<Long> ids);
 } 
\ No newline at end of file
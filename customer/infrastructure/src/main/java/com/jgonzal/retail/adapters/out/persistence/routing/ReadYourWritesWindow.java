@@ -0,0 +1,53 @@
+package com.jgonzal.retail.adapters.out.persistence.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Remembers which clients wrote recently, so their reads can go to the
+ * primary until the replicas have had time to catch up. The client is
+ * bound to the calling thread by the HTTP filter and the gRPC interceptor;
+ * work without a client, or with a zero window, always reads from the
+ * replicas. Writes finished on another thread are recorded for the client
+ * captured when they were accepted.
+ */
+public class ReadYourWritesWindow {
+
+    private final ThreadLocal<String> client = new ThreadLocal<>();
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesWindow(Duration window, long maximumClients) {
+        this.recentWriters = window.isZero()
+                ? null
+                : Caffeine.newBuilder().expireAfterWrite(window).maximumSize(maximumClients).build();
+    }
+
+    public void bindClient(String clientKey) {
+        client.set(clientKey);
+    }
+
+    public void clearClient() {
+        client.remove();
+    }
+
+    public String currentClient() {
+        return client.get();
+    }
+
+    public void recordWrite() {
+        recordWrite(client.get());
+    }
+
+    public void recordWrite(String clientKey) {
+        if (recentWriters != null && clientKey != null) {
+            recentWriters.put(clientKey, Boolean.TRUE);
+        }
+    }
+
+    public boolean isOpen() {
+        var clientKey = client.get();
+        return recentWriters != null && clientKey != null && recentWriters.getIfPresent(clientKey) != null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.jgonzal.retail.adapters.out.persistence.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the replica for the next read. Least-connections compares the busy
+ * and waiting connections of each Hikari pool and falls back to round-robin
+ * order between replicas that are equally loaded.
+ */
+public class ReplicaBalancer {
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+
+    private final Strategy strategy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaBalancer(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public int select(List<DataSource> replicas) {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        if (strategy == Strategy.ROUND_ROBIN) {
+            return start;
+        }
+        int selected = start;
+        int lowestLoad = Integer.MAX_VALUE;
+        for (int offset = 0; offset < replicas.size(); offset++) {
+            int index = (start + offset) % replicas.size();
+            int load = loadOf(replicas.get(index));
+            if (load < lowestLoad) {
+                selected = index;
+                lowestLoad = load;
+            }
+        }
+        return selected;
+    }
+
+    private static int loadOf(DataSource replica) {
+        // The pool only exists after its first connection, and until then nothing is in use
+        if (replica instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null) {
+            var pool = hikari.getHikariPoolMXBean();
+            return pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,144 @@
+package com.jgonzal.retail.adapters.out.persistence.routing;
+
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class ReplicaRoutingCustomerRepository implements CustomerRepository {
+
+    private final CustomerRepository delegate;
+    private final ReadYourWritesWindow readYourWritesWindow;
+    // With the customer cache above, lookups by id only arrive as its fills, and a lagging replica would cache a stale row
+    private final boolean idLookupsOnPrimary;
+
+    public ReplicaRoutingCustomerRepository(CustomerRepository delegate, ReadYourWritesWindow readYourWritesWindow,
+            boolean idLookupsOnPrimary) {
+        this.delegate = delegate;
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.idLookupsOnPrimary = idLookupsOnPrimary;
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        return write(() -> delegate.save(customer));
+    }
+
+    @Override
+    public List<Customer> saveAll(List<Customer> customers) {
+        return write(() -> delegate.saveAll(customers));
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        return idLookupsOnPrimary ? primary(() -> delegate.findById(id)) : read(() -> delegate.findById(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return primary(() -> delegate.existsById(id));
+    }
+
+    @Override
+    public Optional<Customer> findByEmail(String email) {
+        return read(() -> delegate.findByEmail(email));
+    }
+
+    @Override
+    public List<Customer> findAllById(Collection<Long> ids) {
+        return idLookupsOnPrimary ? primary(() -> delegate.findAllById(ids)) : read(() -> delegate.findAllById(ids));
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return read(delegate::findAll);
+    }
+
+    @Override
+    public List<Customer> findPage(Long afterId, int limit) {
+        return read(() -> delegate.findPage(afterId, limit));
+    }
+
+    @Override
+    public void streamAll(Consumer<Customer> consumer) {
+        read(() -> {
+            delegate.streamAll(consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Customer> search(String query, int limit) {
+        return read(() -> delegate.search(query, limit));
+    }
+
+    @Override
+    public Optional<Customer> deleteById(Long id) {
+        return write(() -> delegate.deleteById(id));
+    }
+
+    @Override
+    public List<Customer> deleteAllById(Collection<Long> ids) {
+        return write(() -> delegate.deleteAllById(ids));
+    }
+
+    @Override
+    public Optional<Customer> update(Customer customer) {
+        return write(() -> delegate.update(customer));
+    }
+
+    @Override
+    public Optional<Customer> patch(Long id, Customer changes) {
+        return write(() -> delegate.patch(id, changes));
+    }
+
+    @Override
+    public Customer upsertByEmail(Customer customer) {
+        return write(() -> delegate.upsertByEmail(customer));
+    }
+
+    private <T> T read(Supplier<T> read) {
+        // Inside the client's window the replicas may not have its last write yet
+        return readYourWritesWindow.isOpen() ? primary(read) : unpinned(() -> ReplicaRoutingDataSource.onReplica(read));
+    }
+
+    private <T> T primary(Supplier<T> read) {
+        return unpinned(read);
+    }
+
+    // Recorded even when the write fails: it may have committed before the error reached us
+    private <T> T write(Supplier<T> write) {
+        try {
+            return unpinned(write);
+        } finally {
+            readYourWritesWindow.recordWrite();
+        }
+    }
+
+    // An EntityManager kept open for the whole request (open-in-view) holds on to the connection of its first call,
+    // whichever way that call was routed. Outside a transaction it is set aside, so each call acquires its own
+    private static <T> T unpinned(Supplier<T> call) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return call.get();
+        }
+        var suspended = new HashMap<Object, Object>();
+        TransactionSynchronizationManager.getResourceMap().forEach((key, resource) -> {
+            if (resource instanceof EntityManagerHolder) {
+                suspended.put(key, resource);
+            }
+        });
+        suspended.keySet().forEach(TransactionSynchronizationManager::unbindResource);
+        try {
+            return call.get();
+        } finally {
+            suspended.forEach(TransactionSynchronizationManager::bindResource);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.jgonzal.retail.adapters.out.persistence.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections to the primary unless the calling thread is inside
+ * {@link #onReplica}, in which case one of the replicas is picked by the
+ * balancer. The route is decided when a connection is acquired, so a
+ * transaction already running keeps the connection it started with.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> REPLICA_READ = ThreadLocal.withInitial(() -> false);
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final ReplicaBalancer balancer;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaBalancer balancer) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.balancer = balancer;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(i, this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        // Unknown keys must fail loudly instead of silently reaching the primary
+        setLenientFallback(false);
+    }
+
+    public static <T> T onReplica(Supplier<T> read) {
+        boolean previous = REPLICA_READ.get();
+        REPLICA_READ.set(true);
+        try {
+            return read.get();
+        } finally {
+            REPLICA_READ.set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return REPLICA_READ.get() ? balancer.select(replicas) : PRIMARY;
+    }
+
+    @Override
+    public void close() throws Exception {
+        // The pools are not beans of their own, so they are closed together with the router
+        for (var target : replicas) {
+            closeIfPossible(target);
+        }
+        closeIfPossible(primary);
+    }
+
+    private static void closeIfPossible(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
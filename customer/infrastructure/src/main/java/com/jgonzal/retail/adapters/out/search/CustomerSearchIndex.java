@@ -0,0 +1,188 @@
+package com.jgonzal.retail.adapters.out.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jgonzal.retail.model.Customer;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory word-prefix index over customer names and emails. Each word maps
+ * to the ids containing it in a sorted map, so a search term is answered by
+ * walking the range of words starting with it and stops once enough matches
+ * are found, however many customers are indexed.
+ */
+public class CustomerSearchIndex {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    // Only has to outlast a write that committed before a delete but reaches the index after it
+    private static final Duration TOMBSTONE_TTL = Duration.ofMinutes(1);
+    private static final int WORD_LOCKS = 64;
+
+    private final ConcurrentSkipListMap<String, Set<Long>> idsByWord = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, Customer> customersById = new ConcurrentHashMap<>();
+    // Ids deleted while the initial load is running, so rows streamed before the delete are not added back
+    private final Set<Long> deletedWhileLoading = ConcurrentHashMap.newKeySet();
+    // Removed ids, so a put that raced with the delete cannot add the customer back. Ids are never reused,
+    // so a removal outranks every version
+    private final Cache<Long, Boolean> tombstones = Caffeine.newBuilder().expireAfterWrite(TOMBSTONE_TTL).build();
+    // Adding to and removing from a word's id set, and dropping the set once empty, happen under its word's lock
+    private final Object[] wordLocks = new Object[WORD_LOCKS];
+    private volatile boolean loading;
+    private volatile boolean ready;
+
+    public CustomerSearchIndex() {
+        for (int i = 0; i < WORD_LOCKS; i++) {
+            wordLocks[i] = new Object();
+        }
+    }
+
+    public void load(Consumer<Consumer<Customer>> source) {
+        loading = true;
+        try {
+            source.accept(customer -> {
+                if (!deletedWhileLoading.contains(customer.getId())) {
+                    put(customer);
+                }
+            });
+            ready = true;
+        } finally {
+            loading = false;
+            deletedWhileLoading.clear();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return customersById.size();
+    }
+
+    public int wordCount() {
+        return idsByWord.size();
+    }
+
+    public void put(Customer customer) {
+        var indexedCustomer = customer.toBuilder().build();
+        customersById.compute(customer.getId(), (id, previous) -> {
+            if (tombstones.getIfPresent(id) != null) {
+                return previous;
+            }
+            // Writes can reach the index out of order; an older version never replaces a newer one
+            if (previous != null && versionOf(previous) > versionOf(indexedCustomer)) {
+                return previous;
+            }
+            var words = wordsOf(indexedCustomer);
+            if (previous != null) {
+                var previousWords = wordsOf(previous);
+                previousWords.removeAll(words);
+                previousWords.forEach(word -> removeId(word, id));
+            }
+            words.forEach(word -> addId(word, id));
+            return indexedCustomer;
+        });
+    }
+
+    public void remove(Long id) {
+        if (loading) {
+            deletedWhileLoading.add(id);
+        }
+        // Recorded inside the same compute as put, so a concurrent put sees either the tombstone or no entry to drop
+        customersById.compute(id, (key, previous) -> {
+            tombstones.put(key, Boolean.TRUE);
+            if (previous != null) {
+                wordsOf(previous).forEach(word -> removeId(word, key));
+            }
+            return null;
+        });
+    }
+
+    public List<Customer> search(String query, int limit) {
+        var terms = normalize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        // The longest term has the narrowest word range; the others are checked against each candidate
+        var driver = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        var matches = new LinkedHashMap<Long, Customer>();
+        // Words come in sorted order, so an exact word match ranks ahead of longer words sharing the prefix
+        for (var ids : idsByWord.subMap(driver, true, driver + Character.MAX_VALUE, false).values()) {
+            for (Long id : ids) {
+                var customer = customersById.get(id);
+                if (customer == null || matches.containsKey(id) || !matchesAll(customer, terms)) {
+                    continue;
+                }
+                matches.put(id, customer.toBuilder().build());
+                if (matches.size() == limit) {
+                    return new ArrayList<>(matches.values());
+                }
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    private void addId(String word, Long id) {
+        synchronized (lockFor(word)) {
+            idsByWord.computeIfAbsent(word, key -> new ConcurrentSkipListSet<>()).add(id);
+        }
+    }
+
+    private void removeId(String word, Long id) {
+        synchronized (lockFor(word)) {
+            var ids = idsByWord.get(word);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                idsByWord.remove(word);
+            }
+        }
+    }
+
+    private Object lockFor(String word) {
+        return wordLocks[Math.floorMod(word.hashCode(), WORD_LOCKS)];
+    }
+
+    private static boolean matchesAll(Customer customer, Set<String> terms) {
+        var words = wordsOf(customer);
+        return terms.stream().allMatch(term -> words.stream().anyMatch(word -> word.startsWith(term)));
+    }
+
+    private static Set<String> wordsOf(Customer customer) {
+        var words = normalize(customer.getName());
+        words.addAll(normalize(customer.getEmail()));
+        return words;
+    }
+
+    // Lower-cased and without accents, so "jose" finds "José"
+    private static Set<String> normalize(String text) {
+        var words = new LinkedHashSet<String>();
+        if (text == null) {
+            return words;
+        }
+        var plainText = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String word : WORD_SEPARATOR.split(plainText.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static long versionOf(Customer customer) {
+        return customer.getVersion() == null ? 0L : customer.getVersion();
+    }
+}
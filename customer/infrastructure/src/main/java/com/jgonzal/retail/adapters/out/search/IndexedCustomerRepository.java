@@ -0,0 +1,114 @@
+package com.jgonzal.retail.adapters.out.search;
+
+import com.jgonzal.retail.exception.CustomerSearchUnavailableException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class IndexedCustomerRepository implements CustomerRepository {
+
+    private final CustomerRepository delegate;
+    private final CustomerSearchIndex searchIndex;
+
+    public IndexedCustomerRepository(CustomerRepository delegate, CustomerSearchIndex searchIndex) {
+        this.delegate = delegate;
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        var savedCustomer = delegate.save(customer);
+        searchIndex.put(savedCustomer);
+        return savedCustomer;
+    }
+
+    @Override
+    public List<Customer> saveAll(List<Customer> customers) {
+        var savedCustomers = delegate.saveAll(customers);
+        savedCustomers.forEach(searchIndex::put);
+        return savedCustomers;
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public Optional<Customer> findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public List<Customer> findAllById(Collection<Long> ids) {
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Customer> findPage(Long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Customer> consumer) {
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public List<Customer> search(String query, int limit) {
+        // Until the initial load finishes the index is incomplete, and the database cannot match words the same way
+        if (!searchIndex.isReady()) {
+            throw new CustomerSearchUnavailableException();
+        }
+        return searchIndex.search(query, limit);
+    }
+
+    @Override
+    public Optional<Customer> deleteById(Long id) {
+        var deletedCustomer = delegate.deleteById(id);
+        searchIndex.remove(id);
+        return deletedCustomer;
+    }
+
+    @Override
+    public List<Customer> deleteAllById(Collection<Long> ids) {
+        var deletedCustomers = delegate.deleteAllById(ids);
+        deletedCustomers.forEach(deleted -> searchIndex.remove(deleted.getId()));
+        return deletedCustomers;
+    }
+
+    @Override
+    public Optional<Customer> update(Customer customer) {
+        var updatedCustomer = delegate.update(customer);
+        updatedCustomer.ifPresent(searchIndex::put);
+        return updatedCustomer;
+    }
+
+    @Override
+    public Optional<Customer> patch(Long id, Customer changes) {
+        var patchedCustomer = delegate.patch(id, changes);
+        patchedCustomer.ifPresent(searchIndex::put);
+        return patchedCustomer;
+    }
+
+    @Override
+    public Customer upsertByEmail(Customer customer) {
+        var upsertedCustomer = delegate.upsertByEmail(customer);
+        searchIndex.put(upsertedCustomer);
+        return upsertedCustomer;
+    }
+}
@@ -0,0 +1,93 @@
+package com.jgonzal.retail.adapters.out.sharded;
+
+import java.util.Arrays;
+
+/**
+ * Maps a fixed number of logical slots onto the configured shards. Every
+ * customer id carries its slot in {@code id % slots}, so an id alone names
+ * the shard holding the row. New customers take the slot of their email's
+ * hash, which puts every registration of one email on the same shard.
+ * Rebalancing moves whole slot ranges to another shard by changing the plan;
+ * the slot count itself can never change once ids have been handed out.
+ */
+public class ShardPlan {
+
+    private final int slots;
+    private final int[] shardBySlot;
+
+    private ShardPlan(int slots, int[] shardBySlot) {
+        this.slots = slots;
+        this.shardBySlot = shardBySlot;
+    }
+
+    // Contiguous ranges of slots, as equal in size as the counts allow
+    public static ShardPlan evenly(int slots, int shards) {
+        checkCounts(slots, shards);
+        var shardBySlot = new int[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            shardBySlot[slot] = (int) ((long) slot * shards / slots);
+        }
+        return new ShardPlan(slots, shardBySlot);
+    }
+
+    /**
+     * Parses a plan such as {@code 0-511:0,512-1023:1}: each entry assigns an
+     * inclusive slot range to a shard index. Every slot must be assigned
+     * exactly once. A blank plan splits the slots evenly.
+     */
+    public static ShardPlan parse(String plan, int slots, int shards) {
+        if (plan == null || plan.isBlank()) {
+            return evenly(slots, shards);
+        }
+        checkCounts(slots, shards);
+        var shardBySlot = new int[slots];
+        Arrays.fill(shardBySlot, -1);
+        for (var entry : plan.split(",")) {
+            var parts = entry.trim().split("[-:]");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Shard plan entry must look like first-last:shard: " + entry);
+            }
+            int first = Integer.parseInt(parts[0].trim());
+            int last = Integer.parseInt(parts[1].trim());
+            int shard = Integer.parseInt(parts[2].trim());
+            if (first < 0 || last >= slots || first > last || shard < 0 || shard >= shards) {
+                throw new IllegalArgumentException("Shard plan entry out of range: " + entry);
+            }
+            for (int slot = first; slot <= last; slot++) {
+                if (shardBySlot[slot] != -1) {
+                    throw new IllegalArgumentException("Slot assigned twice in shard plan: " + slot);
+                }
+                shardBySlot[slot] = shard;
+            }
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            if (shardBySlot[slot] == -1) {
+                throw new IllegalArgumentException("Slot missing from shard plan: " + slot);
+            }
+        }
+        return new ShardPlan(slots, shardBySlot);
+    }
+
+    public int slots() {
+        return slots;
+    }
+
+    public int slotOf(String email) {
+        return Math.floorMod(email.hashCode(), slots);
+    }
+
+    public int shardOfSlot(int slot) {
+        return shardBySlot[slot];
+    }
+
+    public int shardOf(long id) {
+        return shardBySlot[(int) Math.floorMod(id, (long) slots)];
+    }
+
+    private static void checkCounts(int slots, int shards) {
+        if (shards < 1 || slots < shards) {
+            throw new IllegalArgumentException(
+                    "Slot count must be at least the shard count: " + slots + " slots, " + shards + " shards");
+        }
+    }
+}
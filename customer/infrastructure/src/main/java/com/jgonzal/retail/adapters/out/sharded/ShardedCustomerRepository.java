@@ -0,0 +1,618 @@
+package com.jgonzal.retail.adapters.out.sharded;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import com.jgonzal.retail.adapters.out.persistence.DuplicateEmails;
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
+import com.jgonzal.retail.exception.CustomerValidationException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import java.io.Closeable;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+@Component
+@ConditionalOnExpression("'${customer.stack:servlet}' == 'servlet' and '${customer.store:sql}' == 'sharded'")
+public class ShardedCustomerRepository implements CustomerRepository, Closeable {
+
+    private static final List<String> SCHEMA = List.of(
+            "CREATE SEQUENCE IF NOT EXISTS customers_seq",
+            "CREATE TABLE IF NOT EXISTS customers (id BIGINT PRIMARY KEY, name VARCHAR(100) NOT NULL, "
+                    + "email VARCHAR(255) NOT NULL, version BIGINT)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS customers_email_key ON customers (email)",
+            // Emails changed to one whose slot belongs to this shard, held by customers living on other shards
+            "CREATE TABLE IF NOT EXISTS customer_emails (email VARCHAR(255) PRIMARY KEY, customer_id BIGINT NOT NULL)");
+
+    // The sequence is per shard; scaling it by the slot count and adding the slot keeps ids unique across shards
+    private static final String INSERT = "INSERT INTO customers (id, name, email, version) "
+            + "VALUES (nextval('customers_seq') * :slots + :slot, :name, :email, 0) RETURNING *";
+    private static final String NEXT_SEQUENCES = "SELECT nextval('customers_seq') FROM generate_series(1, :count)";
+    private static final String INSERT_WITH_ID =
+            "INSERT INTO customers (id, name, email, version) VALUES (:id, :name, :email, 0)";
+    private static final String SELECT_BY_ID = "SELECT * FROM customers WHERE id = :id";
+    private static final String SELECT_BY_EMAIL = "SELECT * FROM customers WHERE email = :email";
+    private static final String SELECT_BY_IDS = "SELECT * FROM customers WHERE id IN (:ids)";
+    private static final String SELECT_ALL = "SELECT * FROM customers ORDER BY id";
+    private static final String SELECT_PAGE = "SELECT * FROM customers WHERE id > :afterId ORDER BY id LIMIT :limit";
+    // Sorted by a key the merge can compare exactly: the "C" collation orders by bytes, which for UTF-8
+    // is code point order, whatever collation the shard's database uses
+    private static final String SEARCH = "SELECT *, LOWER(name) COLLATE \"C\" AS sort_name FROM customers "
+            + "WHERE LOWER(name) LIKE :pattern ESCAPE '!' OR email LIKE :pattern ESCAPE '!' "
+            + "ORDER BY sort_name, id LIMIT :limit";
+    private static final String DELETE_BY_ID = "DELETE FROM customers WHERE id = :id RETURNING *";
+    private static final String DELETE_BY_IDS = "DELETE FROM customers WHERE id IN (:ids) RETURNING *";
+    private static final String UNDO_INSERT = "DELETE FROM customers WHERE id IN (:ids)";
+    // The row is locked before it changes, so the email it had is the one this update replaced
+    private static final String UPDATE = "UPDATE customers c SET name = :name, email = :email, "
+            + "version = COALESCE(c.version, 0) + 1 "
+            + "FROM (SELECT id, email FROM customers WHERE id = :id FOR UPDATE) previous "
+            + "WHERE c.id = previous.id "
+            + "AND (CAST(:version AS BIGINT) IS NULL OR COALESCE(c.version, 0) = :version) "
+            + "RETURNING c.*, previous.email AS previous_email";
+    private static final String PATCH = "UPDATE customers c SET name = COALESCE(CAST(:name AS VARCHAR), c.name), "
+            + "email = COALESCE(CAST(:email AS VARCHAR), c.email), version = COALESCE(c.version, 0) + 1 "
+            + "FROM (SELECT id, email FROM customers WHERE id = :id FOR UPDATE) previous "
+            + "WHERE c.id = previous.id "
+            + "AND (CAST(:version AS BIGINT) IS NULL OR COALESCE(c.version, 0) = :version) "
+            + "RETURNING c.*, previous.email AS previous_email";
+    private static final String UPSERT = "INSERT INTO customers (id, name, email, version) "
+            + "VALUES (nextval('customers_seq') * :slots + :slot, :name, :email, 0) "
+            + "ON CONFLICT (email) DO UPDATE SET name = EXCLUDED.name, "
+            + "version = COALESCE(customers.version, 0) + 1 RETURNING *";
+    // Serializes everything that gives out an email on its own shard until the transaction ends
+    private static final String LOCK_EMAILS = "SELECT pg_advisory_xact_lock(lock_key) FROM "
+            + "(SELECT DISTINCT hashtext(email) AS lock_key FROM unnest(ARRAY[:emails]) AS email ORDER BY lock_key) "
+            + "lock_keys";
+    private static final String SELECT_CLAIMS = "SELECT * FROM customer_emails WHERE email IN (:emails)";
+    private static final String SELECT_ID_BY_EMAIL = "SELECT id FROM customers WHERE email = :email";
+    private static final String CLAIM_EMAIL = "INSERT INTO customer_emails (email, customer_id) VALUES (:email, :id)";
+    private static final String RELEASE_EMAIL = "DELETE FROM customer_emails WHERE email = :email AND customer_id = :id";
+
+    private static final RowMapper<Customer> ROW_MAPPER = (resultSet, rowNum) -> Customer.builder()
+            .id(resultSet.getLong("id"))
+            .name(resultSet.getString("name"))
+            .email(resultSet.getString("email"))
+            .version(resultSet.getObject("version", Long.class))
+            .build();
+    private static final RowMapper<SearchRow> SEARCH_ROW_MAPPER = (resultSet, rowNum) -> new SearchRow(
+            resultSet.getString("sort_name").codePoints().toArray(), ROW_MAPPER.mapRow(resultSet, rowNum));
+    private static final RowMapper<ChangedRow> CHANGED_ROW_MAPPER = (resultSet, rowNum) -> new ChangedRow(
+            ROW_MAPPER.mapRow(resultSet, rowNum), resultSet.getString("previous_email"));
+    private static final Comparator<Customer> BY_ID = Comparator.comparing(Customer::getId);
+    private static final Comparator<SearchRow> BY_SORT_NAME = Comparator
+            .comparing(SearchRow::sortName, Arrays::compare)
+            .thenComparing(row -> row.customer().getId());
+
+    private final List<CustomerShard> shards;
+    private final ShardPlan plan;
+    private final List<HikariDataSource> pools;
+    private final ExecutorService fanOutExecutor;
+
+    public ShardedCustomerRepository(
+            @Value("${customer.store.sharded.urls}") List<String> urls,
+            @Value("${customer.store.sharded.username:${spring.datasource.username}}") String username,
+            @Value("${customer.store.sharded.password:${spring.datasource.password}}") String password,
+            @Value("${customer.store.sharded.slots:1024}") int slots,
+            @Value("${customer.store.sharded.plan:}") String plan,
+            @Value("${customer.store.sharded.initialize-schema:true}") boolean initializeSchema,
+            @Value("${customer.store.sharded.fan-out.threads:0}") int fanOutThreads,
+            @Value("${customer.store.sharded.fan-out.queue-capacity:1000}") int fanOutQueueCapacity,
+            MeterRegistry meterRegistry) {
+        this.pools = IntStream.range(0, urls.size())
+                .mapToObj(index -> pool(index, urls.get(index).trim(), username, password))
+                .toList();
+        this.shards = pools.stream().map(CustomerShard::new).toList();
+        this.plan = ShardPlan.parse(plan, slots, urls.size());
+        // By default one thread per pooled connection: more could only wait for a connection
+        int threads = fanOutThreads > 0
+                ? fanOutThreads
+                : pools.stream().mapToInt(HikariDataSource::getMaximumPoolSize).sum();
+        this.fanOutExecutor = ExecutorServiceMetrics.monitor(meterRegistry,
+                fanOutExecutor(threads, fanOutQueueCapacity), "customer-shard-fan-out");
+        if (initializeSchema) {
+            createSchema();
+        }
+    }
+
+    ShardedCustomerRepository(List<CustomerShard> shards, ShardPlan plan, ExecutorService fanOutExecutor) {
+        this.shards = List.copyOf(shards);
+        this.plan = plan;
+        this.pools = List.of();
+        this.fanOutExecutor = fanOutExecutor;
+    }
+
+    void createSchema() {
+        shards.forEach(shard -> SCHEMA.forEach(statement -> shard.jdbc().getJdbcOperations().execute(statement)));
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        int slot = slotOf(customer.getEmail());
+        var params = customerParams(customer).addValue("slots", plan.slots()).addValue("slot", slot);
+        var shard = shardOfSlot(slot);
+        return shard.transactions().execute(status -> {
+            checkUnclaimed(shard, List.of(customer.getEmail()));
+            return DuplicateEmails.translate(() -> shard.jdbc().queryForObject(INSERT, params, ROW_MAPPER));
+        });
+    }
+
+    /*
+     * All or nothing: every shard's part is written before any shard commits. Each shard's transaction stays
+     * open, holding its email locks, while the next shard's part is written, so a taken email or any other
+     * failure while writing rolls every shard back. Shards are always entered in index order, so concurrent
+     * batches cannot wait on each other's locks in a cycle. The transactions commit innermost first; if a
+     * commit fails after inner shards committed, their rows are deleted again before the failure is rethrown.
+     */
+    @Override
+    public List<Customer> saveAll(List<Customer> customers) {
+        var positionsByShard = new TreeMap<Integer, List<Integer>>();
+        for (int position = 0; position < customers.size(); position++) {
+            int shardIndex = plan.shardOfSlot(slotOf(customers.get(position).getEmail()));
+            positionsByShard.computeIfAbsent(shardIndex, key -> new ArrayList<>()).add(position);
+        }
+        var partsByShard = new TreeMap<Integer, List<Customer>>();
+        positionsByShard.forEach((shardIndex, positions) ->
+                partsByShard.put(shardIndex, positions.stream().map(customers::get).toList()));
+        var savedByShard = new TreeMap<Integer, List<Customer>>();
+        var committedByShard = new TreeMap<Integer, List<Customer>>();
+        try {
+            insertAll(List.copyOf(partsByShard.keySet()), 0, partsByShard, savedByShard, committedByShard);
+        } catch (RuntimeException ex) {
+            committedByShard.forEach((shardIndex, committed) -> undoInsert(shardIndex, committed, ex));
+            throw ex;
+        }
+        var savedCustomers = new ArrayList<Customer>(Collections.nCopies(customers.size(), null));
+        positionsByShard.forEach((shardIndex, positions) -> {
+            var saved = savedByShard.get(shardIndex);
+            for (int i = 0; i < positions.size(); i++) {
+                savedCustomers.set(positions.get(i), saved.get(i));
+            }
+        });
+        return savedCustomers;
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        return first(shardOf(id).jdbc().query(SELECT_BY_ID, Map.of("id", id), ROW_MAPPER));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public Optional<Customer> findByEmail(String email) {
+        int home = plan.shardOfSlot(slotOf(email));
+        var customer = findByEmailOn(home, email);
+        if (customer.isPresent()) {
+            return customer;
+        }
+        // A customer whose email changed after creation stays on the shard its id points to
+        return fanOut(otherShards(home), shardIndex -> findByEmailOn(shardIndex, email)).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    @Override
+    public List<Customer> findAllById(Collection<Long> ids) {
+        var idsByShard = groupByShard(ids);
+        var shardIndexes = List.copyOf(idsByShard.keySet());
+        return fanOut(shardIndexes, shardIndex -> shards.get(shardIndex).jdbc()
+                .query(SELECT_BY_IDS, Map.of("ids", idsByShard.get(shardIndex)), ROW_MAPPER)).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return merge(fanOut(allShards(), shardIndex -> shards.get(shardIndex).jdbc()
+                .query(SELECT_ALL, Map.of(), ROW_MAPPER)), BY_ID, Integer.MAX_VALUE);
+    }
+
+    // Every shard returns its first rows after the cursor; the merged page is the smallest ids among them
+    @Override
+    public List<Customer> findPage(Long afterId, int limit) {
+        var params = Map.of("afterId", afterId == null ? 0L : afterId, "limit", limit);
+        return merge(fanOut(allShards(), shardIndex -> shards.get(shardIndex).jdbc()
+                .query(SELECT_PAGE, params, ROW_MAPPER)), BY_ID, limit);
+    }
+
+    // One shard after the other, so only one cursor is open at a time; rows are ordered by id within each shard
+    @Override
+    public void streamAll(Consumer<Customer> consumer) {
+        RowCallbackHandler handler = resultSet -> consumer.accept(ROW_MAPPER.mapRow(resultSet, resultSet.getRow()));
+        for (var shard : shards) {
+            shard.transactions().executeWithoutResult(status -> shard.jdbc().query(SELECT_ALL, Map.of(), handler));
+        }
+    }
+
+    @Override
+    public List<Customer> search(String query, int limit) {
+        var escapedQuery = query.toLowerCase(Locale.ROOT)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        var params = Map.of("pattern", "%" + escapedQuery + "%", "limit", limit);
+        return merge(fanOut(allShards(), shardIndex -> shards.get(shardIndex).jdbc()
+                .query(SEARCH, params, SEARCH_ROW_MAPPER)), BY_SORT_NAME, limit).stream()
+                .map(SearchRow::customer)
+                .toList();
+    }
+
+    @Override
+    public Optional<Customer> deleteById(Long id) {
+        int shardIndex = plan.shardOf(id);
+        var deleted = first(shards.get(shardIndex).jdbc().query(DELETE_BY_ID, Map.of("id", id), ROW_MAPPER));
+        deleted.ifPresent(customer -> releaseMovedEmail(shardIndex, customer.getEmail(), customer.getId()));
+        return deleted;
+    }
+
+    @Override
+    public List<Customer> deleteAllById(Collection<Long> ids) {
+        var idsByShard = groupByShard(ids);
+        var shardIndexes = List.copyOf(idsByShard.keySet());
+        return fanOut(shardIndexes, shardIndex -> {
+            var deleted = shards.get(shardIndex).jdbc()
+                    .query(DELETE_BY_IDS, Map.of("ids", idsByShard.get(shardIndex)), ROW_MAPPER);
+            deleted.forEach(customer -> releaseMovedEmail(shardIndex, customer.getEmail(), customer.getId()));
+            return deleted;
+        }).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    @Override
+    public Optional<Customer> update(Customer customer) {
+        var params = customerParams(customer)
+                .addValue("id", customer.getId())
+                .addValue("version", customer.getVersion(), Types.BIGINT);
+        return change(customer.getId(), customer.getEmail(), UPDATE, params);
+    }
+
+    @Override
+    public Optional<Customer> patch(Long id, Customer changes) {
+        var params = customerParams(changes)
+                .addValue("id", id)
+                .addValue("version", changes.getVersion(), Types.BIGINT);
+        return change(id, changes.getEmail(), PATCH, params);
+    }
+
+    // An email claimed by a customer on another shard belongs to that customer, which only gets its name updated
+    @Override
+    public Customer upsertByEmail(Customer customer) {
+        var email = customer.getEmail();
+        int slot = slotOf(email);
+        var params = customerParams(customer).addValue("slots", plan.slots()).addValue("slot", slot);
+        var shard = shardOfSlot(slot);
+        return shard.transactions().execute(status -> {
+            lockEmails(shard, List.of(email));
+            var owner = claimsOf(shard, List.of(email)).get(email);
+            if (owner != null) {
+                var claimant = findById(owner);
+                if (claimant.isPresent()) {
+                    if (!email.equals(claimant.get().getEmail())) {
+                        // The claimant is still switching to this email, or gave it up without releasing it
+                        throw new CustomerEmailAlreadyExistsException();
+                    }
+                    return patch(owner, Customer.builder().name(customer.getName()).build())
+                            .orElseThrow(CustomerEmailAlreadyExistsException::new);
+                }
+                // Ids are never reused: the claim outlived a delete that did not get to release it
+                release(shard, email, owner);
+            }
+            return shard.jdbc().queryForObject(UPSERT, params, ROW_MAPPER);
+        });
+    }
+
+    @Override
+    public void close() {
+        fanOutExecutor.shutdownNow();
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private void insertAll(List<Integer> shardIndexes, int next, Map<Integer, List<Customer>> partsByShard,
+            Map<Integer, List<Customer>> savedByShard, Map<Integer, List<Customer>> committedByShard) {
+        if (next == shardIndexes.size()) {
+            return;
+        }
+        int shardIndex = shardIndexes.get(next);
+        var shard = shards.get(shardIndex);
+        shard.transactions().executeWithoutResult(status -> {
+            savedByShard.put(shardIndex, insertPart(shard, partsByShard.get(shardIndex)));
+            insertAll(shardIndexes, next + 1, partsByShard, savedByShard, committedByShard);
+        });
+        committedByShard.put(shardIndex, savedByShard.get(shardIndex));
+    }
+
+    // Runs inside the shard's transaction, which the caller commits
+    private List<Customer> insertPart(CustomerShard shard, List<Customer> customers) {
+        checkUnclaimed(shard, customers.stream().map(Customer::getEmail).toList());
+        var sequences = shard.jdbc().queryForList(NEXT_SEQUENCES, Map.of("count", customers.size()), Long.class);
+        var savedCustomers = new ArrayList<Customer>(customers.size());
+        var batch = new SqlParameterSource[customers.size()];
+        for (int i = 0; i < customers.size(); i++) {
+            var customer = customers.get(i);
+            long id = sequences.get(i) * plan.slots() + slotOf(customer.getEmail());
+            savedCustomers.add(Customer.builder()
+                    .id(id)
+                    .name(customer.getName())
+                    .email(customer.getEmail())
+                    .version(0L)
+                    .build());
+            batch[i] = customerParams(customer).addValue("id", id);
+        }
+        DuplicateEmails.translate(() -> shard.jdbc().batchUpdate(INSERT_WITH_ID, batch));
+        return savedCustomers;
+    }
+
+    // New rows carry no claims elsewhere, so deleting them undoes the insert completely
+    private void undoInsert(int shardIndex, List<Customer> committed, RuntimeException failure) {
+        try {
+            shards.get(shardIndex).jdbc().update(UNDO_INSERT,
+                    Map.of("ids", committed.stream().map(Customer::getId).toList()));
+        } catch (RuntimeException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
+
+    /*
+     * The unique index only sees one shard, so an email moved to a customer on another shard is claimed in
+     * customer_emails on the shard of its slot, where every new customer with that email would be created.
+     * The claim is taken first and released again if the change does not happen; the claim of the email the
+     * customer had before is released afterwards. If that last step fails, the stale claim keeps the old
+     * email reserved until it is deleted by hand.
+     */
+    private Optional<Customer> change(Long id, String email, String sql, MapSqlParameterSource params) {
+        int shardIndex = plan.shardOf(id);
+        var shard = shards.get(shardIndex);
+        if (email == null) {
+            return changed(shardIndex, changeRows(shard, sql, params));
+        }
+        int home = plan.shardOfSlot(slotOf(email));
+        if (home == shardIndex) {
+            return changed(shardIndex, shard.transactions().execute(status -> {
+                lockEmails(shard, List.of(email));
+                var owner = claimsOf(shard, List.of(email)).get(email);
+                if (owner != null && !owner.equals(id)) {
+                    throw new CustomerEmailAlreadyExistsException();
+                }
+                return changeRows(shard, sql, params);
+            }));
+        }
+        boolean claimed = claim(shards.get(home), email, id);
+        List<ChangedRow> rows;
+        try {
+            rows = changeRows(shard, sql, params);
+        } catch (RuntimeException ex) {
+            if (claimed) {
+                release(shards.get(home), email, id);
+            }
+            throw ex;
+        }
+        if (rows.isEmpty() && claimed) {
+            release(shards.get(home), email, id);
+        }
+        return changed(shardIndex, rows);
+    }
+
+    private static List<ChangedRow> changeRows(CustomerShard shard, String sql, MapSqlParameterSource params) {
+        return DuplicateEmails.translate(() -> shard.jdbc().query(sql, params, CHANGED_ROW_MAPPER));
+    }
+
+    private Optional<Customer> changed(int shardIndex, List<ChangedRow> rows) {
+        return rows.stream().findFirst().map(row -> {
+            var customer = row.customer();
+            if (!row.previousEmail().equals(customer.getEmail())) {
+                releaseMovedEmail(shardIndex, row.previousEmail(), customer.getId());
+            }
+            return customer;
+        });
+    }
+
+    // True when this call took the claim, false when the customer already held it
+    private boolean claim(CustomerShard home, String email, Long id) {
+        return home.transactions().execute(status -> {
+            lockEmails(home, List.of(email));
+            if (!home.jdbc().queryForList(SELECT_ID_BY_EMAIL, Map.of("email", email), Long.class).isEmpty()) {
+                throw new CustomerEmailAlreadyExistsException();
+            }
+            var owner = claimsOf(home, List.of(email)).get(email);
+            if (owner != null) {
+                if (!owner.equals(id)) {
+                    throw new CustomerEmailAlreadyExistsException();
+                }
+                return false;
+            }
+            home.jdbc().update(CLAIM_EMAIL, Map.of("email", email, "id", id));
+            return true;
+        });
+    }
+
+    private void releaseMovedEmail(int shardIndex, String email, Long id) {
+        int home = plan.shardOfSlot(slotOf(email));
+        if (home != shardIndex) {
+            release(shards.get(home), email, id);
+        }
+    }
+
+    private static void release(CustomerShard home, String email, Long id) {
+        home.jdbc().update(RELEASE_EMAIL, Map.of("email", email, "id", id));
+    }
+
+    // Must run inside the shard's transaction, so the lock is held until the new rows are committed
+    private static void checkUnclaimed(CustomerShard shard, List<String> emails) {
+        lockEmails(shard, emails);
+        var claims = claimsOf(shard, emails);
+        if (!claims.isEmpty()) {
+            throw new CustomerEmailAlreadyExistsException();
+        }
+    }
+
+    private static void lockEmails(CustomerShard shard, List<String> emails) {
+        shard.jdbc().query(LOCK_EMAILS, Map.of("emails", emails), (ResultSetExtractor<Void>) resultSet -> null);
+    }
+
+    private static Map<String, Long> claimsOf(CustomerShard shard, List<String> emails) {
+        var claims = new TreeMap<String, Long>();
+        shard.jdbc().query(SELECT_CLAIMS, Map.of("emails", emails),
+                (RowCallbackHandler) resultSet -> claims.put(resultSet.getString("email"),
+                        resultSet.getLong("customer_id")));
+        return claims;
+    }
+
+
+    private int slotOf(String email) {
+        if (email == null || email.isBlank()) {
+            throw new CustomerValidationException("El email es obligatorio");
+        }
+        return plan.slotOf(email);
+    }
+
+    private Optional<Customer> findByEmailOn(int shardIndex, String email) {
+        return first(shards.get(shardIndex).jdbc().query(SELECT_BY_EMAIL, Map.of("email", email), ROW_MAPPER));
+    }
+
+    private CustomerShard shardOf(long id) {
+        return shards.get(plan.shardOf(id));
+    }
+
+    private CustomerShard shardOfSlot(int slot) {
+        return shards.get(plan.shardOfSlot(slot));
+    }
+
+    private Map<Integer, List<Long>> groupByShard(Collection<Long> ids) {
+        var idsByShard = new TreeMap<Integer, List<Long>>();
+        for (Long id : ids) {
+            idsByShard.computeIfAbsent(plan.shardOf(id), key -> new ArrayList<>()).add(id);
+        }
+        return idsByShard;
+    }
+
+    private List<Integer> allShards() {
+        return IntStream.range(0, shards.size()).boxed().toList();
+    }
+
+    private List<Integer> otherShards(int excluded) {
+        return IntStream.range(0, shards.size()).filter(index -> index != excluded).boxed().toList();
+    }
+
+    private <T> List<T> fanOut(List<Integer> shardIndexes, IntFunction<T> query) {
+        if (shardIndexes.size() <= 1) {
+            return shardIndexes.stream().map(query::apply).toList();
+        }
+        var futures = shardIndexes.stream()
+                .map(shardIndex -> CompletableFuture.supplyAsync(() -> query.apply(shardIndex), fanOutExecutor))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException ex) {
+            // Surface the shard's own exception so the usual handlers still recognize it
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    // Each shard's rows already arrive in order, so a k-way merge is enough to order them all
+    private static <T> List<T> merge(List<List<T>> sortedByShard, Comparator<T> order, int limit) {
+        var heads = new PriorityQueue<int[]>(sortedByShard.size() + 1,
+                Comparator.comparing((int[] head) -> sortedByShard.get(head[0]).get(head[1]), order));
+        for (int shardIndex = 0; shardIndex < sortedByShard.size(); shardIndex++) {
+            if (!sortedByShard.get(shardIndex).isEmpty()) {
+                heads.add(new int[] {shardIndex, 0});
+            }
+        }
+        var merged = new ArrayList<T>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            var head = heads.poll();
+            var rows = sortedByShard.get(head[0]);
+            merged.add(rows.get(head[1]));
+            if (++head[1] < rows.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private static Optional<Customer> first(List<Customer> customers) {
+        return customers.stream().findFirst();
+    }
+
+    private static MapSqlParameterSource customerParams(Customer customer) {
+        return new MapSqlParameterSource()
+                .addValue("name", customer.getName(), Types.VARCHAR)
+                .addValue("email", customer.getEmail(), Types.VARCHAR);
+    }
+
+    private static HikariDataSource pool(int index, String url, String username, String password) {
+        var pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        pool.setPoolName("customer-shard-" + index);
+        return pool;
+    }
+
+    // Shared by every request. Once the threads and the queue are full, the calling thread runs its shard
+    // query itself, which slows the callers down instead of failing them or queueing without bound
+    static ThreadPoolExecutor fanOutExecutor(int threads, int queueCapacity) {
+        var threadCount = new AtomicInteger();
+        var executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    var thread = new Thread(runnable, "customer-shard-fan-out-" + threadCount.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (task, pool) -> {
+                    // Unlike CallerRunsPolicy, never drop the task silently: its caller would wait on it forever
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("Shard fan-out executor is shut down");
+                    }
+                    task.run();
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private record SearchRow(int[] sortName, Customer customer) {
+    }
+
+    private record ChangedRow(Customer customer, String previousEmail) {
+    }
+}
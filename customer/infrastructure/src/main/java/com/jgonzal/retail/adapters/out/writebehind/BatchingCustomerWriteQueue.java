@@ -0,0 +1,220 @@
+package com.jgonzal.retail.adapters.out.writebehind;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jgonzal.retail.adapters.out.persistence.routing.ReadYourWritesWindow;
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
+import com.jgonzal.retail.exception.CustomerQueueFullException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerCreation;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+import com.jgonzal.retail.ports.output.CustomerWriteQueue;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write-behind queue for customer creation. Requests are accepted into a
+ * bounded queue and a single writer thread drains whatever has accumulated
+ * into one saveAll call, so a burst of signups costs a few batched inserts
+ * instead of one commit per request.
+ */
+@Slf4j
+public class BatchingCustomerWriteQueue implements CustomerWriteQueue, SmartLifecycle {
+
+    // Stops after the web server (phase DEFAULT_PHASE - 2048), so requests accepted before shutdown still get written
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final long POLL_MILLIS = 100;
+
+    private final CustomerRepository customerRepository;
+    private final BlockingQueue<PendingCreation> queue;
+    private final int capacity;
+    private final int maxBatchSize;
+    private final Duration flushTimeout;
+    private final Cache<String, CompletableFuture<CustomerCreation>> creations;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final ReadYourWritesWindow readYourWritesWindow;
+    private volatile boolean running;
+    private Thread writer;
+
+    // The read-your-writes window only exists when read replicas are configured
+    public BatchingCustomerWriteQueue(CustomerRepository customerRepository, MeterRegistry meterRegistry, int capacity,
+            int maxBatchSize, Duration flushTimeout, Duration statusRetention,
+            @Nullable ReadYourWritesWindow readYourWritesWindow) {
+        this.customerRepository = customerRepository;
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.flushTimeout = flushTimeout;
+        this.creations = Caffeine.newBuilder().expireAfterWrite(statusRetention).build();
+        Gauge.builder("customer.write-behind.queue.depth", queue, BlockingQueue::size)
+                .description("Customer creations waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("customer.write-behind.flush")
+                .description("Time to write one batch of queued customer creations")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("customer.write-behind.batch.size")
+                .description("Customer creations written per batch")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CustomerCreation enqueue(Customer customer) {
+        // The writer thread has no client of its own, so the caller's is kept for its read-your-writes window
+        var client = readYourWritesWindow == null ? null : readYourWritesWindow.currentClient();
+        var pending = new PendingCreation(UUID.randomUUID().toString(), customer, client, new CompletableFuture<>());
+        creations.put(pending.getTrackingId(), pending.getResult());
+        // Rejected right away instead of blocking, so a full queue turns into a 503 the client can retry
+        if (!running || !queue.offer(pending)) {
+            creations.invalidate(pending.getTrackingId());
+            throw new CustomerQueueFullException(capacity);
+        }
+        return CustomerCreation.pending(pending.getTrackingId());
+    }
+
+    @Override
+    public CustomerCreation awaitFlush(String trackingId) {
+        var result = creations.getIfPresent(trackingId);
+        if (result == null) {
+            return CustomerCreation.pending(trackingId);
+        }
+        try {
+            return result.get(flushTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            return CustomerCreation.pending(trackingId);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return CustomerCreation.pending(trackingId);
+        } catch (ExecutionException ex) {
+            return CustomerCreation.failed(trackingId, ex.getCause().getMessage());
+        }
+    }
+
+    @Override
+    public Optional<CustomerCreation> findCreation(String trackingId) {
+        return Optional.ofNullable(creations.getIfPresent(trackingId))
+                .map(result -> result.getNow(CustomerCreation.pending(trackingId)));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "customer-write-behind");
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void drain() {
+        var batch = new ArrayList<PendingCreation>(maxBatchSize);
+        // Keeps going after stop() until everything accepted has been written
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                // Opened before the results complete, so a client awaiting the flush already reads from the primary
+                recordWrites(batch);
+                flushTimer.record(() -> write(batch));
+                batchSizes.record(batch.size());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Customer write-behind batch of {} failed", batch.size(), ex);
+                batch.forEach(pending -> pending.getResult().complete(
+                        CustomerCreation.failed(pending.getTrackingId(), "No se pudo guardar el cliente")));
+            } finally {
+                // And again once the batch is done, so the window runs from the commit
+                recordWrites(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingCreation> batch) {
+        List<Customer> savedCustomers;
+        try {
+            savedCustomers = customerRepository.saveAll(batch.stream().map(PendingCreation::getCustomer).toList());
+        } catch (CustomerEmailAlreadyExistsException | DataIntegrityViolationException ex) {
+            // One bad row fails the whole batch; retrying one by one isolates it
+            batch.forEach(this::writeOne);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            var pending = batch.get(i);
+            pending.getResult().complete(CustomerCreation.created(pending.getTrackingId(), savedCustomers.get(i)));
+        }
+    }
+
+    private void writeOne(PendingCreation pending) {
+        try {
+            var savedCustomer = customerRepository.save(pending.getCustomer());
+            pending.getResult().complete(CustomerCreation.created(pending.getTrackingId(), savedCustomer));
+        } catch (CustomerEmailAlreadyExistsException ex) {
+            pending.getResult().complete(CustomerCreation.failed(pending.getTrackingId(), ex.getMessage()));
+        } catch (DataIntegrityViolationException ex) {
+            log.error("Customer write-behind insert failed", ex);
+            pending.getResult().complete(CustomerCreation.failed(pending.getTrackingId(), "No se pudo guardar el cliente"));
+        }
+    }
+
+    // Recorded even when the batch fails, as with synchronous writes: it may have committed before the error reached us
+    private void recordWrites(List<PendingCreation> batch) {
+        if (readYourWritesWindow != null) {
+            batch.forEach(pending -> readYourWritesWindow.recordWrite(pending.getClient()));
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class PendingCreation {
+        private final String trackingId;
+        private final Customer customer;
+        private final String client;
+        private final CompletableFuture<CustomerCreation> result;
+    }
+}
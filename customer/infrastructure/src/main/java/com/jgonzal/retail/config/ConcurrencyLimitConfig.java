@@ -0,0 +1,60 @@
+package com.jgonzal.retail.config;
+
+import com.jgonzal.retail.adapters.input.rest.limit.ConcurrencyLimitInterceptor;
+import com.jgonzal.retail.adapters.input.rest.limit.GradientConcurrencyLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Adaptive concurrency limits in front of the customer endpoints, one for
+ * reads and one for writes, so a slow database turns into quick 503s instead
+ * of every request thread waiting on the connection pool.
+ */
+@Configuration
+@ConditionalOnExpression("'${customer.stack:servlet}' == 'servlet' and ${customer.limiter.enabled:true}")
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final ConcurrencyLimitInterceptor interceptor;
+
+    public ConcurrencyLimitConfig(MeterRegistry meterRegistry,
+            @Value("${customer.limiter.read.initial-limit:100}") int readInitialLimit,
+            @Value("${customer.limiter.read.min-limit:10}") int readMinLimit,
+            @Value("${customer.limiter.read.max-limit:1000}") int readMaxLimit,
+            @Value("${customer.limiter.write.initial-limit:20}") int writeInitialLimit,
+            @Value("${customer.limiter.write.min-limit:4}") int writeMinLimit,
+            @Value("${customer.limiter.write.max-limit:200}") int writeMaxLimit,
+            @Value("${customer.limiter.retry-after:1s}") Duration retryAfter) {
+        var readLimiter = new GradientConcurrencyLimiter(readInitialLimit, readMinLimit, readMaxLimit);
+        var writeLimiter = new GradientConcurrencyLimiter(writeInitialLimit, writeMinLimit, writeMaxLimit);
+        register(meterRegistry, readLimiter, "read");
+        register(meterRegistry, writeLimiter, "write");
+        this.interceptor = new ConcurrencyLimitInterceptor(readLimiter, writeLimiter,
+                Math.max(1, retryAfter.toSeconds()));
+    }
+
+    // The change feed holds its connection open for minutes and only reads the in-memory ring
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor)
+                .addPathPatterns("/customers", "/customers/**")
+                .excludePathPatterns("/customers/changes");
+    }
+
+    private static void register(MeterRegistry meterRegistry, GradientConcurrencyLimiter limiter, String kind) {
+        Gauge.builder("customer.limiter.limit", limiter, GradientConcurrencyLimiter::getLimit)
+                .description("Concurrent requests currently admitted before shedding load")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        Gauge.builder("customer.limiter.in-flight", limiter, GradientConcurrencyLimiter::getInFlight)
+                .description("Requests currently holding a concurrency permit")
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+}
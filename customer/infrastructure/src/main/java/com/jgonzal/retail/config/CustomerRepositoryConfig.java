@@ -0,0 +1,122 @@
+package com.jgonzal.retail.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jgonzal.retail.adapters.metrics.InstrumentedPort;
+import com.jgonzal.retail.adapters.out.cache.CachingCustomerRepository;
+import com.jgonzal.retail.adapters.out.changes.ChangePublishingCustomerRepository;
+import com.jgonzal.retail.adapters.out.changes.CustomerChangeRing;
+import com.jgonzal.retail.adapters.out.mapped.MappedCustomerRepository;
+import com.jgonzal.retail.adapters.out.persistence.SqlCustomerRepository;
+import com.jgonzal.retail.adapters.out.persistence.routing.ReadYourWritesWindow;
+import com.jgonzal.retail.adapters.out.persistence.routing.ReplicaRoutingCustomerRepository;
+import com.jgonzal.retail.adapters.out.search.CustomerSearchIndex;
+import com.jgonzal.retail.adapters.out.sharded.ShardedCustomerRepository;
+import com.jgonzal.retail.adapters.out.search.IndexedCustomerRepository;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "customer.stack", havingValue = "servlet", matchIfMissing = true)
+public class CustomerRepositoryConfig {
+
+    @Bean
+    public CustomerChangeRing customerChangeRing(@Value("${customer.changes.capacity:65536}") int capacity) {
+        return new CustomerChangeRing(capacity);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "customer.search.index.enabled", havingValue = "true", matchIfMissing = true)
+    public CustomerSearchIndex customerSearchIndex(MeterRegistry meterRegistry) {
+        var searchIndex = new CustomerSearchIndex();
+        Gauge.builder("customer.search.index.size", searchIndex, CustomerSearchIndex::size)
+                .description("Customers held by the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("customer.search.index.words", searchIndex, CustomerSearchIndex::wordCount)
+                .description("Distinct words held by the in-memory search index")
+                .register(meterRegistry);
+        return searchIndex;
+    }
+
+    // Loaded once the server is up; searches are rejected as unavailable until then. Read from the primary, since a
+    // replica could miss writes the index would then never see
+    @Bean
+    @ConditionalOnProperty(name = "customer.search.index.enabled", havingValue = "true", matchIfMissing = true)
+    public ApplicationListener<ApplicationReadyEvent> customerSearchIndexLoader(CustomerSearchIndex searchIndex,
+            ObjectProvider<SqlCustomerRepository> sqlCustomerRepository,
+            ObjectProvider<MappedCustomerRepository> mappedCustomerRepository,
+            ObjectProvider<ShardedCustomerRepository> shardedCustomerRepository) {
+        var store = storeOf(sqlCustomerRepository, mappedCustomerRepository, shardedCustomerRepository, null, false);
+        return event -> searchIndex.load(store::streamAll);
+    }
+
+    @Bean
+    @Primary
+    public CustomerRepository customerRepository(
+            ObjectProvider<SqlCustomerRepository> sqlCustomerRepository,
+            ObjectProvider<MappedCustomerRepository> mappedCustomerRepository,
+            ObjectProvider<ShardedCustomerRepository> shardedCustomerRepository,
+            ObjectProvider<ReadYourWritesWindow> readYourWritesWindow,
+            ObjectProvider<CustomerSearchIndex> searchIndex,
+            CustomerChangeRing changeRing,
+            MeterRegistry meterRegistry,
+            @Value("${customer.cache.enabled:true}") boolean cacheEnabled,
+            @Value("${customer.cache.maximum-size:10000}") long cacheMaximumSize,
+            @Value("${customer.cache.ttl:10m}") Duration cacheTtl) {
+        // Timing the store adapter on its own separates storage time from the cache and service layers above it
+        CustomerRepository repository = InstrumentedPort.instrument(CustomerRepository.class,
+                storeOf(sqlCustomerRepository, mappedCustomerRepository, shardedCustomerRepository,
+                        readYourWritesWindow.getIfAvailable(), cacheEnabled), meterRegistry);
+        // Right above the store so every committed write is published, whichever layers sit on top
+        repository = InstrumentedPort.instrument(CustomerRepository.class,
+                new ChangePublishingCustomerRepository(repository, changeRing), meterRegistry);
+        var availableSearchIndex = searchIndex.getIfAvailable();
+        if (availableSearchIndex != null) {
+            repository = InstrumentedPort.instrument(CustomerRepository.class,
+                    new IndexedCustomerRepository(repository, availableSearchIndex), meterRegistry);
+        }
+        if (cacheEnabled) {
+            Cache<Long, Customer> cache = Caffeine.newBuilder()
+                    .maximumSize(cacheMaximumSize)
+                    .expireAfterWrite(cacheTtl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "customers");
+            repository = InstrumentedPort.instrument(CustomerRepository.class,
+                    new CachingCustomerRepository(repository, cache), meterRegistry);
+        }
+        return repository;
+    }
+
+    // customer.store picks exactly one of the adapters: sql (default), mapped or sharded.
+    // With replicas configured (a window is passed), the SQL adapter's reads are routed to them, except the cache fills
+    private static CustomerRepository storeOf(ObjectProvider<SqlCustomerRepository> sqlCustomerRepository,
+            ObjectProvider<MappedCustomerRepository> mappedCustomerRepository,
+            ObjectProvider<ShardedCustomerRepository> shardedCustomerRepository,
+            ReadYourWritesWindow window, boolean cacheEnabled) {
+        var mappedStore = mappedCustomerRepository.getIfAvailable();
+        if (mappedStore != null) {
+            return mappedStore;
+        }
+        var shardedStore = shardedCustomerRepository.getIfAvailable();
+        if (shardedStore != null) {
+            return shardedStore;
+        }
+        return window == null
+                ? sqlCustomerRepository.getObject()
+                : new ReplicaRoutingCustomerRepository(sqlCustomerRepository.getObject(), window, cacheEnabled);
+    }
+}
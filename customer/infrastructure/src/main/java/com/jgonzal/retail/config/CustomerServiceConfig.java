@@ -0,0 +1,21 @@
+package com.jgonzal.retail.config;
+
+import com.jgonzal.retail.adapters.metrics.InstrumentedPort;
+import com.jgonzal.retail.ports.input.CustomerService;
+import com.jgonzal.retail.services.CustomerServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+@ConditionalOnProperty(name = "customer.stack", havingValue = "servlet", matchIfMissing = true)
+public class CustomerServiceConfig {
+
+    @Bean
+    @Primary
+    public CustomerService customerService(CustomerServiceImpl customerServiceImpl, MeterRegistry meterRegistry) {
+        return InstrumentedPort.instrument(CustomerService.class, customerServiceImpl, meterRegistry);
+    }
+}
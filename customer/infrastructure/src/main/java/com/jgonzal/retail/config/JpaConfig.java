@@ -0,0 +1,13 @@
+package com.jgonzal.retail.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+@Configuration
+@ConditionalOnExpression("'${customer.stack:servlet}' == 'servlet' and '${customer.store:sql}' == 'sql'")
+@EntityScan("com.jgonzal.retail")
+@EnableJpaRepositories("com.jgonzal.retail")
+public class JpaConfig {
+}
@@ -0,0 +1,66 @@
+package com.jgonzal.retail.config;
+
+import com.jgonzal.retail.adapters.input.rest.routing.ReadYourWritesFilter;
+import com.jgonzal.retail.adapters.out.persistence.routing.ReadYourWritesWindow;
+import com.jgonzal.retail.adapters.out.persistence.routing.ReplicaBalancer;
+import com.jgonzal.retail.adapters.out.persistence.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Only active when replicas are listed; otherwise Boot's single DataSource is used as before
+@Configuration
+@ConditionalOnExpression("'${customer.stack:servlet}' == 'servlet' and '${customer.store:sql}' == 'sql' "
+        + "and '${customer.datasource.replica-urls:}' != ''")
+public class ReadReplicaConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties,
+            @Value("${customer.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${customer.datasource.replica-username:${spring.datasource.username}}") String replicaUsername,
+            @Value("${customer.datasource.replica-password:${spring.datasource.password}}") String replicaPassword,
+            @Value("${customer.datasource.replica-balancing:round-robin}") ReplicaBalancer.Strategy balancing) {
+        var primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("customer-primary");
+        var replicas = new ArrayList<DataSource>(replicaUrls.size());
+        for (var replicaUrl : replicaUrls) {
+            var replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(replicaUrl.trim())
+                    .username(replicaUsername)
+                    .password(replicaPassword)
+                    .build();
+            replica.setPoolName("customer-replica-" + replicas.size());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, new ReplicaBalancer(balancing));
+    }
+
+    @Bean
+    public ReadYourWritesWindow readYourWritesWindow(
+            @Value("${customer.datasource.read-your-writes.window:0s}") Duration window,
+            @Value("${customer.datasource.read-your-writes.maximum-clients:100000}") long maximumClients) {
+        return new ReadYourWritesWindow(window, maximumClients);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadYourWritesWindow readYourWritesWindow,
+            @Value("${customer.datasource.read-your-writes.client-header:X-Client-Id}") String clientHeader,
+            @Value("${customer.datasource.read-your-writes.client-cookie:customer-client}") String clientCookie,
+            @Value("${customer.datasource.read-your-writes.client-cookie-max-age:30d}") Duration cookieMaxAge) {
+        return new ReadYourWritesFilter(readYourWritesWindow, clientHeader, clientCookie, cookieMaxAge);
+    }
+}
@@ -0,0 +1,44 @@
+package com.jgonzal.retail.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jgonzal.retail.adapters.input.rest.cache.EncodedResponseCache;
+import com.jgonzal.retail.adapters.out.changes.CustomerChangeRing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "customer.stack", havingValue = "servlet", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "customer.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public EncodedResponseCache encodedResponseCache(CustomerChangeRing changeRing, MeterRegistry meterRegistry,
+            @Value("${customer.response-cache.maximum-size:10000}") long maximumSize,
+            @Value("${customer.response-cache.page-maximum-size:1000}") long pageMaximumSize,
+            @Value("${customer.response-cache.ttl:10m}") Duration ttl,
+            @Value("${customer.response-cache.gzip-min-size:512}") int gzipMinSize) {
+        Cache<Long, EncodedResponseCache.EncodedBody> customers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        Cache<String, EncodedResponseCache.EncodedBody> pages = Caffeine.newBuilder()
+                .maximumSize(pageMaximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, customers, "customer-responses");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "customer-page-responses");
+        var responseCache = new EncodedResponseCache(customers, pages, gzipMinSize);
+        // Listeners run on the writing thread, so no later read can see a body built before the write
+        changeRing.addListener(responseCache::onChange);
+        return responseCache;
+    }
+}
@@ -0,0 +1,32 @@
+package com.jgonzal.retail.config;
+
+import com.jgonzal.retail.adapters.out.persistence.routing.ReadYourWritesWindow;
+import com.jgonzal.retail.adapters.out.writebehind.BatchingCustomerWriteQueue;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "customer.stack", havingValue = "servlet", matchIfMissing = true)
+public class WriteBehindConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "customer.write-behind.enabled", havingValue = "true")
+    public BatchingCustomerWriteQueue customerWriteQueue(
+            CustomerRepository customerRepository,
+            MeterRegistry meterRegistry,
+            ObjectProvider<ReadYourWritesWindow> readYourWritesWindow,
+            @Value("${customer.write-behind.capacity:10000}") int capacity,
+            @Value("${customer.write-behind.max-batch-size:500}") int maxBatchSize,
+            @Value("${customer.write-behind.flush-timeout:5s}") Duration flushTimeout,
+            @Value("${customer.write-behind.status-retention:10m}") Duration statusRetention) {
+        return new BatchingCustomerWriteQueue(customerRepository, meterRegistry, capacity, maxBatchSize, flushTimeout,
+                statusRetention, readYourWritesWindow.getIfAvailable());
+    }
+}
@@ -0,0 +1,14 @@
+-- Runs on every start after Hibernate has updated the schema; each statement is idempotent.
+
+-- customers.id used to be an IDENTITY column. The pooled sequence that replaced it hands out the
+-- ids (last_value, last_value + 100], so it is moved past the ids that already exist
+SELECT setval('customers_seq',
+              GREATEST((SELECT last_value FROM customers_seq), (SELECT COALESCE(MAX(id), 0) FROM customers)));
+
+-- Emails are stored trimmed and lower-cased, which older rows may not be. A row is only rewritten when no
+-- other row owns the normalized email; the duplicates that remain have to be merged by hand
+UPDATE customers c
+SET email = LOWER(TRIM(c.email)), version = COALESCE(c.version, 0) + 1
+WHERE c.email <> LOWER(TRIM(c.email))
+  AND c.id = (SELECT MIN(d.id) FROM customers d WHERE LOWER(TRIM(d.email)) = LOWER(TRIM(c.email)))
+  AND NOT EXISTS (SELECT 1 FROM customers e WHERE e.email = LOWER(TRIM(c.email)));
@@ -1,32 +1,59 @@
 package com.jgonzal.retail.adapters.input.rest;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 
+import java.sql.SQLException;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.jgonzal.retail.adapters.input.rest.cache.EncodedResponseCache;
 import com.jgonzal.retail.adapters.input.rest.data.request.CustomerRequest;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerCreationResponse;
 import com.jgonzal.retail.adapters.input.rest.data.response.CustomerResponse;
 import com.jgonzal.retail.adapters.input.rest.mapper.CustomerRestMapper;
+import com.jgonzal.retail.adapters.input.rest.pagination.CursorCodec;
+import com.jgonzal.retail.exception.CustomerCreationNotFoundException;
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
 import com.jgonzal.retail.exception.CustomerNotFoundException;
+import com.jgonzal.retail.exception.CustomerQueueFullException;
+import com.jgonzal.retail.exception.CustomerSearchUnavailableException;
+import com.jgonzal.retail.exception.CustomerVersionConflictException;
 import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerBatchResult;
+import com.jgonzal.retail.model.CustomerChange;
+import com.jgonzal.retail.model.CustomerCreation;
+import com.jgonzal.retail.model.CustomerDeletionResult;
+import com.jgonzal.retail.model.CustomerLookupResult;
+import com.jgonzal.retail.model.CustomerPage;
 import com.jgonzal.retail.ports.input.CustomerService;
 import com.jgonzal.retail.adapters.input.rest.exception.GlobalExceptionHandler;
 
@@ -39,16 +66,22 @@ class CustomerControllerTest {
     @Mock
     private CustomerRestMapper customerMapper;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private CustomerController customerController;
 
+    private SimpleMeterRegistry meterRegistry;
+
     private MockMvc mockMvc;
-    private ObjectMapper objectMapper;
 
     @BeforeEach
     void setUp() {
-        mockMvc = standaloneSetup(customerController).setControllerAdvice(new GlobalExceptionHandler()).build();
-        objectMapper = new ObjectMapper();
+        meterRegistry = new SimpleMeterRegistry();
+        mockMvc = standaloneSetup(customerController)
+                .setControllerAdvice(new GlobalExceptionHandler(meterRegistry))
+                .build();
     }
 
     @Test
@@ -87,6 +120,59 @@ class CustomerControllerTest {
         verify(customerMapper).toResponse(createdCustomer);
     }
 
+    @Test
+    void createCustomers_ShouldReportPerItemResults() throws Exception {
+        // Given
+        List<CustomerRequest> requests = List.of(
+                new CustomerRequest("John Doe", "john@example.com"),
+                new CustomerRequest("", "nobody@example.com"));
+        List<Customer> customers = List.of(
+                Customer.builder().name("John Doe").email("john@example.com").build(),
+                Customer.builder().name("").email("nobody@example.com").build());
+        Customer created = Customer.builder().id(1L).name("John Doe").email("john@example.com").build();
+
+        when(customerMapper.toDomainList(requests)).thenReturn(customers);
+        when(customerService.createCustomers(customers)).thenReturn(List.of(
+                CustomerBatchResult.created(0, created),
+                CustomerBatchResult.rejected(1, "El nombre es obligatorio")));
+        when(customerMapper.toResponse(created)).thenReturn(new CustomerResponse(1L, "John Doe", "john@example.com"));
+
+        // When/Then
+        mockMvc.perform(post("/customers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].customer.id").value(1))
+                .andExpect(jsonPath("$.results[1].index").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[1].error").value("El nombre es obligatorio"));
+
+        verify(customerService).createCustomers(customers);
+    }
+
+    @Test
+    void createCustomers_ShouldReturnCreated_WhenEveryItemIsCreated() throws Exception {
+        // Given
+        List<CustomerRequest> requests = List.of(new CustomerRequest("John Doe", "john@example.com"));
+        List<Customer> customers = List.of(Customer.builder().name("John Doe").email("john@example.com").build());
+        Customer created = Customer.builder().id(1L).name("John Doe").email("john@example.com").build();
+
+        when(customerMapper.toDomainList(requests)).thenReturn(customers);
+        when(customerService.createCustomers(customers)).thenReturn(List.of(CustomerBatchResult.created(0, created)));
+        when(customerMapper.toResponse(created)).thenReturn(new CustomerResponse(1L, "John Doe", "john@example.com"));
+
+        // When/Then
+        mockMvc.perform(post("/customers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rejected").value(0));
+    }
+
     @Test
     void getCustomerById_ShouldReturnCustomer() throws Exception {
         // Given
@@ -115,6 +201,37 @@ class CustomerControllerTest {
         verify(customerMapper).toResponse(customer);
     }
 
+    @Test
+    void getCustomerById_ShouldReturnETagFromVersion() throws Exception {
+        // Given
+        Long customerId = 1L;
+        Customer customer = Customer.builder().id(customerId).name("John Doe").email("john.doe@example.com").version(4L).build();
+        when(customerService.getCustomerById(customerId)).thenReturn(customer);
+        when(customerMapper.toResponse(customer))
+                .thenReturn(new CustomerResponse(customerId, "John Doe", "john.doe@example.com"));
+
+        // When/Then
+        mockMvc.perform(get("/customers/{id}", customerId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnNotModified_WhenETagMatches() throws Exception {
+        // Given
+        Long customerId = 1L;
+        Customer customer = Customer.builder().id(customerId).name("John Doe").email("john.doe@example.com").version(4L).build();
+        when(customerService.getCustomerById(customerId)).thenReturn(customer);
+
+        // When/Then
+        mockMvc.perform(get("/customers/{id}", customerId).header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(content().string(""));
+
+        verify(customerMapper, never()).toResponse(any());
+    }
+
     @Test
     void getCustomerById_ShouldReturnNotFound_WhenCustomerDoesNotExist() throws Exception {
         // Given
@@ -130,7 +247,23 @@ class CustomerControllerTest {
     }
 
     @Test
-    void getAllCustomers_ShouldReturnListOfCustomers() throws Exception {
+    void getCustomerById_ShouldCountHandledException() throws Exception {
+        // Given
+        when(customerService.getCustomerById(999L)).thenThrow(new CustomerNotFoundException(999L));
+
+        // When
+        mockMvc.perform(get("/customers/{id}", 999L)).andExpect(status().isNotFound());
+
+        // Then
+        assertThat(meterRegistry.get("customer.api.errors")
+                .tag("exception", "CustomerNotFoundException")
+                .tag("status", "404")
+                .counter()
+                .count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void getCustomers_ShouldReturnFirstPageWithNextCursor() throws Exception {
         // Given
         List<Customer> customers = List.of(
                 Customer.builder().id(1L).name("John Doe").email("john@example.com").build(),
@@ -139,23 +272,110 @@ class CustomerControllerTest {
                 new CustomerResponse(1L, "John Doe", "john@example.com"),
                 new CustomerResponse(2L, "Jane Doe", "jane@example.com"));
 
-        when(customerService.getAllCustomers()).thenReturn(customers);
+        when(customerService.getCustomersPage(null, 2)).thenReturn(new CustomerPage(customers, 2L));
         when(customerMapper.toResponseList(customers)).thenReturn(expectedResponses);
 
         // When/Then
-        mockMvc.perform(get("/customers"))
+        mockMvc.perform(get("/customers").param("size", "2"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].name").value("John Doe"))
-                .andExpect(jsonPath("$[0].email").value("john@example.com"))
-                .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].name").value("Jane Doe"))
-                .andExpect(jsonPath("$[1].email").value("jane@example.com"));
-
-        verify(customerService).getAllCustomers();
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("John Doe"))
+                .andExpect(jsonPath("$.content[0].email").value("john@example.com"))
+                .andExpect(jsonPath("$.content[1].id").value(2))
+                .andExpect(jsonPath("$.content[1].name").value("Jane Doe"))
+                .andExpect(jsonPath("$.content[1].email").value("jane@example.com"))
+                .andExpect(jsonPath("$.nextCursor").value(CursorCodec.encode(2L)));
+
+        verify(customerService).getCustomersPage(null, 2);
         verify(customerMapper).toResponseList(customers);
     }
 
+    @Test
+    void getCustomers_ShouldContinueFromCursor_AndOmitNextCursorOnLastPage() throws Exception {
+        // Given
+        List<Customer> customers = List.of(
+                Customer.builder().id(3L).name("Jim Doe").email("jim@example.com").build());
+        List<CustomerResponse> expectedResponses = List.of(
+                new CustomerResponse(3L, "Jim Doe", "jim@example.com"));
+
+        when(customerService.getCustomersPage(2L, 50)).thenReturn(new CustomerPage(customers, null));
+        when(customerMapper.toResponseList(customers)).thenReturn(expectedResponses);
+
+        // When/Then
+        mockMvc.perform(get("/customers").param("cursor", CursorCodec.encode(2L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(3))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(customerService).getCustomersPage(2L, 50);
+    }
+
+    @Test
+    void getCustomers_ShouldReturnBadRequest_WhenCursorIsInvalid() throws Exception {
+        // When/Then
+        mockMvc.perform(get("/customers").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verify(customerService, never()).getCustomersPage(any(), anyInt());
+    }
+
+    @Test
+    void getCustomersByIds_ShouldReturnFoundCustomersAndMissingIds() throws Exception {
+        // Given
+        List<Customer> customers = List.of(Customer.builder().id(1L).name("John Doe").email("john@example.com").build());
+        List<CustomerResponse> responses = List.of(new CustomerResponse(1L, "John Doe", "john@example.com"));
+
+        when(customerService.getCustomersByIds(List.of(1L, 2L))).thenReturn(new CustomerLookupResult(customers, List.of(2L)));
+        when(customerMapper.toResponseList(customers)).thenReturn(responses);
+
+        // When/Then
+        mockMvc.perform(get("/customers").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.notFound[0]").value(2));
+
+        verify(customerService).getCustomersByIds(List.of(1L, 2L));
+        verify(customerService, never()).getCustomersPage(any(), anyInt());
+    }
+
+    @Test
+    void getCustomersByIds_ShouldReturnBadRequest_WhenAnIdIsNotNumeric() throws Exception {
+        // When/Then
+        mockMvc.perform(get("/customers").param("ids", "1,abc"))
+                .andExpect(status().isBadRequest());
+
+        verify(customerService, never()).getCustomersByIds(any());
+    }
+
+    @Test
+    void exportCustomers_ShouldStreamOneJsonDocumentPerLine() throws Exception {
+        // Given
+        Customer john = Customer.builder().id(1L).name("John Doe").email("john@example.com").build();
+        Customer jane = Customer.builder().id(2L).name("Jane Doe").email("jane@example.com").build();
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(0);
+            consumer.accept(john);
+            consumer.accept(jane);
+            return null;
+        }).when(customerService).exportCustomers(any());
+        when(customerMapper.toResponse(john)).thenReturn(new CustomerResponse(1L, "John Doe", "john@example.com"));
+        when(customerMapper.toResponse(jane)).thenReturn(new CustomerResponse(2L, "Jane Doe", "jane@example.com"));
+
+        // When
+        MvcResult mvcResult = mockMvc.perform(get("/customers/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvcResult.getAsyncResult();
+
+        // Then
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], CustomerResponse.class).getId()).isEqualTo(1L);
+        assertThat(objectMapper.readValue(lines[1], CustomerResponse.class).getName()).isEqualTo("Jane Doe");
+        assertThat(mvcResult.getResponse().getContentType()).startsWith(MediaType.APPLICATION_NDJSON_VALUE);
+        verify(customerService).exportCustomers(any());
+    }
+
     @Test
     void deleteCustomer_ShouldReturnNoContent_WhenCustomerExists() throws Exception {
         // Given
@@ -182,6 +402,22 @@ class CustomerControllerTest {
         verify(customerService).deleteCustomer(customerId);
     }
 
+    @Test
+    void deleteCustomers_ShouldReturnDeletedAndMissingIds() throws Exception {
+        // Given
+        when(customerService.deleteCustomers(List.of(1L, 2L)))
+                .thenReturn(new CustomerDeletionResult(List.of(1L), List.of(2L)));
+
+        // When/Then
+        mockMvc.perform(delete("/customers").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted[0]").value(1))
+                .andExpect(jsonPath("$.notFound[0]").value(2));
+
+        verify(customerService).deleteCustomers(List.of(1L, 2L));
+        verify(customerService, never()).deleteCustomer(any());
+    }
+
     @Test
     void updateCustomer_ShouldReturnUpdatedCustomer_WhenCustomerExists() throws Exception {
         // Given
@@ -251,4 +487,474 @@ class CustomerControllerTest {
         verify(customerService).updateCustomer(customerId, customerToUpdate);
         verify(customerMapper, never()).toResponse(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateCustomer_ShouldPassIfMatchVersion() throws Exception {
+        // Given
+        Long customerId = 1L;
+        CustomerRequest request = new CustomerRequest("John Updated", "john.updated@example.com");
+        Customer customerToUpdate = Customer.builder().name("John Updated").email("john.updated@example.com").build();
+        Customer updatedCustomer = Customer.builder()
+                .id(customerId)
+                .name("John Updated")
+                .email("john.updated@example.com")
+                .version(3L)
+                .build();
+
+        when(customerMapper.toDomain(request)).thenReturn(customerToUpdate);
+        when(customerService.updateCustomer(customerId, customerToUpdate)).thenReturn(updatedCustomer);
+        when(customerMapper.toResponse(updatedCustomer))
+                .thenReturn(new CustomerResponse(customerId, "John Updated", "john.updated@example.com"));
+
+        // When/Then
+        mockMvc.perform(put("/customers/{id}", customerId)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+        assertThat(customerToUpdate.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnPreconditionFailed_WhenVersionIsStale() throws Exception {
+        // Given
+        Long customerId = 1L;
+        CustomerRequest request = new CustomerRequest("John Updated", "john.updated@example.com");
+        Customer customerToUpdate = Customer.builder().name("John Updated").email("john.updated@example.com").build();
+
+        when(customerMapper.toDomain(request)).thenReturn(customerToUpdate);
+        when(customerService.updateCustomer(customerId, customerToUpdate))
+                .thenThrow(new CustomerVersionConflictException(customerId, 2L));
+
+        // When/Then
+        mockMvc.perform(put("/customers/{id}", customerId)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(customerMapper, never()).toResponse(any());
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnBadRequest_WhenIfMatchIsMalformed() throws Exception {
+        // Given
+        CustomerRequest request = new CustomerRequest("John Updated", "john.updated@example.com");
+        when(customerMapper.toDomain(request)).thenReturn(Customer.builder().build());
+
+        // When/Then
+        mockMvc.perform(put("/customers/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "not-an-etag")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(customerService, never()).updateCustomer(any(), any());
+    }
+
+    @Test
+    void patchCustomer_ShouldReturnPatchedCustomer() throws Exception {
+        // Given
+        Long customerId = 1L;
+        CustomerRequest request = new CustomerRequest();
+        request.setEmail("john.new@example.com");
+
+        Customer changes = Customer.builder().email("john.new@example.com").build();
+        Customer patchedCustomer = Customer.builder()
+                .id(customerId)
+                .name("John Doe")
+                .email("john.new@example.com")
+                .build();
+
+        when(customerMapper.toDomain(request)).thenReturn(changes);
+        when(customerService.patchCustomer(customerId, changes)).thenReturn(patchedCustomer);
+        when(customerMapper.toResponse(patchedCustomer))
+                .thenReturn(new CustomerResponse(customerId, "John Doe", "john.new@example.com"));
+
+        // When/Then
+        mockMvc.perform(patch("/customers/{id}", customerId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("John Doe"))
+                .andExpect(jsonPath("$.email").value("john.new@example.com"));
+
+        verify(customerService).patchCustomer(customerId, changes);
+    }
+
+    @Test
+    void getCustomerByEmail_ShouldReturnCustomerWithETag() throws Exception {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").email("john@example.com").version(4L).build();
+        when(customerService.getCustomerByEmail("john@example.com")).thenReturn(customer);
+        when(customerMapper.toResponse(customer)).thenReturn(new CustomerResponse(1L, "John Doe", "john@example.com"));
+
+        // When/Then
+        mockMvc.perform(get("/customers").param("email", "john@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.id").value(1L));
+
+        verify(customerService, never()).getCustomersPage(any(), anyInt());
+    }
+
+    @Test
+    void upsertCustomerByEmail_ShouldReturnCreated_WhenCustomerIsNew() throws Exception {
+        // Given
+        CustomerRequest request = new CustomerRequest();
+        request.setName("John Doe");
+        request.setEmail("john@example.com");
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        Customer inserted = customer.toBuilder().id(1L).version(0L).build();
+
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.upsertCustomerByEmail(customer)).thenReturn(inserted);
+        when(customerMapper.toResponse(inserted)).thenReturn(new CustomerResponse(1L, "John Doe", "john@example.com"));
+
+        // When/Then
+        mockMvc.perform(put("/customers/by-email")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+
+    @Test
+    void upsertCustomerByEmail_ShouldReturnOk_WhenCustomerExisted() throws Exception {
+        // Given
+        CustomerRequest request = new CustomerRequest();
+        request.setName("John Updated");
+        request.setEmail("john@example.com");
+        Customer customer = Customer.builder().name("John Updated").email("john@example.com").build();
+        Customer updated = customer.toBuilder().id(1L).version(3L).build();
+
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.upsertCustomerByEmail(customer)).thenReturn(updated);
+        when(customerMapper.toResponse(updated)).thenReturn(new CustomerResponse(1L, "John Updated", "john@example.com"));
+
+        // When/Then
+        mockMvc.perform(put("/customers/by-email")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.name").value("John Updated"));
+    }
+
+    @Test
+    void createCustomer_ShouldReturnConflict_WhenEmailIsTaken() throws Exception {
+        // Given
+        CustomerRequest request = new CustomerRequest();
+        request.setName("John Doe");
+        request.setEmail("john@example.com");
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.createCustomer(customer)).thenThrow(new CustomerEmailAlreadyExistsException());
+
+        // When/Then
+        mockMvc.perform(post("/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("El email ya está registrado"));
+    }
+
+    @Test
+    void createCustomer_ShouldReturnInternalError_WhenOtherConstraintIsViolated() throws Exception {
+        // Given
+        CustomerRequest request = new CustomerRequest("John Doe", "john@example.com");
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.createCustomer(customer))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement", new SQLException(
+                        "ERROR: null value in column \"name\" violates not-null constraint", "23502")));
+
+        // When/Then
+        mockMvc.perform(post("/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void searchCustomers_ShouldReturnMatches() throws Exception {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").email("john@example.com").build();
+        when(customerService.searchCustomers("john", 5)).thenReturn(List.of(customer));
+        when(customerMapper.toResponseList(List.of(customer)))
+                .thenReturn(List.of(new CustomerResponse(1L, "John Doe", "john@example.com")));
+
+        // When/Then
+        mockMvc.perform(get("/customers/search").param("q", "john").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("John Doe"));
+    }
+
+    @Test
+    void searchCustomers_ShouldReturnServiceUnavailable_WhileTheIndexLoads() throws Exception {
+        // Given
+        when(customerService.searchCustomers("john", 10)).thenThrow(new CustomerSearchUnavailableException());
+
+        // When/Then
+        mockMvc.perform(get("/customers/search").param("q", "john"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+    }
+
+    @Test
+    void createCustomerAsync_ShouldReturnAcceptedWithTrackingLocation() throws Exception {
+        // Given
+        CustomerRequest request = new CustomerRequest("John Doe", "john@example.com");
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        CustomerCreation creation = CustomerCreation.pending("abc");
+
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.createCustomerAsync(customer, false)).thenReturn(creation);
+        when(customerMapper.toCreationResponse(creation))
+                .thenReturn(CustomerCreationResponse.builder().trackingId("abc").status("PENDING").build());
+
+        // When/Then
+        mockMvc.perform(post("/customers/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/customers/creations/abc"))
+                .andExpect(jsonPath("$.trackingId").value("abc"));
+    }
+
+    @Test
+    void createCustomerAsync_ShouldReturnCreated_WhenFlushAcknowledged() throws Exception {
+        // Given
+        CustomerRequest request = new CustomerRequest("John Doe", "john@example.com");
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        CustomerCreation creation = CustomerCreation.created("abc", customer.toBuilder().id(7L).version(0L).build());
+
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.createCustomerAsync(customer, true)).thenReturn(creation);
+        when(customerMapper.toCreationResponse(creation))
+                .thenReturn(CustomerCreationResponse.builder().trackingId("abc").status("CREATED").build());
+
+        // When/Then
+        mockMvc.perform(post("/customers/async").param("ack", "flush")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/customers/7"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+
+    @Test
+    void createCustomerAsync_ShouldReturnServiceUnavailable_WhenQueueIsFull() throws Exception {
+        // Given
+        CustomerRequest request = new CustomerRequest("John Doe", "john@example.com");
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.createCustomerAsync(customer, false)).thenThrow(new CustomerQueueFullException(10));
+
+        // When/Then
+        mockMvc.perform(post("/customers/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void createCustomerAsync_ShouldReturnBadRequest_WhenAckModeIsUnknown() throws Exception {
+        // When/Then
+        mockMvc.perform(post("/customers/async").param("ack", "never")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CustomerRequest("John Doe", "john@example.com"))))
+                .andExpect(status().isBadRequest());
+
+        verify(customerService, never()).createCustomerAsync(any(), anyBoolean());
+    }
+
+    @Test
+    void getCustomerCreation_ShouldReturnNotFound_WhenTrackingIdIsUnknown() throws Exception {
+        // Given
+        when(customerService.getCustomerCreation("unknown")).thenThrow(new CustomerCreationNotFoundException("unknown"));
+
+        // When/Then
+        mockMvc.perform(get("/customers/creations/{trackingId}", "unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getCustomerById_ShouldServeEncodedBody_WhileVersionIsUnchanged() throws Exception {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").email("john.doe@example.com").version(2L).build();
+        when(customerService.getCustomerById(1L)).thenReturn(customer);
+        when(customerMapper.toResponse(customer))
+                .thenReturn(new CustomerResponse(1L, "John Doe", "john.doe@example.com"));
+        MockMvc cachedMockMvc = standaloneSetup(cachedController(1_024)).build();
+
+        // When/Then
+        for (int i = 0; i < 2; i++) {
+            cachedMockMvc.perform(get("/customers/{id}", 1L))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.name").value("John Doe"));
+        }
+
+        verify(customerMapper, times(1)).toResponse(customer);
+    }
+
+    @Test
+    void getCustomers_ShouldServeGzippedPage_WhenClientAcceptsIt() throws Exception {
+        // Given
+        List<Customer> customers = List.of(Customer.builder().id(1L).name("John Doe").email("john@example.com").build());
+        when(customerService.getMaxPageSize()).thenReturn(500);
+        when(customerService.getCustomersPage(null, 50)).thenReturn(new CustomerPage(customers, null));
+        when(customerMapper.toResponseList(customers))
+                .thenReturn(List.of(new CustomerResponse(1L, "John Doe", "john@example.com")));
+        EncodedResponseCache responseCache = responseCache(0);
+        MockMvc cachedMockMvc = standaloneSetup(
+                new CustomerController(customerService, customerMapper, objectMapper, responseCache)).build();
+
+        // When/Then
+        cachedMockMvc.perform(get("/customers").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"));
+        cachedMockMvc.perform(get("/customers"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.content[0].name").value("John Doe"));
+        responseCache.onChange(CustomerChange.builder().type(CustomerChange.Type.CREATED).customerId(2L).build());
+        cachedMockMvc.perform(get("/customers"))
+                .andExpect(status().isOk());
+
+        verify(customerService, times(2)).getCustomersPage(null, 50);
+    }
+
+    @Test
+    void getCustomerById_ShouldSkipEncodedBody_WhenClientNegotiatesAnotherFormat() throws Exception {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").email("john.doe@example.com").version(0L).build();
+        when(customerService.getCustomerById(1L)).thenReturn(customer);
+        when(customerMapper.toResponse(customer))
+                .thenReturn(new CustomerResponse(1L, "John Doe", "john.doe@example.com"));
+        MockMvc cachedMockMvc = standaloneSetup(cachedController(1_024)).build();
+
+        // When/Then
+        cachedMockMvc.perform(get("/customers/{id}", 1L).accept(MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        cachedMockMvc.perform(get("/customers/{id}", 1L))
+                .andExpect(status().isOk());
+
+        verify(customerMapper, times(2)).toResponse(customer);
+    }
+
+    @Test
+    void getCustomerById_ShouldTagGzippedBodyApart_FromIdentityBody() throws Exception {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").email("john.doe@example.com").version(2L).build();
+        when(customerService.getCustomerById(1L)).thenReturn(customer);
+        when(customerMapper.toResponse(customer))
+                .thenReturn(new CustomerResponse(1L, "John Doe", "john.doe@example.com"));
+        MockMvc cachedMockMvc = standaloneSetup(cachedController(0)).build();
+
+        // When/Then
+        cachedMockMvc.perform(get("/customers/{id}", 1L).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-gzip\""))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"));
+        cachedMockMvc.perform(get("/customers/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+        cachedMockMvc.perform(get("/customers/{id}", 1L)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2-gzip\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"));
+        cachedMockMvc.perform(get("/customers/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"2-gzip\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getCustomerById_ShouldServeIdentityBody_WhenGzipHasZeroQuality() throws Exception {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").email("john.doe@example.com").version(0L).build();
+        when(customerService.getCustomerById(1L)).thenReturn(customer);
+        when(customerMapper.toResponse(customer))
+                .thenReturn(new CustomerResponse(1L, "John Doe", "john.doe@example.com"));
+        MockMvc cachedMockMvc = standaloneSetup(cachedController(0)).build();
+
+        // When/Then
+        cachedMockMvc.perform(get("/customers/{id}", 1L).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.name").value("John Doe"));
+    }
+
+    @Test
+    void acceptsGzip_ShouldHonourQualityValues() {
+        assertThat(CustomerController.acceptsGzip("gzip, deflate")).isTrue();
+        assertThat(CustomerController.acceptsGzip("deflate, gzip;q=0.5")).isTrue();
+        assertThat(CustomerController.acceptsGzip("*")).isTrue();
+        assertThat(CustomerController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(CustomerController.acceptsGzip("GZIP; Q=0.0, *;q=1")).isFalse();
+        assertThat(CustomerController.acceptsGzip("*;q=0")).isFalse();
+        assertThat(CustomerController.acceptsGzip("deflate, br")).isFalse();
+        assertThat(CustomerController.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    void getCustomers_ShouldShareCachedPage_ForSizesAboveTheMaximum() throws Exception {
+        // Given
+        List<Customer> customers = List.of(Customer.builder().id(1L).name("John Doe").email("john@example.com").build());
+        when(customerService.getMaxPageSize()).thenReturn(500);
+        when(customerService.getCustomersPage(null, 500)).thenReturn(new CustomerPage(customers, null));
+        when(customerMapper.toResponseList(customers))
+                .thenReturn(List.of(new CustomerResponse(1L, "John Doe", "john@example.com")));
+        MockMvc cachedMockMvc = standaloneSetup(cachedController(1_024)).build();
+
+        // When/Then
+        cachedMockMvc.perform(get("/customers").param("size", "1000"))
+                .andExpect(status().isOk());
+        cachedMockMvc.perform(get("/customers").param("size", "2000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("John Doe"));
+
+        verify(customerService, times(1)).getCustomersPage(null, 500);
+    }
+
+    @Test
+    void updateCustomer_ShouldAcceptGzipETag_InIfMatch() throws Exception {
+        // Given
+        CustomerRequest request = new CustomerRequest("John Doe", "john@example.com");
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        Customer updated = Customer.builder().id(1L).name("John Doe").email("john@example.com").version(4L).build();
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.updateCustomer(1L, customer)).thenReturn(updated);
+        when(customerMapper.toResponse(updated)).thenReturn(new CustomerResponse(1L, "John Doe", "john@example.com"));
+
+        // When/Then
+        mockMvc.perform(put("/customers/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"3-gzip\"")
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+        assertThat(customer.getVersion()).isEqualTo(3L);
+    }
+
+    private CustomerController cachedController(int gzipMinSize) {
+        return new CustomerController(customerService, customerMapper, objectMapper, responseCache(gzipMinSize));
+    }
+
+    private static EncodedResponseCache responseCache(int gzipMinSize) {
+        return new EncodedResponseCache(Caffeine.newBuilder().maximumSize(100).build(),
+                Caffeine.newBuilder().maximumSize(100).build(), gzipMinSize);
+    }
+}
@@ -0,0 +1,120 @@
+package com.jgonzal.retail.adapters.input.rest.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerChange;
+
+class EncodedResponseCacheTest {
+
+    private EncodedResponseCache responseCache;
+    private AtomicInteger encodings;
+
+    @BeforeEach
+    void setUp() {
+        responseCache = new EncodedResponseCache(
+                Caffeine.newBuilder().maximumSize(100).build(),
+                Caffeine.newBuilder().maximumSize(100).build(),
+                64);
+        encodings = new AtomicInteger();
+    }
+
+    @Test
+    void customer_ShouldReuseBody_WhileVersionIsUnchanged() {
+        // Given
+        Customer customer = customer(1L, 3L);
+
+        // When
+        var first = responseCache.customer(customer, encoder("{\"id\":1}"));
+        var second = responseCache.customer(customer(1L, 3L), encoder("{\"id\":1}"));
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(encodings).hasValue(1);
+    }
+
+    @Test
+    void customer_ShouldEncodeAgain_WhenVersionChanges() {
+        // Given
+        responseCache.customer(customer(1L, 3L), encoder("{\"version\":3}"));
+
+        // When
+        var body = responseCache.customer(customer(1L, 4L), encoder("{\"version\":4}"));
+
+        // Then
+        assertThat(new String(body.getIdentity(), StandardCharsets.UTF_8)).isEqualTo("{\"version\":4}");
+        assertThat(body.getVersion()).isEqualTo(4L);
+        assertThat(encodings).hasValue(2);
+    }
+
+    @Test
+    void customer_ShouldKeepGzippedCopy_OnlyForLargeBodies() throws IOException {
+        // Given
+        String large = "{\"name\":\"" + "x".repeat(200) + "\"}";
+
+        // When
+        var small = responseCache.customer(customer(1L, 0L), encoder("{\"id\":1}"));
+        var compressed = responseCache.customer(customer(2L, 0L), encoder(large));
+
+        // Then
+        assertThat(small.getGzipped()).isNull();
+        assertThat(compressed.getGzipped()).hasSizeLessThan(compressed.getIdentity().length);
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(compressed.getGzipped()))) {
+            assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(large);
+        }
+    }
+
+    @Test
+    void page_ShouldReuseBody_UntilAChangeIsPublished() {
+        // Given
+        var first = responseCache.page(null, 50, encoder("[]"));
+        var reused = responseCache.page(null, 50, encoder("[]"));
+
+        // When
+        responseCache.onChange(CustomerChange.builder().type(CustomerChange.Type.UPDATED).customerId(7L).build());
+        var rebuilt = responseCache.page(null, 50, encoder("[]"));
+
+        // Then
+        assertThat(reused).isSameAs(first);
+        assertThat(rebuilt).isNotSameAs(first);
+        assertThat(encodings).hasValue(2);
+    }
+
+    @Test
+    void page_ShouldNotServeBodyBuiltWhileAChangeWasPublished() {
+        // Given
+        responseCache.page("abc", 10, () -> {
+            // A write lands between reading the page and caching its body
+            responseCache.onChange(CustomerChange.builder().type(CustomerChange.Type.DELETED).customerId(1L).build());
+            return encoder("[]").get();
+        });
+
+        // When
+        responseCache.page("abc", 10, encoder("[]"));
+
+        // Then
+        assertThat(encodings).hasValue(2);
+    }
+
+    private Supplier<byte[]> encoder(String json) {
+        return () -> {
+            encodings.incrementAndGet();
+            return json.getBytes(StandardCharsets.UTF_8);
+        };
+    }
+
+    private static Customer customer(Long id, Long version) {
+        return Customer.builder().id(id).name("John Doe").email("john@example.com").version(version).build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.jgonzal.retail.adapters.input.rest.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jgonzal.retail.adapters.input.rest.CustomerController;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerResponse;
+import com.jgonzal.retail.adapters.input.rest.exception.GlobalExceptionHandler;
+import com.jgonzal.retail.adapters.input.rest.mapper.CustomerRestMapper;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.input.CustomerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitInterceptorTest {
+
+    @Mock
+    private CustomerService customerService;
+
+    @Mock
+    private CustomerRestMapper customerMapper;
+
+    private GradientConcurrencyLimiter readLimiter;
+    private GradientConcurrencyLimiter writeLimiter;
+    private SimpleMeterRegistry meterRegistry;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        readLimiter = new GradientConcurrencyLimiter(1, 1, 1);
+        writeLimiter = new GradientConcurrencyLimiter(1, 1, 1);
+        meterRegistry = new SimpleMeterRegistry();
+        mockMvc = standaloneSetup(new CustomerController(customerService, customerMapper, new ObjectMapper(), null))
+                .addInterceptors(new ConcurrencyLimitInterceptor(readLimiter, writeLimiter, 2))
+                .setControllerAdvice(new GlobalExceptionHandler(meterRegistry))
+                .build();
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnServiceUnavailable_WhenReadLimitIsReached() throws Exception {
+        // Given
+        readLimiter.tryAcquire();
+
+        // When/Then
+        mockMvc.perform(get("/customers/{id}", 1L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.message")
+                        .value("Servicio saturado: hay 1 peticiones de lectura en curso; inténtelo más tarde"));
+
+        verify(customerService, never()).getCustomerById(any());
+        assertThat(meterRegistry.get("customer.api.errors")
+                .tag("exception", "ConcurrencyLimitExceededException")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void deleteCustomer_ShouldBeAdmitted_WhileOnlyReadsAreSaturated() throws Exception {
+        // Given
+        readLimiter.tryAcquire();
+
+        // When/Then
+        mockMvc.perform(delete("/customers/{id}", 1L))
+                .andExpect(status().isNoContent());
+
+        verify(customerService).deleteCustomer(1L);
+        assertThat(writeLimiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void getCustomerById_ShouldReleasePermit_WhenRequestCompletes() throws Exception {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").email("john@example.com").version(0L).build();
+        when(customerService.getCustomerById(1L)).thenReturn(customer);
+        when(customerMapper.toResponse(customer)).thenReturn(new CustomerResponse(1L, "John Doe", "john@example.com"));
+
+        // When/Then
+        mockMvc.perform(get("/customers/{id}", 1L)).andExpect(status().isOk());
+        mockMvc.perform(get("/customers/{id}", 1L)).andExpect(status().isOk());
+
+        assertThat(readLimiter.getInFlight()).isZero();
+    }
+}
@@ -0,0 +1,97 @@
+package com.jgonzal.retail.adapters.input.rest.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class GradientConcurrencyLimiterTest {
+
+    @Test
+    void tryAcquire_ShouldRejectRequestsBeyondTheLimit() {
+        // Given
+        var limiter = new GradientConcurrencyLimiter(2, 1, 10);
+
+        // When
+        boolean first = limiter.tryAcquire();
+        boolean second = limiter.tryAcquire();
+        boolean third = limiter.tryAcquire();
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void release_ShouldKeepLimit_WhileLatencyIsSteadyAndLoadIsLow() {
+        // Given
+        var limiter = new GradientConcurrencyLimiter(100, 10, 1_000);
+
+        // When
+        sample(limiter, 200, TimeUnit.MILLISECONDS.toNanos(10));
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(100);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void release_ShouldShrinkLimit_WhenLatencyRises() {
+        // Given
+        var limiter = new GradientConcurrencyLimiter(100, 10, 1_000);
+        sample(limiter, 200, TimeUnit.MILLISECONDS.toNanos(10));
+
+        // When
+        sample(limiter, 20, TimeUnit.MILLISECONDS.toNanos(200));
+
+        // Then
+        assertThat(limiter.getLimit()).isLessThan(100).isGreaterThanOrEqualTo(10);
+    }
+
+    @Test
+    void release_ShouldNotShrinkBelowMinLimit() {
+        // Given
+        var limiter = new GradientConcurrencyLimiter(100, 10, 1_000);
+
+        // When
+        for (int i = 1; i <= 200; i++) {
+            sample(limiter, 1, TimeUnit.MILLISECONDS.toNanos(10L * i));
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void release_ShouldGrowLimit_WhenLoadedAndLatencyIsSteady() {
+        // Given
+        var limiter = new GradientConcurrencyLimiter(10, 1, 100);
+        for (int i = 0; i < 8; i++) {
+            limiter.tryAcquire();
+        }
+
+        // When
+        sample(limiter, 50, TimeUnit.MILLISECONDS.toNanos(10));
+
+        // Then
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+        assertThat(limiter.getInFlight()).isEqualTo(8);
+    }
+
+    @Test
+    void constructor_ShouldRejectInitialLimitOutsideBounds() {
+        assertThatThrownBy(() -> new GradientConcurrencyLimiter(5, 10, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void sample(GradientConcurrencyLimiter limiter, int count, long latencyNanos) {
+        for (int i = 0; i < count; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release(latencyNanos);
+        }
+    }
+}
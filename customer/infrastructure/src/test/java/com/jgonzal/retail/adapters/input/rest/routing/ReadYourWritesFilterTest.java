@@ -0,0 +1,103 @@
+package com.jgonzal.retail.adapters.input.rest.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.jgonzal.retail.adapters.out.persistence.routing.ReadYourWritesWindow;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+class ReadYourWritesFilterTest {
+
+    private ReadYourWritesWindow readYourWritesWindow;
+    private ReadYourWritesFilter filter;
+    private AtomicReference<String> boundClient;
+
+    @BeforeEach
+    void setUp() {
+        readYourWritesWindow = new ReadYourWritesWindow(Duration.ofMinutes(1), 100);
+        filter = new ReadYourWritesFilter(readYourWritesWindow, "X-Client-Id", "customer-client", Duration.ofDays(30));
+        boundClient = new AtomicReference<>("unset");
+    }
+
+    @Test
+    void doFilter_ShouldBindHeader_BeforeCookie() throws Exception {
+        // Given
+        var request = new MockHttpServletRequest("GET", "/customers/1");
+        request.addHeader("X-Client-Id", "client-a");
+        request.setCookies(new Cookie("customer-client", "client-b"));
+
+        // When
+        var response = filter(request);
+
+        // Then
+        assertThat(boundClient.get()).isEqualTo("client-a");
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+        assertThat(readYourWritesWindow.currentClient()).isNull();
+    }
+
+    @Test
+    void doFilter_ShouldBindCookie_WithoutHeader() throws Exception {
+        // Given
+        var request = new MockHttpServletRequest("GET", "/customers/1");
+        request.setCookies(new Cookie("customer-client", "client-b"));
+
+        // When
+        filter(request);
+
+        // Then
+        assertThat(boundClient.get()).isEqualTo("client-b");
+    }
+
+    @Test
+    void doFilter_ShouldLeaveReadsUnbound_WithoutToken() throws Exception {
+        // Given
+        var request = new MockHttpServletRequest("GET", "/customers/1");
+        request.setRemoteAddr("10.0.0.1");
+
+        // When
+        var response = filter(request);
+
+        // Then
+        assertThat(boundClient.get()).isNull();
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+    }
+
+    @Test
+    void doFilter_ShouldIssueCookie_ForWritesWithoutToken() throws Exception {
+        // Given
+        var request = new MockHttpServletRequest("POST", "/customers");
+
+        // When
+        var response = filter(request);
+
+        // Then
+        assertThat(boundClient.get()).isNotBlank();
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE))
+                .startsWith("customer-client=" + boundClient.get())
+                .contains("HttpOnly");
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws Exception {
+        var response = new MockHttpServletResponse();
+        var servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                boundClient.set(readYourWritesWindow.currentClient());
+            }
+        };
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+}
@@ -0,0 +1,96 @@
+package com.jgonzal.retail.adapters.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.jgonzal.retail.exception.CustomerNotFoundException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.input.CustomerService;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class InstrumentedPortTest {
+
+    @Mock
+    private CustomerRepository repository;
+
+    @Mock
+    private CustomerService service;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldTagFoundAndNotFoundFromOptionalResults() {
+        // Given
+        CustomerRepository instrumented = InstrumentedPort.instrument(CustomerRepository.class, repository, meterRegistry);
+        when(repository.findById(1L)).thenReturn(Optional.of(Customer.builder().id(1L).build()));
+        when(repository.findById(2L)).thenReturn(Optional.empty());
+
+        // When
+        instrumented.findById(1L);
+        instrumented.findById(2L);
+
+        // Then
+        assertThat(timer("CustomerRepository", "findById", "found").count()).isEqualTo(1);
+        assertThat(timer("CustomerRepository", "findById", "not_found").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTagNotFoundWhenServiceThrowsCustomerNotFound() {
+        // Given
+        CustomerService instrumented = InstrumentedPort.instrument(CustomerService.class, service, meterRegistry);
+        when(service.getCustomerById(1L)).thenThrow(new CustomerNotFoundException(1L));
+
+        // When/Then
+        assertThatThrownBy(() -> instrumented.getCustomerById(1L)).isInstanceOf(CustomerNotFoundException.class);
+        assertThat(timer("CustomerService", "getCustomerById", "not_found").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTagErrorAndRethrowOriginalException() {
+        // Given
+        CustomerRepository instrumented = InstrumentedPort.instrument(CustomerRepository.class, repository, meterRegistry);
+        when(repository.findAll()).thenThrow(new IllegalStateException("boom"));
+
+        // When/Then
+        assertThatThrownBy(instrumented::findAll).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+        assertThat(timer("CustomerRepository", "findAll", "error").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTagBooleanResults() {
+        // Given
+        CustomerRepository instrumented = InstrumentedPort.instrument(CustomerRepository.class, repository, meterRegistry);
+        when(repository.deleteById(1L)).thenReturn(Optional.empty());
+
+        // When
+        instrumented.deleteById(1L);
+
+        // Then
+        assertThat(timer("CustomerRepository", "deleteById", "not_found").count()).isEqualTo(1);
+    }
+
+    private Timer timer(String port, String method, String outcome) {
+        return meterRegistry.get(InstrumentedPort.METRIC_NAME)
+                .tag("port", port)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
@@ -0,0 +1,238 @@
+package com.jgonzal.retail.adapters.out.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CachingCustomerRepositoryTest {
+
+    @Mock
+    private CustomerRepository delegate;
+
+    private Cache<Long, Customer> cache;
+    private CachingCustomerRepository cachingRepository;
+
+    @BeforeEach
+    void setUp() {
+        cache = Caffeine.newBuilder().maximumSize(100).recordStats().build();
+        cachingRepository = new CachingCustomerRepository(delegate, cache);
+    }
+
+    @Test
+    void findById_ShouldHitDelegateOnlyOnce_WhenCalledRepeatedly() {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").email("john@example.com").build();
+        when(delegate.findById(1L)).thenReturn(Optional.of(customer));
+
+        // When
+        Optional<Customer> first = cachingRepository.findById(1L);
+        Optional<Customer> second = cachingRepository.findById(1L);
+
+        // Then
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(second.get().getName()).isEqualTo("John Doe");
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+        verify(delegate, times(1)).findById(1L);
+    }
+
+    @Test
+    void findById_ShouldNotCacheMissingCustomers() {
+        // Given
+        when(delegate.findById(1L)).thenReturn(Optional.empty());
+
+        // When
+        Optional<Customer> first = cachingRepository.findById(1L);
+        Optional<Customer> second = cachingRepository.findById(1L);
+
+        // Then
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        verify(delegate, times(2)).findById(1L);
+    }
+
+    @Test
+    void findById_ShouldReturnCopies_SoCallersCannotCorruptTheCache() {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").email("john@example.com").build();
+        when(delegate.findById(1L)).thenReturn(Optional.of(customer));
+
+        // When
+        cachingRepository.findById(1L).get().setName("Mutated");
+
+        // Then
+        assertThat(cachingRepository.findById(1L).get().getName()).isEqualTo("John Doe");
+    }
+
+    @Test
+    void findById_ShouldKeepValueWrittenWhileLoading() {
+        // Given
+        Customer stale = Customer.builder().id(1L).name("John Doe").version(1L).build();
+        when(delegate.findById(1L)).thenAnswer(invocation -> {
+            cache.put(1L, Customer.builder().id(1L).name("John Updated").version(2L).build());
+            return Optional.of(stale);
+        });
+
+        // When
+        cachingRepository.findById(1L);
+
+        // Then
+        assertThat(cache.getIfPresent(1L).getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    void findById_ShouldNotCacheStaleRead_WhenDeleteLandsWhileLoading() throws Exception {
+        // Given
+        Customer stale = Customer.builder().id(1L).name("John Doe").version(1L).build();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch deleted = new CountDownLatch(1);
+        when(delegate.findById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            deleted.await(5, TimeUnit.SECONDS);
+            return Optional.of(stale);
+        });
+        when(delegate.deleteById(1L)).thenReturn(Optional.of(stale));
+
+        // When
+        CompletableFuture<Optional<Customer>> read = CompletableFuture.supplyAsync(() -> cachingRepository.findById(1L));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        cachingRepository.deleteById(1L);
+        deleted.countDown();
+        read.get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(cache.getIfPresent(1L)).isNull();
+    }
+
+    @Test
+    void findAllById_ShouldNotCacheStaleRead_WhenDeleteLandsWhileLoading() {
+        // Given
+        Customer stale = Customer.builder().id(1L).name("John Doe").version(1L).build();
+        when(delegate.findAllById(List.of(1L))).thenAnswer(invocation -> {
+            cachingRepository.deleteById(1L);
+            return List.of(stale);
+        });
+
+        // When
+        List<Customer> result = cachingRepository.findAllById(List.of(1L));
+
+        // Then
+        assertThat(result).hasSize(1);
+        assertThat(cache.getIfPresent(1L)).isNull();
+    }
+
+    @Test
+    void findAllById_ShouldOnlyLoadIdsThatAreNotCached() {
+        // Given
+        cache.put(1L, Customer.builder().id(1L).name("John Doe").build());
+        Customer jane = Customer.builder().id(2L).name("Jane Doe").build();
+        when(delegate.findAllById(List.of(2L))).thenReturn(List.of(jane));
+
+        // When
+        List<Customer> result = cachingRepository.findAllById(List.of(1L, 2L));
+
+        // Then
+        assertThat(result).extracting(Customer::getId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(cache.getIfPresent(2L)).isNotNull();
+        verify(delegate).findAllById(List.of(2L));
+    }
+
+    @Test
+    void save_ShouldPopulateCache() {
+        // Given
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        Customer saved = Customer.builder().id(1L).name("John Doe").email("john@example.com").build();
+        when(delegate.save(customer)).thenReturn(saved);
+
+        // When
+        cachingRepository.save(customer);
+        Optional<Customer> result = cachingRepository.findById(1L);
+
+        // Then
+        assertThat(result).isPresent();
+        verify(delegate, times(0)).findById(1L);
+    }
+
+    @Test
+    void update_ShouldRefreshCachedEntry() {
+        // Given
+        cache.put(1L, Customer.builder().id(1L).name("Old").email("old@example.com").build());
+        Customer changes = Customer.builder().id(1L).name("New").email("new@example.com").build();
+        when(delegate.update(changes)).thenReturn(Optional.of(changes));
+
+        // When
+        cachingRepository.update(changes);
+
+        // Then
+        assertThat(cachingRepository.findById(1L).get().getName()).isEqualTo("New");
+        verify(delegate, times(0)).findById(1L);
+    }
+
+    @Test
+    void deleteById_ShouldInvalidateCachedEntry() {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").build();
+        cache.put(1L, customer);
+        when(delegate.deleteById(1L)).thenReturn(Optional.of(customer));
+
+        // When
+        Optional<Customer> deleted = cachingRepository.deleteById(1L);
+
+        // Then
+        assertThat(deleted).contains(customer);
+        assertThat(cache.getIfPresent(1L)).isNull();
+    }
+
+    @Test
+    void deleteAllById_ShouldInvalidateEveryRequestedId() {
+        // Given
+        Customer first = Customer.builder().id(1L).build();
+        Customer second = Customer.builder().id(2L).build();
+        cache.put(1L, first);
+        cache.put(2L, second);
+        when(delegate.deleteAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+        // When
+        cachingRepository.deleteAllById(List.of(1L, 2L));
+
+        // Then
+        assertThat(cache.getIfPresent(1L)).isNull();
+        assertThat(cache.getIfPresent(2L)).isNull();
+    }
+
+    @Test
+    void upsertByEmail_ShouldCacheUpsertedCustomer() {
+        // Given
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        Customer upserted = Customer.builder().id(1L).name("John Doe").email("john@example.com").version(2L).build();
+        cache.put(1L, Customer.builder().id(1L).name("Old Name").version(1L).build());
+        when(delegate.upsertByEmail(customer)).thenReturn(upserted);
+
+        // When
+        cachingRepository.upsertByEmail(customer);
+
+        // Then
+        assertThat(cache.getIfPresent(1L).getName()).isEqualTo("John Doe");
+        assertThat(cache.getIfPresent(1L).getVersion()).isEqualTo(2L);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.jgonzal.retail.adapters.out.changes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerChange;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ChangePublishingCustomerRepositoryTest {
+
+    @Mock
+    private CustomerRepository delegate;
+
+    private CustomerChangeRing changeRing;
+    private ChangePublishingCustomerRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        changeRing = new CustomerChangeRing(16);
+        repository = new ChangePublishingCustomerRepository(delegate, changeRing);
+    }
+
+    @Test
+    void writes_ShouldPublishChangesInOrder() {
+        // Given
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        Customer saved = customer.toBuilder().id(1L).version(0L).build();
+        Customer updated = saved.toBuilder().name("John Updated").version(1L).build();
+        when(delegate.save(customer)).thenReturn(saved);
+        when(delegate.update(updated)).thenReturn(Optional.of(updated));
+        when(delegate.deleteById(1L)).thenReturn(Optional.of(updated));
+
+        // When
+        repository.save(customer);
+        repository.update(updated);
+        repository.deleteById(1L);
+
+        // Then
+        assertThat(changeRing.readSince(0L, 10).getChanges())
+                .extracting(CustomerChange::getType, CustomerChange::getCustomerId, CustomerChange::getVersion)
+                .containsExactly(
+                        tuple(CustomerChange.Type.CREATED, 1L, 0L),
+                        tuple(CustomerChange.Type.UPDATED, 1L, 1L),
+                        tuple(CustomerChange.Type.DELETED, 1L, 2L));
+    }
+
+    @Test
+    void writes_ShouldNotPublish_WhenNothingChanged() {
+        // Given
+        Customer stale = Customer.builder().id(1L).name("John Doe").email("john@example.com").version(0L).build();
+        when(delegate.update(stale)).thenReturn(Optional.empty());
+        when(delegate.deleteById(2L)).thenReturn(Optional.empty());
+        when(delegate.deleteAllById(List.of(3L))).thenReturn(List.of());
+
+        // When
+        repository.update(stale);
+        repository.deleteById(2L);
+        repository.deleteAllById(List.of(3L));
+
+        // Then
+        assertThat(changeRing.readSince(0L, 10).getChanges()).isEmpty();
+    }
+
+    @Test
+    void upsertByEmail_ShouldPublishCreated_OnlyForInitialVersion() {
+        // Given
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        when(delegate.upsertByEmail(customer)).thenReturn(
+                customer.toBuilder().id(1L).version(0L).build(),
+                customer.toBuilder().id(1L).version(1L).build());
+
+        // When
+        repository.upsertByEmail(customer);
+        repository.upsertByEmail(customer);
+
+        // Then
+        assertThat(changeRing.readSince(0L, 10).getChanges()).extracting(CustomerChange::getType)
+                .containsExactly(CustomerChange.Type.CREATED, CustomerChange.Type.UPDATED);
+    }
+
+    @Test
+    void deleteAllById_ShouldPublishDeletionPastLastVersion_OfEachRemovedCustomer() {
+        // Given
+        when(delegate.deleteAllById(List.of(1L, 2L))).thenReturn(List.of(
+                Customer.builder().id(1L).version(4L).build(),
+                Customer.builder().id(2L).build()));
+
+        // When
+        repository.deleteAllById(List.of(1L, 2L));
+
+        // Then
+        assertThat(changeRing.readSince(0L, 10).getChanges())
+                .extracting(CustomerChange::getType, CustomerChange::getCustomerId, CustomerChange::getVersion)
+                .containsExactly(
+                        tuple(CustomerChange.Type.DELETED, 1L, 5L),
+                        tuple(CustomerChange.Type.DELETED, 2L, 1L));
+    }
+}
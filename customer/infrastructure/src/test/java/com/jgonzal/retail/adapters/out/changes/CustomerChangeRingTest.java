@@ -0,0 +1,114 @@
+package com.jgonzal.retail.adapters.out.changes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerChange;
+import com.jgonzal.retail.model.CustomerChanges;
+
+class CustomerChangeRingTest {
+
+    private final CustomerChangeRing ring = new CustomerChangeRing(4);
+
+    @Test
+    void readSince_ShouldReturnChangesAfterSequence_InOrder() {
+        // Given
+        ring.publish(CustomerChange.Type.CREATED, 1L, 0L, customer(1L));
+        ring.publish(CustomerChange.Type.UPDATED, 1L, 1L, customer(1L));
+        ring.publish(CustomerChange.Type.DELETED, 1L, 2L, null);
+
+        // When
+        CustomerChanges result = ring.readSince(1L, 10);
+
+        // Then
+        assertThat(result.isResyncRequired()).isFalse();
+        assertThat(result.getChanges()).extracting(CustomerChange::getType)
+                .containsExactly(CustomerChange.Type.UPDATED, CustomerChange.Type.DELETED);
+        assertThat(result.getLatestSequence()).isEqualTo(3L);
+    }
+
+    @Test
+    void readSince_ShouldStopAtLimit_AndResumeFromLastReturned() {
+        // Given
+        IntStream.rangeClosed(1, 3).forEach(id ->
+                ring.publish(CustomerChange.Type.CREATED, (long) id, 0L, customer(id)));
+
+        // When
+        CustomerChanges first = ring.readSince(0L, 2);
+        CustomerChanges second = ring.readSince(first.getLatestSequence(), 2);
+
+        // Then
+        assertThat(first.getChanges()).extracting(CustomerChange::getSequence).containsExactly(1L, 2L);
+        assertThat(second.getChanges()).extracting(CustomerChange::getSequence).containsExactly(3L);
+    }
+
+    @Test
+    void readSince_ShouldStartAtEnd_WhenSequenceIsMissing() {
+        // Given
+        ring.publish(CustomerChange.Type.CREATED, 1L, 0L, customer(1L));
+
+        // When
+        CustomerChanges result = ring.readSince(null, 10);
+
+        // Then
+        assertThat(result.getChanges()).isEmpty();
+        assertThat(result.getLatestSequence()).isEqualTo(1L);
+    }
+
+    @Test
+    void readSince_ShouldRequireResync_WhenSequenceWasOverwritten() {
+        // Given
+        IntStream.rangeClosed(1, 6).forEach(id ->
+                ring.publish(CustomerChange.Type.CREATED, (long) id, 0L, customer(id)));
+
+        // When
+        CustomerChanges result = ring.readSince(1L, 10);
+
+        // Then
+        assertThat(result.isResyncRequired()).isTrue();
+        assertThat(result.getLatestSequence()).isEqualTo(6L);
+        assertThat(ring.readSince(2L, 10).getChanges()).hasSize(4);
+    }
+
+    @Test
+    void readSince_ShouldRequireResync_WhenSequenceIsAheadOfRing() {
+        // When
+        CustomerChanges result = ring.readSince(100L, 10);
+
+        // Then
+        assertThat(result.isResyncRequired()).isTrue();
+    }
+
+    @Test
+    void publish_ShouldKeepCopyOfCustomer_AndNotifyListeners() {
+        // Given
+        List<CustomerChange> notified = new ArrayList<>();
+        ring.addListener(notified::add);
+        Customer customer = customer(1L);
+
+        // When
+        ring.publish(CustomerChange.Type.CREATED, 1L, 0L, customer);
+        customer.setName("Changed Later");
+
+        // Then
+        assertThat(notified).extracting(CustomerChange::getSequence).containsExactly(1L);
+        assertThat(ring.readSince(0L, 10).getChanges().get(0).getCustomer().getName()).isEqualTo("Customer 1");
+    }
+
+    @Test
+    void constructor_ShouldRejectCapacityThatIsNotPowerOfTwo() {
+        // When/Then
+        assertThatThrownBy(() -> new CustomerChangeRing(100)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Customer customer(long id) {
+        return Customer.builder().id(id).name("Customer " + id).email("c" + id + "@example.com").version(0L).build();
+    }
+}
@@ -0,0 +1,210 @@
+package com.jgonzal.retail.adapters.out.mapped;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.util.unit.DataSize;
+
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
+import com.jgonzal.retail.model.Customer;
+
+class MappedCustomerRepositoryTest {
+
+    @TempDir
+    private Path directory;
+
+    private Path logFile;
+    private MappedCustomerRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        logFile = directory.resolve("customers.log");
+        repository = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        repository.close();
+    }
+
+    @Test
+    void save_ShouldAssignIncreasingIdsAndInitialVersion() {
+        // When
+        Customer first = repository.save(customer("John Doe", "john@example.com"));
+        Customer second = repository.save(customer("Jane Doe", "jane@example.com"));
+
+        // Then
+        assertThat(first.getId()).isEqualTo(1L);
+        assertThat(second.getId()).isEqualTo(2L);
+        assertThat(second.getVersion()).isZero();
+        assertThat(repository.findById(2L)).map(Customer::getName).contains("Jane Doe");
+    }
+
+    @Test
+    void save_ShouldRejectDuplicateEmail() {
+        // Given
+        repository.save(customer("John Doe", "john@example.com"));
+
+        // When/Then
+        assertThatThrownBy(() -> repository.save(customer("John Again", "john@example.com")))
+                .isInstanceOf(CustomerEmailAlreadyExistsException.class);
+    }
+
+    @Test
+    void save_ShouldRejectMissingEmail_WithoutWritingAnything() {
+        // When/Then
+        assertThatThrownBy(() -> repository.save(customer("John Doe", null)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(repository.findAll()).isEmpty();
+    }
+
+    @Test
+    void saveAll_ShouldRejectWholeBatch_WhenOneNameIsTooLong() {
+        // When/Then
+        assertThatThrownBy(() -> repository.saveAll(List.of(
+                customer("John Doe", "john@example.com"),
+                customer("x".repeat(101), "jane@example.com"))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(repository.findAll()).isEmpty();
+    }
+
+    @Test
+    void update_ShouldRejectEmailLongerThanColumn_AndKeepStoredCustomer() {
+        // Given
+        Customer saved = repository.save(customer("John Doe", "john@example.com"));
+
+        // When/Then
+        assertThatThrownBy(() -> repository.update(saved.toBuilder().email("x".repeat(250) + "@example.com").build()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(repository.findById(saved.getId())).map(Customer::getVersion).contains(0L);
+        assertThat(repository.findByEmail("john@example.com")).isPresent();
+    }
+
+    @Test
+    void reopen_ShouldTolerateEntriesWithoutEmail() throws IOException {
+        // Given: entries written before the columns were checked
+        repository.close();
+        CustomerLog log = new CustomerLog(logFile, Math.toIntExact(DataSize.ofMegabytes(1).toBytes()));
+        log.appendPut(Customer.builder().id(1L).name("John Doe").version(0L).build());
+        log.appendPut(Customer.builder().id(2L).name("Jane Doe").version(0L).build());
+        log.close();
+
+        // When
+        repository = open();
+
+        // Then
+        assertThat(repository.search("doe", 10)).extracting(Customer::getId).containsExactly(1L, 2L);
+        assertThat(repository.save(customer("New Customer", "new@example.com")).getId()).isEqualTo(3L);
+        assertThat(repository.patch(1L, Customer.builder().email("john@example.com").build()))
+                .map(Customer::getEmail).contains("john@example.com");
+    }
+
+    @Test
+    void update_ShouldBumpVersion_AndRejectStaleVersion() {
+        // Given
+        Customer saved = repository.save(customer("John Doe", "john@example.com"));
+
+        // When
+        Optional<Customer> updated = repository.update(saved.toBuilder().name("John Updated").build());
+        Optional<Customer> stale = repository.update(saved.toBuilder().name("John Stale").build());
+
+        // Then
+        assertThat(updated).map(Customer::getVersion).contains(1L);
+        assertThat(stale).isEmpty();
+        assertThat(repository.findById(saved.getId())).map(Customer::getName).contains("John Updated");
+    }
+
+    @Test
+    void patch_ShouldKeepFieldsNotGiven() {
+        // Given
+        Customer saved = repository.save(customer("John Doe", "john@example.com"));
+
+        // When
+        Optional<Customer> patched = repository.patch(saved.getId(), Customer.builder().email("new@example.com").build());
+
+        // Then
+        assertThat(patched).map(Customer::getName).contains("John Doe");
+        assertThat(repository.findByEmail("new@example.com")).isPresent();
+        assertThat(repository.findByEmail("john@example.com")).isEmpty();
+    }
+
+    @Test
+    void upsertByEmail_ShouldInsertThenUpdate() {
+        // When
+        Customer inserted = repository.upsertByEmail(customer("John Doe", "john@example.com"));
+        Customer updated = repository.upsertByEmail(customer("John Updated", "john@example.com"));
+
+        // Then
+        assertThat(inserted.getVersion()).isZero();
+        assertThat(updated.getId()).isEqualTo(inserted.getId());
+        assertThat(updated.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void findPage_ShouldSkipDeletedCustomers() {
+        // Given
+        IntStream.rangeClosed(1, 5).forEach(i -> repository.save(customer("Customer " + i, "c" + i + "@example.com")));
+        repository.deleteAllById(List.of(2L, 3L));
+
+        // When
+        List<Customer> page = repository.findPage(1L, 2);
+
+        // Then
+        assertThat(page).extracting(Customer::getId).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void reopen_ShouldReplayLog() throws IOException {
+        // Given
+        Customer john = repository.save(customer("John Doe", "john@example.com"));
+        Customer jane = repository.save(customer("Jane Doe", "jane@example.com"));
+        repository.update(john.toBuilder().name("John Updated").build());
+        repository.deleteById(jane.getId());
+        repository.close();
+
+        // When
+        repository = open();
+
+        // Then
+        assertThat(repository.findById(john.getId())).map(Customer::getName).contains("John Updated");
+        assertThat(repository.findById(jane.getId())).isEmpty();
+        assertThat(repository.findByEmail("jane@example.com")).isEmpty();
+        assertThat(repository.save(customer("New Customer", "new@example.com")).getId()).isEqualTo(3L);
+    }
+
+    @Test
+    void save_ShouldContinueInNextSegment_WhenSegmentIsFull() throws IOException {
+        // Given
+        Path smallSegmentsFile = directory.resolve("small-segments.log");
+        repository.close();
+        repository = new MappedCustomerRepository(smallSegmentsFile, DataSize.ofBytes(256));
+
+        // When
+        IntStream.rangeClosed(1, 20).forEach(i -> repository.save(customer("Customer " + i, "c" + i + "@example.com")));
+        repository.close();
+        repository = new MappedCustomerRepository(smallSegmentsFile, DataSize.ofBytes(256));
+
+        // Then
+        assertThat(repository.findAll()).hasSize(20);
+        assertThat(repository.findById(20L)).map(Customer::getEmail).contains("c20@example.com");
+    }
+
+    private MappedCustomerRepository open() {
+        return new MappedCustomerRepository(logFile, DataSize.ofMegabytes(1));
+    }
+
+    private static Customer customer(String name, String email) {
+        return Customer.builder().name(name).email(email).build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.jgonzal.retail.adapters.out.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
+
+class DuplicateEmailsTest {
+
+    private static final String DUPLICATE_EMAIL =
+            "ERROR: duplicate key value violates unique constraint \"customers_email_key\"";
+
+    @Test
+    void isDuplicateEmail_ShouldMatchUniqueViolationOfEmailIndex() {
+        // Given
+        var ex = new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException(new SQLException(DUPLICATE_EMAIL, "23505")));
+
+        // When/Then
+        assertThat(DuplicateEmails.isDuplicateEmail(ex)).isTrue();
+    }
+
+    @Test
+    void isDuplicateEmail_ShouldMatchViolationChainedToBatchUpdate() {
+        // Given
+        var batch = new BatchUpdateException("Batch entry 0 was aborted", "23505", new int[0]);
+        batch.setNextException(new SQLException(DUPLICATE_EMAIL, "23505"));
+
+        // When/Then
+        assertThat(DuplicateEmails.isDuplicateEmail(new DataIntegrityViolationException("batch", batch))).isTrue();
+    }
+
+    @Test
+    void isDuplicateEmail_ShouldMatchDuplicateKeyRaisedByInMemoryStores() {
+        // When/Then
+        assertThat(DuplicateEmails.isDuplicateEmail(
+                new DuplicateKeyException("customers_email_key: email ya registrado: john@example.com"))).isTrue();
+    }
+
+    @Test
+    void isDuplicateEmail_ShouldRejectOtherConstraints() {
+        // Given
+        var notNull = new DataIntegrityViolationException("could not execute statement",
+                new SQLException("ERROR: null value in column \"name\" violates not-null constraint", "23502"));
+        var primaryKey = new DuplicateKeyException("duplicate",
+                new SQLException("ERROR: duplicate key value violates unique constraint \"customers_pkey\"", "23505"));
+
+        // When/Then
+        assertThat(DuplicateEmails.isDuplicateEmail(notNull)).isFalse();
+        assertThat(DuplicateEmails.isDuplicateEmail(primaryKey)).isFalse();
+    }
+
+    @Test
+    void translate_ShouldRaiseDomainException_ForDuplicateEmail() {
+        // Given
+        var ex = new DataIntegrityViolationException("could not execute statement",
+                new SQLException(DUPLICATE_EMAIL, "23505"));
+
+        // When/Then
+        assertThatThrownBy(() -> DuplicateEmails.translate(() -> {
+            throw ex;
+        }))
+                .isInstanceOf(CustomerEmailAlreadyExistsException.class)
+                .hasMessage("El email ya está registrado")
+                .hasCause(ex);
+    }
+
+    @Test
+    void translate_ShouldKeepOtherViolations() {
+        // Given
+        var ex = new DataIntegrityViolationException("could not execute statement",
+                new SQLException("ERROR: null value in column \"name\" violates not-null constraint", "23502"));
+
+        // When/Then
+        assertThatThrownBy(() -> DuplicateEmails.translate(() -> {
+            throw ex;
+        })).isSameAs(ex);
+    }
+}
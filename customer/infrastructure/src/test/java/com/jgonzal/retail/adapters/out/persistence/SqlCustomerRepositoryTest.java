@@ -1,25 +1,33 @@
 package com.jgonzal.retail.adapters.out.persistence;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
 import com.jgonzal.retail.adapters.out.persistence.entity.CustomerEntity;
 import com.jgonzal.retail.adapters.out.persistence.mapper.CustomerMapper;
 import com.jgonzal.retail.adapters.out.persistence.repository.JpaCustomerRepository;
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
 import com.jgonzal.retail.model.Customer;
+import jakarta.persistence.EntityManager;
 
 @ExtendWith(MockitoExtension.class)
 class SqlCustomerRepositoryTest {
@@ -30,6 +38,9 @@ class SqlCustomerRepositoryTest {
     @Mock
     private CustomerMapper mapper;
 
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private SqlCustomerRepository sqlCustomerRepository;
 
@@ -60,6 +71,45 @@ class SqlCustomerRepositoryTest {
         verify(mapper).toDomain(entity);
     }
 
+    @Test
+    void save_ShouldReportDuplicateEmail_AsDomainException() {
+        // Given
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        CustomerEntity entity = new CustomerEntity();
+        when(mapper.toEntity(customer)).thenReturn(entity);
+        when(repository.save(entity)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("ERROR: duplicate key value violates unique constraint \"customers_email_key\"",
+                        "23505")));
+
+        // When/Then
+        assertThatThrownBy(() -> sqlCustomerRepository.save(customer))
+                .isInstanceOf(CustomerEmailAlreadyExistsException.class);
+        verify(mapper, never()).toDomain(any(CustomerEntity.class));
+    }
+
+    @Test
+    void saveAll_ShouldFlushAndClearAfterEachChunk() {
+        // Given
+        List<Customer> customers = List.of(
+                Customer.builder().name("John Doe").email("john@example.com").build(),
+                Customer.builder().name("Jane Doe").email("jane@example.com").build());
+        List<CustomerEntity> entities = List.of(new CustomerEntity(), new CustomerEntity());
+        List<Customer> saved = List.of(Customer.builder().id(1L).build(), Customer.builder().id(2L).build());
+
+        when(mapper.toEntityList(customers)).thenReturn(entities);
+        when(repository.saveAll(entities)).thenReturn(entities);
+        when(mapper.toDomainList(entities)).thenReturn(saved);
+
+        // When
+        List<Customer> result = sqlCustomerRepository.saveAll(customers);
+
+        // Then
+        assertThat(result).extracting(Customer::getId).containsExactly(1L, 2L);
+        verify(repository).saveAll(entities);
+        verify(repository).flush();
+        verify(entityManager).clear();
+    }
+
     @Test
     void findById_ShouldReturnCustomer_WhenExists() {
         // Given
@@ -101,6 +151,24 @@ class SqlCustomerRepositoryTest {
         verify(mapper, never()).toDomain(any());
     }
 
+    @Test
+    void findAllById_ShouldLoadAllIdsInOneQuery() {
+        // Given
+        List<Long> ids = List.of(1L, 2L);
+        List<CustomerEntity> entities = List.of(new CustomerEntity());
+        List<Customer> customers = List.of(Customer.builder().id(1L).build());
+
+        when(repository.findAllById(ids)).thenReturn(entities);
+        when(mapper.toDomainList(entities)).thenReturn(customers);
+
+        // When
+        List<Customer> result = sqlCustomerRepository.findAllById(ids);
+
+        // Then
+        assertThat(result).hasSize(1);
+        verify(repository).findAllById(ids);
+    }
+
     @Test
     void findAll_ShouldReturnAllCustomers() {
         // Given
@@ -126,35 +194,117 @@ class SqlCustomerRepositoryTest {
     }
 
     @Test
-    void deleteById_ShouldReturnTrue_WhenCustomerExists() {
+    void findPage_ShouldQueryRowsAfterCursor() {
         // Given
-        Long id = 1L;
-        when(repository.existsById(id)).thenReturn(true);
+        List<CustomerEntity> entities = List.of(new CustomerEntity());
+        List<Customer> customers = List.of(Customer.builder().build());
+
+        when(repository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(20))).thenReturn(entities);
+        when(mapper.toDomainList(entities)).thenReturn(customers);
 
         // When
-        boolean result = sqlCustomerRepository.deleteById(id);
+        List<Customer> result = sqlCustomerRepository.findPage(10L, 20);
 
         // Then
-        assertThat(result).isTrue();
-        verify(repository).existsById(id);
-        verify(repository).deleteById(id);
+        assertThat(result).hasSize(1);
+        verify(repository).findByIdGreaterThanOrderByIdAsc(10L, Limit.of(20));
     }
 
     @Test
-    void deleteById_ShouldReturnFalse_WhenCustomerDoesNotExist() {
+    void findPage_ShouldStartFromBeginning_WhenNoCursor() {
+        // Given
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(20))).thenReturn(List.of());
+        when(mapper.toDomainList(List.of())).thenReturn(List.of());
+
+        // When
+        List<Customer> result = sqlCustomerRepository.findPage(null, 20);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(repository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(20));
+    }
+
+    @Test
+    void streamAll_ShouldHandEachRowToConsumerAndDetachIt() {
+        // Given
+        CustomerEntity first = new CustomerEntity();
+        CustomerEntity second = new CustomerEntity();
+        Customer firstCustomer = Customer.builder().id(1L).build();
+        Customer secondCustomer = Customer.builder().id(2L).build();
+
+        when(repository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(first, second));
+        when(mapper.toDomain(first)).thenReturn(firstCustomer);
+        when(mapper.toDomain(second)).thenReturn(secondCustomer);
+
+        // When
+        List<Customer> received = new ArrayList<>();
+        sqlCustomerRepository.streamAll(received::add);
+
+        // Then
+        assertThat(received).containsExactly(firstCustomer, secondCustomer);
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+        verify(mapper, never()).toDomainList(any());
+    }
+
+    @Test
+    void deleteById_ShouldReturnRemovedCustomer_WhenCustomerExists() {
         // Given
         Long id = 1L;
-        when(repository.existsById(id)).thenReturn(false);
+        CustomerEntity entity = new CustomerEntity();
+        entity.setId(id);
+        Customer customer = Customer.builder().id(id).version(3L).build();
+        when(repository.deleteByIdReturning(id)).thenReturn(Optional.of(entity));
+        when(mapper.toDomain(entity)).thenReturn(customer);
 
         // When
-        boolean result = sqlCustomerRepository.deleteById(id);
+        Optional<Customer> result = sqlCustomerRepository.deleteById(id);
 
         // Then
-        assertThat(result).isFalse();
-        verify(repository).existsById(id);
+        assertThat(result).contains(customer);
+        verify(repository).deleteByIdReturning(id);
+        verify(repository, never()).existsById(any());
         verify(repository, never()).deleteById(any());
     }
 
+    @Test
+    void deleteById_ShouldReturnEmpty_WhenCustomerDoesNotExist() {
+        // Given
+        Long id = 1L;
+        when(repository.deleteByIdReturning(id)).thenReturn(Optional.empty());
+
+        // When
+        Optional<Customer> result = sqlCustomerRepository.deleteById(id);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(repository).deleteByIdReturning(id);
+        verify(repository, never()).existsById(any());
+        verify(mapper, never()).toDomain(any());
+    }
+
+    @Test
+    void deleteAllById_ShouldReturnRowsRemovedByTheStatement() {
+        // Given
+        List<Long> ids = List.of(1L, 2L, 3L);
+        CustomerEntity first = new CustomerEntity();
+        first.setId(1L);
+        CustomerEntity third = new CustomerEntity();
+        third.setId(3L);
+        List<Customer> removed = List.of(
+                Customer.builder().id(1L).build(),
+                Customer.builder().id(3L).build());
+        when(repository.deleteAllByIdReturning(ids)).thenReturn(List.of(first, third));
+        when(mapper.toDomainList(List.of(first, third))).thenReturn(removed);
+
+        // When
+        List<Customer> result = sqlCustomerRepository.deleteAllById(ids);
+
+        // Then
+        assertThat(result).extracting(Customer::getId).containsExactly(1L, 3L);
+        verify(repository).deleteAllByIdReturning(ids);
+    }
+
     @Test
     void update_ShouldReturnUpdatedCustomer_WhenCustomerExists() {
         // Given
@@ -169,9 +319,7 @@ class SqlCustomerRepositoryTest {
         entity.setName("John Updated");
         entity.setEmail("john.updated@example.com");
 
-        when(repository.existsById(id)).thenReturn(true);
-        when(mapper.toEntity(customer)).thenReturn(entity);
-        when(repository.save(entity)).thenReturn(entity);
+        when(repository.updateReturning(id, "John Updated", "john.updated@example.com", null)).thenReturn(Optional.of(entity));
         when(mapper.toDomain(entity)).thenReturn(customer);
 
         // When
@@ -182,9 +330,9 @@ class SqlCustomerRepositoryTest {
         assertThat(result.get().getId()).isEqualTo(id);
         assertThat(result.get().getName()).isEqualTo("John Updated");
         assertThat(result.get().getEmail()).isEqualTo("john.updated@example.com");
-        verify(repository).existsById(id);
-        verify(mapper).toEntity(customer);
-        verify(repository).save(entity);
+        verify(repository).updateReturning(id, "John Updated", "john.updated@example.com", null);
+        verify(repository, never()).existsById(any());
+        verify(repository, never()).save(any());
         verify(mapper).toDomain(entity);
     }
 
@@ -198,16 +346,110 @@ class SqlCustomerRepositoryTest {
                 .email("john.updated@example.com")
                 .build();
 
-        when(repository.existsById(id)).thenReturn(false);
+        when(repository.updateReturning(id, "John Updated", "john.updated@example.com", null)).thenReturn(Optional.empty());
 
         // When
         Optional<Customer> result = sqlCustomerRepository.update(customer);
 
         // Then
         assertThat(result).isEmpty();
-        verify(repository).existsById(id);
-        verify(mapper, never()).toEntity(any());
+        verify(repository).updateReturning(id, "John Updated", "john.updated@example.com", null);
         verify(repository, never()).save(any());
         verify(mapper, never()).toDomain(any());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void update_ShouldPassExpectedVersion() {
+        // Given
+        Long id = 1L;
+        Customer customer = Customer.builder()
+                .id(id)
+                .name("John Updated")
+                .email("john.updated@example.com")
+                .version(3L)
+                .build();
+
+        when(repository.updateReturning(id, "John Updated", "john.updated@example.com", 3L)).thenReturn(Optional.empty());
+
+        // When
+        Optional<Customer> result = sqlCustomerRepository.update(customer);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(repository).updateReturning(id, "John Updated", "john.updated@example.com", 3L);
+    }
+
+    @Test
+    void patch_ShouldPassOnlyChangedFields() {
+        // Given
+        Long id = 1L;
+        Customer changes = Customer.builder().email("new@example.com").build();
+        CustomerEntity entity = new CustomerEntity();
+        entity.setId(id);
+        entity.setName("John Doe");
+        entity.setEmail("new@example.com");
+        Customer patched = Customer.builder().id(id).name("John Doe").email("new@example.com").build();
+
+        when(repository.patchReturning(id, null, "new@example.com", null)).thenReturn(Optional.of(entity));
+        when(mapper.toDomain(entity)).thenReturn(patched);
+
+        // When
+        Optional<Customer> result = sqlCustomerRepository.patch(id, changes);
+
+        // Then
+        assertThat(result).isPresent();
+        assertThat(result.get().getName()).isEqualTo("John Doe");
+        verify(repository).patchReturning(id, null, "new@example.com", null);
+    }
+
+    @Test
+    void findByEmail_ShouldMapEntity_WhenEmailExists() {
+        // Given
+        CustomerEntity entity = new CustomerEntity();
+        entity.setId(1L);
+        entity.setEmail("john@example.com");
+        Customer customer = Customer.builder().id(1L).email("john@example.com").build();
+
+        when(repository.findByEmail("john@example.com")).thenReturn(Optional.of(entity));
+        when(mapper.toDomain(entity)).thenReturn(customer);
+
+        // When
+        Optional<Customer> result = sqlCustomerRepository.findByEmail("john@example.com");
+
+        // Then
+        assertThat(result).contains(customer);
+    }
+
+    @Test
+    void upsertByEmail_ShouldIssueSingleStatement() {
+        // Given
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        CustomerEntity entity = new CustomerEntity(7L, "John Doe", "john@example.com", 0L);
+        Customer upserted = Customer.builder().id(7L).name("John Doe").email("john@example.com").version(0L).build();
+
+        when(repository.upsertByEmail("John Doe", "john@example.com")).thenReturn(entity);
+        when(mapper.toDomain(entity)).thenReturn(upserted);
+
+        // When
+        Customer result = sqlCustomerRepository.upsertByEmail(customer);
+
+        // Then
+        assertThat(result.getId()).isEqualTo(7L);
+        verify(repository, never()).findByEmail(any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void search_ShouldEscapeLikeWildcards() {
+        // Given
+        when(repository.searchByNameOrEmail("%50!%!_off%", Limit.of(10))).thenReturn(List.of());
+        when(mapper.toDomainList(List.of())).thenReturn(List.of());
+
+        // When
+        List<Customer> result = sqlCustomerRepository.search("50%_OFF", 10);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(repository).searchByNameOrEmail("%50!%!_off%", Limit.of(10));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,246 @@
+package com.jgonzal.retail.adapters.out.persistence.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jgonzal.retail.adapters.out.cache.CachingCustomerRepository;
+import com.jgonzal.retail.adapters.out.persistence.SqlCustomerRepository;
+import com.jgonzal.retail.adapters.out.persistence.entity.CustomerEntity;
+import com.jgonzal.retail.adapters.out.persistence.mapper.CustomerMapperImpl;
+import com.jgonzal.retail.adapters.out.persistence.repository.JpaCustomerRepository;
+import com.jgonzal.retail.model.Customer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+
+// Two independent servers stand in for a primary and a lagging replica: the same id holds a different row on
+// each, so every read shows which one answered. Not transactional, so each call picks its own connection
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaRoutingCustomerRepositoryIntegrationTest {
+
+    private static final String CLIENT = "client-a";
+
+    @Autowired
+    private SqlCustomerRepository sqlCustomerRepository;
+
+    @Autowired
+    @Qualifier("primaryPostgres")
+    private EmbeddedPostgres primaryPostgres;
+
+    @Autowired
+    @Qualifier("replicaPostgres")
+    private EmbeddedPostgres replicaPostgres;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ReadYourWritesWindow readYourWritesWindow;
+
+    @BeforeEach
+    void setUp() {
+        readYourWritesWindow = new ReadYourWritesWindow(Duration.ofMinutes(1), 100);
+        createSchema(primaryPostgres.getPostgresDatabase(), "Primary");
+        createSchema(replicaPostgres.getPostgresDatabase(), "Replica");
+    }
+
+    @AfterEach
+    void tearDown() {
+        readYourWritesWindow.clearClient();
+    }
+
+    @Test
+    void findById_ShouldReadReplica_OutsideTheWindow() {
+        // Given
+        var repository = new ReplicaRoutingCustomerRepository(sqlCustomerRepository, readYourWritesWindow, false);
+        readYourWritesWindow.bindClient(CLIENT);
+
+        // When
+        var customer = repository.findById(1L);
+
+        // Then
+        assertThat(customer).map(Customer::getName).contains("Replica");
+    }
+
+    @Test
+    void findById_ShouldReadPrimary_AfterTheClientWrote() {
+        // Given
+        var repository = new ReplicaRoutingCustomerRepository(sqlCustomerRepository, readYourWritesWindow, false);
+        readYourWritesWindow.bindClient(CLIENT);
+        var created = repository.save(Customer.builder().name("Jane Doe").email("jane@example.com").build());
+
+        // When
+        var written = repository.findById(created.getId());
+        var customer = repository.findById(1L);
+
+        // Then
+        assertThat(written).map(Customer::getEmail).contains("jane@example.com");
+        assertThat(customer).map(Customer::getName).contains("Primary");
+        assertThat(count(replicaPostgres.getPostgresDatabase())).isEqualTo(1);
+    }
+
+    @Test
+    void findById_ShouldStayOnReplica_ForOtherClients() {
+        // Given
+        var repository = new ReplicaRoutingCustomerRepository(sqlCustomerRepository, readYourWritesWindow, false);
+        readYourWritesWindow.bindClient(CLIENT);
+        repository.save(Customer.builder().name("Jane Doe").email("jane@example.com").build());
+        readYourWritesWindow.bindClient("client-b");
+
+        // When
+        var customer = repository.findById(1L);
+
+        // Then
+        assertThat(customer).map(Customer::getName).contains("Replica");
+    }
+
+    @Test
+    void findByEmail_ShouldReadReplica_WithoutClient() {
+        // Given
+        var repository = new ReplicaRoutingCustomerRepository(sqlCustomerRepository, readYourWritesWindow, false);
+
+        // When
+        var customer = repository.findByEmail("john@example.com");
+
+        // Then
+        assertThat(customer).map(Customer::getName).contains("Replica");
+    }
+
+    @Test
+    void findById_ShouldFillCacheFromPrimary() {
+        // Given
+        var cache = Caffeine.newBuilder().maximumSize(100).<Long, Customer>build();
+        var repository = new CachingCustomerRepository(
+                new ReplicaRoutingCustomerRepository(sqlCustomerRepository, readYourWritesWindow, true), cache);
+
+        // When
+        var customer = repository.findById(1L);
+
+        // Then
+        assertThat(customer).map(Customer::getName).contains("Primary");
+        assertThat(cache.getIfPresent(1L)).extracting(Customer::getName).isEqualTo("Primary");
+    }
+
+    @Test
+    void existsById_ShouldReadPrimary_EvenWhenTheReplicaLags() {
+        // Given
+        var repository = new ReplicaRoutingCustomerRepository(sqlCustomerRepository, readYourWritesWindow, false);
+        new JdbcTemplate(primaryPostgres.getPostgresDatabase()).update(
+                "INSERT INTO customers (id, name, email, version) VALUES (2, 'Jane Doe', 'jane@example.com', 0)");
+
+        // When
+        var exists = repository.existsById(2L);
+
+        // Then
+        assertThat(exists).isTrue();
+        assertThat(repository.findById(2L)).isEmpty();
+    }
+
+    @Test
+    void findById_ShouldFillCacheFromPrimary_WhenAReplicaReadOpenedTheRequestEntityManager() {
+        // Given
+        var cache = Caffeine.newBuilder().maximumSize(100).<Long, Customer>build();
+        var repository = new CachingCustomerRepository(
+                new ReplicaRoutingCustomerRepository(sqlCustomerRepository, readYourWritesWindow, true), cache);
+
+        // When: as with open-in-view, the request's first call is a replica read
+        var customers = inOpenEntityManager(() -> List.of(
+                repository.findByEmail("john@example.com").orElseThrow(),
+                repository.findById(1L).orElseThrow()));
+
+        // Then
+        assertThat(customers).extracting(Customer::getName).containsExactly("Replica", "Primary");
+        assertThat(cache.getIfPresent(1L)).extracting(Customer::getName).isEqualTo("Primary");
+    }
+
+    @Test
+    void findByEmail_ShouldReadReplica_AfterAPrimaryCallOpenedTheRequestEntityManager() {
+        // Given
+        var repository = new ReplicaRoutingCustomerRepository(sqlCustomerRepository, readYourWritesWindow, false);
+
+        // When
+        var customers = inOpenEntityManager(() -> List.of(
+                repository.existsById(1L),
+                repository.findByEmail("john@example.com").map(Customer::getName).orElseThrow()));
+
+        // Then
+        assertThat(customers).containsExactly(true, "Replica");
+    }
+
+    // Binds one EntityManager to the thread for the whole call, the way OpenEntityManagerInViewInterceptor does
+    private <T> T inOpenEntityManager(Supplier<T> request) {
+        var entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            return request.get();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+    }
+
+    private static void createSchema(DataSource dataSource, String name) {
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customers");
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS customers_seq");
+        jdbcTemplate.execute("CREATE SEQUENCE customers_seq START WITH 1000 INCREMENT BY 100");
+        jdbcTemplate.execute("CREATE TABLE customers (id BIGINT PRIMARY KEY, name VARCHAR(100) NOT NULL, "
+                + "email VARCHAR(255) NOT NULL CONSTRAINT customers_email_key UNIQUE, version BIGINT)");
+        jdbcTemplate.update("INSERT INTO customers (id, name, email, version) VALUES (1, ?, 'john@example.com', 0)",
+                name);
+    }
+
+    private static Integer count(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM customers", Integer.class);
+    }
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = CustomerEntity.class)
+    @EnableJpaRepositories(basePackageClasses = JpaCustomerRepository.class)
+    @Import({SqlCustomerRepository.class, CustomerMapperImpl.class})
+    static class Config {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres primaryPostgres() throws IOException {
+            return EmbeddedPostgres.builder().start();
+        }
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres replicaPostgres() throws IOException {
+            return EmbeddedPostgres.builder().start();
+        }
+
+        @Bean
+        DataSource dataSource(@Qualifier("primaryPostgres") EmbeddedPostgres primaryPostgres,
+                @Qualifier("replicaPostgres") EmbeddedPostgres replicaPostgres) {
+            return new ReplicaRoutingDataSource(primaryPostgres.getPostgresDatabase(),
+                    List.of(replicaPostgres.getPostgresDatabase()),
+                    new ReplicaBalancer(ReplicaBalancer.Strategy.ROUND_ROBIN));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.jgonzal.retail.adapters.out.persistence.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingCustomerRepositoryTest {
+
+    // Lookup keys of the routing data source: replicas by index, then the primary
+    private static final String REPLICA = "0";
+    private static final String PRIMARY = "primary";
+
+    @Mock
+    private CustomerRepository delegate;
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private ReadYourWritesWindow readYourWritesWindow;
+    private ReplicaRoutingCustomerRepository routingRepository;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica),
+                new ReplicaBalancer(ReplicaBalancer.Strategy.ROUND_ROBIN));
+        readYourWritesWindow = new ReadYourWritesWindow(Duration.ofMinutes(1), 100);
+        routingRepository = new ReplicaRoutingCustomerRepository(delegate, readYourWritesWindow, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readYourWritesWindow.clearClient();
+    }
+
+    @Test
+    void findById_ShouldReadFromReplica() {
+        // Given
+        readYourWritesWindow.bindClient("client-a");
+        when(delegate.findById(1L)).thenAnswer(invocation -> Optional.of(customerRoutedTo()));
+
+        // When
+        Optional<Customer> customer = routingRepository.findById(1L);
+
+        // Then
+        assertThat(customer).map(Customer::getName).contains(REPLICA);
+    }
+
+    @Test
+    void save_ShouldWriteToPrimary() {
+        // Given
+        when(delegate.save(any())).thenAnswer(invocation -> customerRoutedTo());
+
+        // When
+        Customer saved = routingRepository.save(Customer.builder().name("John Doe").build());
+
+        // Then
+        assertThat(saved.getName()).isEqualTo(PRIMARY);
+    }
+
+    @Test
+    void findById_ShouldReadFromPrimary_WithinClientsOwnWriteWindow() {
+        // Given
+        readYourWritesWindow.bindClient("client-a");
+        when(delegate.update(any())).thenReturn(Optional.of(Customer.builder().id(1L).build()));
+        when(delegate.findById(1L)).thenAnswer(invocation -> Optional.of(customerRoutedTo()));
+        routingRepository.update(Customer.builder().id(1L).name("John Doe").build());
+
+        // When
+        Optional<Customer> ownRead = routingRepository.findById(1L);
+        readYourWritesWindow.bindClient("client-b");
+        Optional<Customer> otherRead = routingRepository.findById(1L);
+
+        // Then
+        assertThat(ownRead).map(Customer::getName).contains(PRIMARY);
+        assertThat(otherRead).map(Customer::getName).contains(REPLICA);
+    }
+
+    @Test
+    void update_ShouldOpenWindow_EvenWhenWriteFails() {
+        // Given
+        readYourWritesWindow.bindClient("client-a");
+        when(delegate.update(any())).thenThrow(new IllegalStateException("connection reset"));
+
+        // When
+        assertThatThrownBy(() -> routingRepository.update(Customer.builder().id(1L).build()))
+                .isInstanceOf(IllegalStateException.class);
+
+        // Then
+        assertThat(readYourWritesWindow.isOpen()).isTrue();
+    }
+
+    @Test
+    void findById_ShouldReadFromReplica_WhenWindowIsDisabled() {
+        // Given
+        var disabledWindow = new ReadYourWritesWindow(Duration.ZERO, 100);
+        var repository = new ReplicaRoutingCustomerRepository(delegate, disabledWindow, false);
+        disabledWindow.bindClient("client-a");
+        when(delegate.save(any())).thenAnswer(invocation -> customerRoutedTo());
+        when(delegate.findById(1L)).thenAnswer(invocation -> Optional.of(customerRoutedTo()));
+        repository.save(Customer.builder().name("John Doe").build());
+
+        // When
+        Optional<Customer> customer = repository.findById(1L);
+
+        // Then
+        assertThat(customer).map(Customer::getName).contains(REPLICA);
+        disabledWindow.clearClient();
+    }
+
+    @Test
+    void findById_ShouldReadFromPrimary_WhenLookupsByIdFillTheCache() {
+        // Given
+        var repository = new ReplicaRoutingCustomerRepository(delegate, readYourWritesWindow, true);
+        when(delegate.findById(1L)).thenAnswer(invocation -> Optional.of(customerRoutedTo()));
+        when(delegate.findAllById(List.of(1L))).thenAnswer(invocation -> List.of(customerRoutedTo()));
+        when(delegate.findByEmail("john@example.com")).thenAnswer(invocation -> Optional.of(customerRoutedTo()));
+
+        // When
+        Optional<Customer> byId = repository.findById(1L);
+        List<Customer> byIds = repository.findAllById(List.of(1L));
+        Optional<Customer> byEmail = repository.findByEmail("john@example.com");
+
+        // Then
+        assertThat(byId).map(Customer::getName).contains(PRIMARY);
+        assertThat(byIds).extracting(Customer::getName).containsExactly(PRIMARY);
+        assertThat(byEmail).map(Customer::getName).contains(REPLICA);
+    }
+
+    @Test
+    void existsById_ShouldAskPrimary() {
+        // Given
+        when(delegate.existsById(1L)).thenAnswer(invocation -> PRIMARY.equals(routingDataSource.determineCurrentLookupKey()));
+
+        // When/Then
+        assertThat(routingRepository.existsById(1L)).isTrue();
+    }
+
+    @Test
+    void recordWrite_ShouldOpenWindowForCapturedClient_FromAnotherThread() throws Exception {
+        // Given
+        readYourWritesWindow.bindClient("client-a");
+        String client = readYourWritesWindow.currentClient();
+
+        // When
+        var writer = new Thread(() -> readYourWritesWindow.recordWrite(client));
+        writer.start();
+        writer.join();
+
+        // Then
+        assertThat(readYourWritesWindow.isOpen()).isTrue();
+    }
+
+    // Records, in the name, the route the data source would take for a connection opened right now
+    private Customer customerRoutedTo() {
+        return Customer.builder().name(String.valueOf(routingDataSource.determineCurrentLookupKey())).build();
+    }
+}
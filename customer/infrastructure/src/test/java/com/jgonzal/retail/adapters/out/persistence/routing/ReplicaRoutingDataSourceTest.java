@@ -0,0 +1,104 @@
+package com.jgonzal.retail.adapters.out.persistence.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Test
+    void getConnection_ShouldUsePrimary_OutsideReplicaReads() throws SQLException {
+        // Given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        var routingDataSource = routingDataSource(List.of(mock(DataSource.class)), ReplicaBalancer.Strategy.ROUND_ROBIN);
+
+        // When
+        Connection connection = routingDataSource.getConnection();
+
+        // Then
+        assertThat(connection).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void getConnection_ShouldRotateReplicas_ForReplicaReads() throws SQLException {
+        // Given
+        List<DataSource> replicas = List.of(mock(DataSource.class), mock(DataSource.class));
+        List<Connection> replicaConnections = List.of(mock(Connection.class), mock(Connection.class));
+        when(replicas.get(0).getConnection()).thenReturn(replicaConnections.get(0));
+        when(replicas.get(1).getConnection()).thenReturn(replicaConnections.get(1));
+        var routingDataSource = routingDataSource(replicas, ReplicaBalancer.Strategy.ROUND_ROBIN);
+
+        // When
+        List<Connection> connections = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            connections.add(ReplicaRoutingDataSource.onReplica(() -> connectionOf(routingDataSource)));
+        }
+
+        // Then
+        assertThat(connections).containsExactly(replicaConnections.get(0), replicaConnections.get(1),
+                replicaConnections.get(0), replicaConnections.get(1));
+    }
+
+    @Test
+    void select_ShouldPickReplicaWithFewestConnectionsInUse() {
+        // Given
+        HikariDataSource busy = replicaWithLoad(5, 1);
+        HikariDataSource idle = replicaWithLoad(1, 0);
+        HikariDataSource notStarted = mock(HikariDataSource.class);
+        when(notStarted.getHikariPoolMXBean()).thenReturn(null);
+        var balancer = new ReplicaBalancer(ReplicaBalancer.Strategy.LEAST_CONNECTIONS);
+
+        // When
+        int withStartedPools = balancer.select(List.of(busy, idle));
+        int withUnstartedPool = balancer.select(List.of(busy, idle, notStarted));
+
+        // Then
+        assertThat(withStartedPools).isEqualTo(1);
+        assertThat(withUnstartedPool).isEqualTo(2);
+    }
+
+    private ReplicaRoutingDataSource routingDataSource(List<DataSource> replicas, ReplicaBalancer.Strategy strategy) {
+        var routingDataSource = new ReplicaRoutingDataSource(primary, replicas, new ReplicaBalancer(strategy));
+        routingDataSource.afterPropertiesSet();
+        return routingDataSource;
+    }
+
+    private static Connection connectionOf(DataSource dataSource) {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static HikariDataSource replicaWithLoad(int activeConnections, int threadsAwaitingConnection) {
+        HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+        when(pool.getActiveConnections()).thenReturn(activeConnections);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(threadsAwaitingConnection);
+        HikariDataSource replica = mock(HikariDataSource.class);
+        when(replica.getHikariPoolMXBean()).thenReturn(pool);
+        return replica;
+    }
+}
@@ -0,0 +1,150 @@
+package com.jgonzal.retail.adapters.out.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.jgonzal.retail.model.Customer;
+
+class CustomerSearchIndexTest {
+
+    private CustomerSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new CustomerSearchIndex();
+        searchIndex.load(consumer -> List.of(
+                Customer.builder().id(1L).name("John Doe").email("john.doe@example.com").version(0L).build(),
+                Customer.builder().id(2L).name("Johnny Walker").email("jw@example.com").version(0L).build(),
+                Customer.builder().id(3L).name("José García").email("jose@example.com").version(0L).build())
+                .forEach(consumer));
+    }
+
+    @Test
+    void load_ShouldMarkIndexReady() {
+        // Then
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void search_ShouldMatchWordPrefixes_WithExactWordFirst() {
+        // When
+        List<Customer> result = searchIndex.search("john", 10);
+
+        // Then
+        assertThat(result).extracting(Customer::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void search_ShouldRequireEveryTerm() {
+        // When
+        List<Customer> result = searchIndex.search("jo wal", 10);
+
+        // Then
+        assertThat(result).extracting(Customer::getId).containsExactly(2L);
+    }
+
+    @Test
+    void search_ShouldIgnoreCaseAndAccents() {
+        // When
+        List<Customer> result = searchIndex.search("GARCIA", 10);
+
+        // Then
+        assertThat(result).extracting(Customer::getId).containsExactly(3L);
+    }
+
+    @Test
+    void search_ShouldStopAtLimit() {
+        // When
+        List<Customer> result = searchIndex.search("example", 2);
+
+        // Then
+        assertThat(result).hasSize(2);
+    }
+
+    @Test
+    void put_ShouldReplaceWordsOfPreviousVersion() {
+        // When
+        searchIndex.put(Customer.builder().id(1L).name("Jane Doe").email("jane.doe@example.com").version(1L).build());
+
+        // Then
+        assertThat(searchIndex.search("john", 10)).extracting(Customer::getId).containsExactly(2L);
+        assertThat(searchIndex.search("jane", 10)).extracting(Customer::getId).containsExactly(1L);
+    }
+
+    @Test
+    void put_ShouldKeepNewerVersion_WhenOlderRowArrivesLater() {
+        // Given
+        searchIndex.put(Customer.builder().id(1L).name("Jane Doe").email("jane.doe@example.com").version(2L).build());
+
+        // When
+        searchIndex.put(Customer.builder().id(1L).name("John Doe").email("john.doe@example.com").version(1L).build());
+
+        // Then
+        assertThat(searchIndex.search("jane", 10)).extracting(Customer::getId).containsExactly(1L);
+    }
+
+    @Test
+    void remove_ShouldDropCustomerFromResults() {
+        // When
+        searchIndex.remove(2L);
+
+        // Then
+        assertThat(searchIndex.search("johnny", 10)).isEmpty();
+        assertThat(searchIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    void put_ShouldNotResurrectRemovedCustomer_WhenUpdateArrivesAfterDelete() {
+        // Given: an update committed before the delete but reached the index after it
+        searchIndex.remove(1L);
+
+        // When
+        searchIndex.put(Customer.builder().id(1L).name("John Doe").email("john.doe@example.com").version(2L).build());
+
+        // Then
+        assertThat(searchIndex.search("doe", 10)).isEmpty();
+        assertThat(searchIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    void remove_ShouldDropWordsNoLongerUsed() {
+        // Given
+        int words = searchIndex.wordCount();
+
+        // When: "johnny" and "walker" are only used by customer 2, "jw" only by its email
+        searchIndex.remove(2L);
+
+        // Then
+        assertThat(searchIndex.wordCount()).isEqualTo(words - 3);
+        assertThat(searchIndex.search("example", 10)).extracting(Customer::getId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void put_ShouldDropWordsOfPreviousVersion() {
+        // Given
+        int words = searchIndex.wordCount();
+
+        // When: "johnny" and "walker" are replaced by "jack"
+        searchIndex.put(Customer.builder().id(2L).name("Jack").email("jw@example.com").version(1L).build());
+
+        // Then
+        assertThat(searchIndex.wordCount()).isEqualTo(words - 1);
+    }
+
+    @Test
+    void search_ShouldReturnCopies() {
+        // Given
+        Customer result = searchIndex.search("doe", 1).get(0);
+
+        // When
+        result.setName("Changed");
+
+        // Then
+        assertThat(searchIndex.search("doe", 1).get(0).getName()).isEqualTo("John Doe");
+    }
+}
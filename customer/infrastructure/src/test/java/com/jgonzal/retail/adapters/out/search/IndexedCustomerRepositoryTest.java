@@ -0,0 +1,105 @@
+package com.jgonzal.retail.adapters.out.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.jgonzal.retail.exception.CustomerSearchUnavailableException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+
+@ExtendWith(MockitoExtension.class)
+class IndexedCustomerRepositoryTest {
+
+    @Mock
+    private CustomerRepository delegate;
+
+    private CustomerSearchIndex searchIndex;
+    private IndexedCustomerRepository indexedRepository;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new CustomerSearchIndex();
+        indexedRepository = new IndexedCustomerRepository(delegate, searchIndex);
+    }
+
+    @Test
+    void search_ShouldBeUnavailable_WhenIndexIsNotLoaded() {
+        // When/Then
+        assertThatThrownBy(() -> indexedRepository.search("john", 10))
+                .isInstanceOf(CustomerSearchUnavailableException.class);
+        verify(delegate, never()).search(any(), anyInt());
+    }
+
+    @Test
+    void search_ShouldUseIndex_WhenIndexIsLoaded() {
+        // Given
+        searchIndex.load(consumer -> consumer.accept(
+                Customer.builder().id(1L).name("John Doe").email("john@example.com").build()));
+
+        // When
+        List<Customer> result = indexedRepository.search("john", 10);
+
+        // Then
+        assertThat(result).extracting(Customer::getId).containsExactly(1L);
+        verify(delegate, never()).search(any(), anyInt());
+    }
+
+    @Test
+    void save_ShouldIndexSavedCustomer() {
+        // Given
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        Customer savedCustomer = customer.toBuilder().id(1L).version(0L).build();
+        when(delegate.save(customer)).thenReturn(savedCustomer);
+
+        // When
+        indexedRepository.save(customer);
+
+        // Then
+        assertThat(searchIndex.search("john", 10)).extracting(Customer::getId).containsExactly(1L);
+    }
+
+    @Test
+    void update_ShouldReindexUpdatedCustomer() {
+        // Given
+        searchIndex.put(Customer.builder().id(1L).name("John Doe").email("john@example.com").version(0L).build());
+        Customer customer = Customer.builder().id(1L).name("Jane Doe").email("jane@example.com").build();
+        when(delegate.update(customer)).thenReturn(Optional.of(customer.toBuilder().version(1L).build()));
+
+        // When
+        indexedRepository.update(customer);
+
+        // Then
+        assertThat(searchIndex.search("john", 10)).isEmpty();
+        assertThat(searchIndex.search("jane", 10)).extracting(Customer::getId).containsExactly(1L);
+    }
+
+    @Test
+    void deleteAllById_ShouldRemoveOnlyDeletedIds() {
+        // Given
+        Customer john = Customer.builder().id(1L).name("John Doe").email("john@example.com").build();
+        searchIndex.put(john);
+        searchIndex.put(Customer.builder().id(2L).name("Jane Doe").email("jane@example.com").build());
+        when(delegate.deleteAllById(List.of(1L, 2L))).thenReturn(List.of(john));
+
+        // When
+        indexedRepository.deleteAllById(List.of(1L, 2L));
+
+        // Then
+        assertThat(searchIndex.size()).isEqualTo(1);
+        assertThat(searchIndex.search("doe", 10)).extracting(Customer::getId).containsExactly(2L);
+    }
+}
@@ -0,0 +1,64 @@
+package com.jgonzal.retail.adapters.out.sharded;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class ShardPlanTest {
+
+    @Test
+    void evenly_ShouldSplitSlotsIntoContiguousRanges() {
+        // When
+        ShardPlan plan = ShardPlan.evenly(8, 2);
+
+        // Then
+        assertThat(plan.shardOfSlot(0)).isZero();
+        assertThat(plan.shardOfSlot(3)).isZero();
+        assertThat(plan.shardOfSlot(4)).isEqualTo(1);
+        assertThat(plan.shardOfSlot(7)).isEqualTo(1);
+    }
+
+    @Test
+    void shardOf_ShouldFollowTheSlotCarriedInTheId() {
+        // Given
+        ShardPlan plan = ShardPlan.parse("0-1:1,2-3:0", 4, 2);
+
+        // When/Then
+        assertThat(plan.shardOf(4L * 17 + 1)).isEqualTo(1);
+        assertThat(plan.shardOf(4L * 17 + 2)).isZero();
+    }
+
+    @Test
+    void slotOf_ShouldBeStableForTheSameEmail() {
+        // Given
+        ShardPlan plan = ShardPlan.evenly(1024, 4);
+
+        // When
+        int slot = plan.slotOf("john@example.com");
+
+        // Then
+        assertThat(slot).isBetween(0, 1023).isEqualTo(plan.slotOf("john@example.com"));
+    }
+
+    @Test
+    void parse_ShouldRejectPlanThatLeavesSlotsUnassigned() {
+        assertThatThrownBy(() -> ShardPlan.parse("0-1:0", 4, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Slot missing from shard plan: 2");
+    }
+
+    @Test
+    void parse_ShouldRejectOverlappingRanges() {
+        assertThatThrownBy(() -> ShardPlan.parse("0-2:0,2-3:1", 4, 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Slot assigned twice in shard plan: 2");
+    }
+
+    @Test
+    void parse_ShouldRejectUnknownShard() {
+        assertThatThrownBy(() -> ShardPlan.parse("0-3:2", 4, 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Shard plan entry out of range: 0-3:2");
+    }
+}
@@ -0,0 +1,411 @@
+package com.jgonzal.retail.adapters.out.sharded;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
+import com.jgonzal.retail.exception.CustomerValidationException;
+import com.jgonzal.retail.model.Customer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+// Each shard is a real PostgreSQL server, so the queries, the merges and the email claims run as in production
+class ShardedCustomerRepositoryTest {
+
+    // Four slots: ids whose slot (id % 4) is 0 or 1 live on shard 0, slots 2 and 3 on shard 1
+    private static final ShardPlan PLAN = ShardPlan.parse("0-1:0,2-3:1", 4, 2);
+
+    private static EmbeddedPostgres postgres0;
+    private static EmbeddedPostgres postgres1;
+
+    private DataSource dataSource0;
+    private DataSource dataSource1;
+    private JdbcTemplate shard0;
+    private JdbcTemplate shard1;
+    private ShardedCustomerRepository shardedRepository;
+
+    @BeforeAll
+    static void startShards() throws IOException {
+        postgres0 = EmbeddedPostgres.builder().start();
+        postgres1 = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stopShards() throws IOException {
+        postgres0.close();
+        postgres1.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        dataSource0 = postgres0.getPostgresDatabase();
+        dataSource1 = postgres1.getPostgresDatabase();
+        shard0 = new JdbcTemplate(dataSource0);
+        shard1 = new JdbcTemplate(dataSource1);
+        shardedRepository = new ShardedCustomerRepository(
+                List.of(new CustomerShard(dataSource0), new CustomerShard(dataSource1)), PLAN,
+                ShardedCustomerRepository.fanOutExecutor(4, 16));
+        shardedRepository.createSchema();
+        for (var shard : List.of(shard0, shard1)) {
+            shard.execute("TRUNCATE customers, customer_emails");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardedRepository.close();
+    }
+
+    @Test
+    void findById_ShouldReadTheShardNamedByTheId() {
+        // Given
+        insert(shard1, 6L, "Bea");
+        // A row on the wrong shard is never looked at
+        insert(shard0, 10L, "Eva");
+
+        // When
+        Optional<Customer> customer = shardedRepository.findById(6L);
+        Optional<Customer> misplaced = shardedRepository.findById(10L);
+
+        // Then
+        assertThat(customer).map(Customer::getName).contains("Bea");
+        assertThat(misplaced).isEmpty();
+    }
+
+    @Test
+    void findPage_ShouldMergeShardsInIdOrder_AndKeepTheLimit() {
+        // Given
+        insert(shard0, 5L, "Ana");
+        insert(shard0, 8L, "Luis");
+        insert(shard0, 9L, "Marta");
+        insert(shard1, 6L, "Bea");
+        insert(shard1, 7L, "Carlos");
+        insert(shard1, 10L, "Eva");
+
+        // When
+        List<Customer> page = shardedRepository.findPage(4L, 3);
+
+        // Then
+        assertThat(page).extracting(Customer::getId).containsExactly(5L, 6L, 7L);
+    }
+
+    @Test
+    void search_ShouldMergeShardsInNameOrder_IgnoringCase() {
+        // Given
+        insert(shard0, 5L, "ana");
+        insert(shard0, 8L, "Luisa");
+        insert(shard1, 6L, "Bea");
+        insert(shard1, 7L, "carla");
+
+        // When
+        List<Customer> matches = shardedRepository.search("a", 3);
+
+        // Then
+        assertThat(matches).extracting(Customer::getName).containsExactly("ana", "Bea", "carla");
+    }
+
+    @Test
+    void findAllById_ShouldSendEachShardOnlyItsOwnIds() {
+        // Given
+        insert(shard0, 5L, "Ana");
+        insert(shard0, 8L, "Luis");
+        insert(shard1, 6L, "Bea");
+        insert(shard1, 9L, "Misplaced");
+
+        // When
+        List<Customer> customers = shardedRepository.findAllById(List.of(5L, 6L, 8L, 9L));
+
+        // Then
+        assertThat(customers).extracting(Customer::getId).containsExactlyInAnyOrder(5L, 6L, 8L);
+    }
+
+    @Test
+    void save_ShouldInsertOnTheShardOfTheEmailsSlot() {
+        // Given
+        String email = "john@example.com";
+        int slot = PLAN.slotOf(email);
+
+        // When
+        Customer saved = shardedRepository.save(Customer.builder().name("John Doe").email(email).build());
+
+        // Then
+        assertThat(Math.floorMod(saved.getId(), 4)).isEqualTo(slot);
+        assertThat(saved.getVersion()).isZero();
+        assertThat(count(shardOf(PLAN.shardOfSlot(slot)))).isEqualTo(1);
+        assertThat(count(shardOf(1 - PLAN.shardOfSlot(slot)))).isZero();
+    }
+
+    @Test
+    void saveAll_ShouldKeepTheInputOrder_AcrossShards() {
+        // Given
+        List<Customer> customers = List.of(
+                Customer.builder().name("Zero").email(emailOn(0, 0)).build(),
+                Customer.builder().name("One").email(emailOn(1, 0)).build(),
+                Customer.builder().name("Two").email(emailOn(0, 1)).build());
+
+        // When
+        List<Customer> saved = shardedRepository.saveAll(customers);
+
+        // Then
+        assertThat(saved).extracting(Customer::getName).containsExactly("Zero", "One", "Two");
+        assertThat(saved).extracting(customer -> PLAN.shardOf(customer.getId())).containsExactly(0, 1, 0);
+        assertThat(shardedRepository.findAllById(saved.stream().map(Customer::getId).toList())).hasSize(3);
+    }
+
+    @Test
+    void saveAll_ShouldWriteNoShard_WhenAnEmailIsTakenOnOne() {
+        // Given
+        Customer taken = save("Bea", emailOn(1, 0));
+
+        // When/Then: shard 0's part is written first and must not survive shard 1's duplicate
+        assertThatThrownBy(() -> shardedRepository.saveAll(List.of(
+                Customer.builder().name("Ana").email(emailOn(0, 0)).build(),
+                Customer.builder().name("Carla").email(emailOn(1, 1)).build(),
+                Customer.builder().name("Bea Again").email(taken.getEmail()).build())))
+                .isInstanceOf(CustomerEmailAlreadyExistsException.class);
+        assertThat(count(shard0)).isZero();
+        assertThat(count(shard1)).isEqualTo(1);
+    }
+
+    @Test
+    void saveAll_ShouldDeleteTheCommittedShards_WhenALaterCommitFails() {
+        // Given: shard 0 is entered first, so it commits last, after shard 1 has committed
+        var failingCommit = new DataSourceTransactionManager(dataSource0) {
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+                throw new TransactionSystemException("Commit failed");
+            }
+        };
+        var repository = new ShardedCustomerRepository(List.of(
+                new CustomerShard(new NamedParameterJdbcTemplate(dataSource0), new TransactionTemplate(failingCommit)),
+                new CustomerShard(dataSource1)), PLAN, ShardedCustomerRepository.fanOutExecutor(4, 16));
+
+        // When/Then
+        assertThatThrownBy(() -> repository.saveAll(List.of(
+                Customer.builder().name("Ana").email(emailOn(0, 0)).build(),
+                Customer.builder().name("Bea").email(emailOn(1, 0)).build())))
+                .isInstanceOf(TransactionSystemException.class);
+        assertThat(count(shard0)).isZero();
+        assertThat(count(shard1)).isZero();
+        repository.close();
+    }
+
+    @Test
+    void findByEmail_ShouldFindAnEmailMovedToAnotherShardsSlot() {
+        // Given
+        Customer customer = save("Bea", emailOn(1, 0));
+        String movedEmail = emailOn(0, 1);
+        shardedRepository.patch(customer.getId(), Customer.builder().email(movedEmail).build());
+
+        // When
+        Optional<Customer> found = shardedRepository.findByEmail(movedEmail);
+
+        // Then
+        assertThat(found).map(Customer::getId).contains(customer.getId());
+    }
+
+    @Test
+    void update_ShouldRejectAnEmailHeldOnAnotherShard() {
+        // Given
+        Customer owner = save("Ana", emailOn(0, 0));
+        Customer other = save("Bea", emailOn(1, 0));
+
+        // When/Then
+        assertThatThrownBy(() -> shardedRepository.update(
+                other.toBuilder().email(owner.getEmail()).version(null).build()))
+                .isInstanceOf(CustomerEmailAlreadyExistsException.class);
+        assertThat(shardedRepository.findById(other.getId())).map(Customer::getEmail).contains(other.getEmail());
+        assertThat(claims(shard0)).isZero();
+    }
+
+    @Test
+    void save_ShouldRejectAnEmailMovedFromAnotherShard() {
+        // Given
+        Customer mover = save("Bea", emailOn(1, 0));
+        String movedEmail = emailOn(0, 0);
+        shardedRepository.patch(mover.getId(), Customer.builder().email(movedEmail).build());
+
+        // When/Then
+        assertThatThrownBy(() -> save("Ana", movedEmail))
+                .isInstanceOf(CustomerEmailAlreadyExistsException.class);
+        assertThatThrownBy(() -> shardedRepository.saveAll(List.of(
+                Customer.builder().name("Ana").email(movedEmail).build())))
+                .isInstanceOf(CustomerEmailAlreadyExistsException.class);
+    }
+
+    @Test
+    void patch_ShouldRejectAnEmailAlreadyMovedByAnotherCustomer() {
+        // Given
+        String movedEmail = emailOn(0, 0);
+        Customer first = save("Bea", emailOn(1, 0));
+        Customer second = save("Carla", emailOn(1, 1));
+        shardedRepository.patch(first.getId(), Customer.builder().email(movedEmail).build());
+
+        // When/Then
+        assertThatThrownBy(() -> shardedRepository.patch(second.getId(), Customer.builder().email(movedEmail).build()))
+                .isInstanceOf(CustomerEmailAlreadyExistsException.class);
+    }
+
+    @Test
+    void patch_ShouldReleaseTheClaim_WhenTheEmailMovesAgain() {
+        // Given
+        String movedEmail = emailOn(0, 0);
+        Customer mover = save("Bea", emailOn(1, 0));
+        shardedRepository.patch(mover.getId(), Customer.builder().email(movedEmail).build());
+
+        // When
+        shardedRepository.patch(mover.getId(), Customer.builder().email(emailOn(1, 1)).build());
+
+        // Then
+        assertThat(claims(shard0)).isZero();
+        assertThat(save("Ana", movedEmail).getEmail()).isEqualTo(movedEmail);
+    }
+
+    @Test
+    void patch_ShouldReleaseTheNewClaim_WhenTheVersionConflicts() {
+        // Given
+        Customer mover = save("Bea", emailOn(1, 0));
+
+        // When
+        Optional<Customer> patched = shardedRepository.patch(mover.getId(),
+                Customer.builder().email(emailOn(0, 0)).version(7L).build());
+
+        // Then
+        assertThat(patched).isEmpty();
+        assertThat(claims(shard0)).isZero();
+    }
+
+    @Test
+    void deleteById_ShouldReleaseTheClaimOfAMovedEmail() {
+        // Given
+        String movedEmail = emailOn(0, 0);
+        Customer mover = save("Bea", emailOn(1, 0));
+        shardedRepository.patch(mover.getId(), Customer.builder().email(movedEmail).build());
+
+        // When
+        Optional<Customer> deleted = shardedRepository.deleteById(mover.getId());
+
+        // Then
+        assertThat(deleted).map(Customer::getEmail).contains(movedEmail);
+        assertThat(claims(shard0)).isZero();
+        assertThat(save("Ana", movedEmail).getEmail()).isEqualTo(movedEmail);
+    }
+
+    @Test
+    void upsertByEmail_ShouldRenameTheCustomerHoldingAMovedEmail() {
+        // Given
+        String movedEmail = emailOn(0, 0);
+        Customer mover = save("Bea", emailOn(1, 0));
+        shardedRepository.patch(mover.getId(), Customer.builder().email(movedEmail).build());
+
+        // When
+        Customer upserted = shardedRepository.upsertByEmail(
+                Customer.builder().name("Beatriz").email(movedEmail).build());
+
+        // Then
+        assertThat(upserted.getId()).isEqualTo(mover.getId());
+        assertThat(upserted.getName()).isEqualTo("Beatriz");
+        assertThat(count(shard0)).isZero();
+    }
+
+    @Test
+    void save_ShouldRejectAMissingEmail_BeforeRouting() {
+        // When/Then
+        assertThatThrownBy(() -> shardedRepository.save(Customer.builder().name("John Doe").build()))
+                .isInstanceOf(CustomerValidationException.class)
+                .hasMessage("El email es obligatorio");
+        assertThatThrownBy(() -> shardedRepository.findByEmail(null))
+                .isInstanceOf(CustomerValidationException.class);
+    }
+
+    @Test
+    void findAll_ShouldRethrowTheShardsOwnException() {
+        // Given
+        insert(shard0, 5L, "Ana");
+        shard1.execute("DROP TABLE customers");
+
+        // When/Then
+        assertThatThrownBy(() -> shardedRepository.findAll())
+                .isInstanceOf(BadSqlGrammarException.class);
+    }
+
+    @Test
+    void fanOutExecutor_ShouldRunOnTheCaller_WhenThreadsAndQueueAreFull() throws Exception {
+        // Given
+        var executor = ShardedCustomerRepository.fanOutExecutor(1, 1);
+        var release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> awaitQuietly(release));
+        var ranOn = new AtomicReference<Thread>();
+
+        // When
+        executor.execute(() -> ranOn.set(Thread.currentThread()));
+
+        // Then
+        assertThat(ranOn.get()).isSameAs(Thread.currentThread());
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private Customer save(String name, String email) {
+        return shardedRepository.save(Customer.builder().name(name).email(email).build());
+    }
+
+    private JdbcTemplate shardOf(int shardIndex) {
+        return shardIndex == 0 ? shard0 : shard1;
+    }
+
+    // The nth email whose slot belongs to the given shard
+    private static String emailOn(int shardIndex, int nth) {
+        int found = 0;
+        for (int i = 0; ; i++) {
+            String email = "customer" + i + "@example.com";
+            if (PLAN.shardOfSlot(PLAN.slotOf(email)) == shardIndex && found++ == nth) {
+                return email;
+            }
+        }
+    }
+
+    private static void insert(JdbcTemplate shard, Long id, String name) {
+        shard.update("INSERT INTO customers (id, name, email, version) VALUES (?, ?, ?, 0)",
+                id, name, name.toLowerCase() + "@example.com");
+    }
+
+    private static Integer count(JdbcTemplate shard) {
+        return shard.queryForObject("SELECT COUNT(*) FROM customers", Integer.class);
+    }
+
+    private static Integer claims(JdbcTemplate shard) {
+        return shard.queryForObject("SELECT COUNT(*) FROM customer_emails", Integer.class);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
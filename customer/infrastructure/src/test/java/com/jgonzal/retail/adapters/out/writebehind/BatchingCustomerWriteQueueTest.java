@@ -0,0 +1,168 @@
+package com.jgonzal.retail.adapters.out.writebehind;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.jgonzal.retail.adapters.out.persistence.routing.ReadYourWritesWindow;
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
+import com.jgonzal.retail.exception.CustomerQueueFullException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerCreation;
+import com.jgonzal.retail.ports.output.CustomerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class BatchingCustomerWriteQueueTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReadYourWritesWindow readYourWritesWindow;
+    private BatchingCustomerWriteQueue writeQueue;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        readYourWritesWindow = new ReadYourWritesWindow(Duration.ofMinutes(1), 100);
+        writeQueue = new BatchingCustomerWriteQueue(customerRepository, meterRegistry, 2, 100, Duration.ofSeconds(5),
+                Duration.ofMinutes(1), readYourWritesWindow);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writeQueue.isRunning()) {
+            writeQueue.stop();
+        }
+        readYourWritesWindow.clearClient();
+    }
+
+    @Test
+    void enqueue_ShouldWriteCustomerInBackground() {
+        // Given
+        AtomicLong ids = new AtomicLong();
+        when(customerRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.<List<Customer>>getArgument(0)
+                .stream()
+                .map(customer -> customer.toBuilder().id(ids.incrementAndGet()).version(0L).build())
+                .toList());
+        writeQueue.start();
+
+        // When
+        CustomerCreation pending = writeQueue.enqueue(customer("john@example.com"));
+        CustomerCreation flushed = writeQueue.awaitFlush(pending.getTrackingId());
+
+        // Then
+        assertThat(pending.getStatus()).isEqualTo(CustomerCreation.Status.PENDING);
+        assertThat(flushed.getStatus()).isEqualTo(CustomerCreation.Status.CREATED);
+        assertThat(flushed.getCustomer().getId()).isEqualTo(1L);
+        assertThat(writeQueue.findCreation(pending.getTrackingId()))
+                .map(CustomerCreation::getStatus)
+                .contains(CustomerCreation.Status.CREATED);
+        assertThat(meterRegistry.get("customer.write-behind.flush").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void enqueue_ShouldFailOnlyTheDuplicate_WhenBatchHitsUniqueEmail() {
+        // Given
+        Customer duplicate = customer("taken@example.com");
+        when(customerRepository.saveAll(anyList())).thenThrow(new CustomerEmailAlreadyExistsException());
+        when(customerRepository.save(duplicate)).thenThrow(new CustomerEmailAlreadyExistsException());
+        writeQueue.start();
+
+        // When
+        CustomerCreation result = writeQueue.awaitFlush(writeQueue.enqueue(duplicate).getTrackingId());
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(CustomerCreation.Status.FAILED);
+        assertThat(result.getError()).isEqualTo("El email ya está registrado");
+    }
+
+    @Test
+    void enqueue_ShouldNotReportDuplicateEmail_WhenAnotherConstraintFails() {
+        // Given
+        Customer customer = customer("john@example.com");
+        when(customerRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("not-null"));
+        when(customerRepository.save(customer)).thenThrow(new DataIntegrityViolationException("not-null"));
+        writeQueue.start();
+
+        // When
+        CustomerCreation result = writeQueue.awaitFlush(writeQueue.enqueue(customer).getTrackingId());
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(CustomerCreation.Status.FAILED);
+        assertThat(result.getError()).isEqualTo("No se pudo guardar el cliente");
+    }
+
+    @Test
+    void enqueue_ShouldReject_WhenQueueIsFull() throws InterruptedException {
+        // Given: the writer is stuck on the first batch while two more creations fill the queue
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(customerRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        });
+        writeQueue.start();
+        writeQueue.enqueue(customer("first@example.com"));
+        writing.await();
+        writeQueue.enqueue(customer("second@example.com"));
+        writeQueue.enqueue(customer("third@example.com"));
+
+        // When/Then
+        assertThatThrownBy(() -> writeQueue.enqueue(customer("fourth@example.com")))
+                .isInstanceOf(CustomerQueueFullException.class);
+        assertThat(meterRegistry.get("customer.write-behind.queue.depth").gauge().value()).isEqualTo(2.0);
+        release.countDown();
+    }
+
+    @Test
+    void enqueue_ShouldOpenReadYourWritesWindow_OfTheEnqueuingClient() {
+        // Given
+        when(customerRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        writeQueue.start();
+        readYourWritesWindow.bindClient("client-a");
+
+        // When
+        writeQueue.awaitFlush(writeQueue.enqueue(customer("john@example.com")).getTrackingId());
+        boolean ownWindow = readYourWritesWindow.isOpen();
+        readYourWritesWindow.bindClient("client-b");
+        boolean otherWindow = readYourWritesWindow.isOpen();
+
+        // Then
+        assertThat(ownWindow).isTrue();
+        assertThat(otherWindow).isFalse();
+    }
+
+    @Test
+    void enqueue_ShouldReject_WhenStopped() {
+        // When/Then
+        assertThatThrownBy(() -> writeQueue.enqueue(customer("john@example.com")))
+                .isInstanceOf(CustomerQueueFullException.class);
+    }
+
+    @Test
+    void findCreation_ShouldBeEmpty_ForUnknownTrackingId() {
+        // Then
+        assertThat(writeQueue.findCreation("unknown")).isEmpty();
+    }
+
+    private static Customer customer(String email) {
+        return Customer.builder().name("John Doe").email(email).build();
+    }
+}
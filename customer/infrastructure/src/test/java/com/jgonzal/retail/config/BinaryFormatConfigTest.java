@@ -0,0 +1,207 @@
+package com.jgonzal.retail.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jgonzal.retail.adapters.input.rest.CustomerController;
+import com.jgonzal.retail.adapters.input.rest.cache.EncodedResponseCache;
+import com.jgonzal.retail.adapters.input.rest.data.request.CustomerRequest;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerResponse;
+import com.jgonzal.retail.adapters.input.rest.data.response.ErrorResponse;
+import com.jgonzal.retail.adapters.input.rest.exception.GlobalExceptionHandler;
+import com.jgonzal.retail.adapters.input.rest.mapper.CustomerRestMapper;
+import com.jgonzal.retail.exception.CustomerNotFoundException;
+import com.jgonzal.retail.exception.CustomerValidationException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.ports.input.CustomerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class BinaryFormatConfigTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Mock
+    private CustomerService customerService;
+
+    @Mock
+    private CustomerRestMapper customerMapper;
+
+    @Mock
+    private ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // Boot's builder bean is a prototype, so every converter gets a fresh one
+        when(objectMapperBuilder.getObject()).thenAnswer(invocation -> Jackson2ObjectMapperBuilder.json());
+        // Same order as Spring MVC's defaults: JSON before the binary formats
+        List<HttpMessageConverter<?>> converters = new ArrayList<>(List.of(
+                new ByteArrayHttpMessageConverter(),
+                new MappingJackson2HttpMessageConverter(),
+                new MappingJackson2SmileHttpMessageConverter(),
+                new MappingJackson2CborHttpMessageConverter()));
+        new BinaryFormatConfig(objectMapperBuilder).extendMessageConverters(converters);
+
+        var responseCache = new EncodedResponseCache(Caffeine.newBuilder().maximumSize(100).build(),
+                Caffeine.newBuilder().maximumSize(100).build(), 1024);
+        var controller = new CustomerController(customerService, customerMapper, new ObjectMapper(), responseCache);
+        mockMvc = standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler(new SimpleMeterRegistry()))
+                .setMessageConverters(converters.toArray(HttpMessageConverter[]::new))
+                .build();
+    }
+
+    @Test
+    void getCustomerById_ShouldWriteCbor_WhenAcceptIsCbor() throws Exception {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").email("john@example.com").version(0L).build();
+        when(customerService.getCustomerById(1L)).thenReturn(customer);
+        when(customerMapper.toResponse(customer)).thenReturn(new CustomerResponse(1L, "John Doe", "john@example.com"));
+
+        // When
+        byte[] body = mockMvc.perform(get("/customers/{id}", 1L).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        CustomerResponse response = cborMapper.readValue(body, CustomerResponse.class);
+        assertThat(response.getId()).isEqualTo(1L);
+        assertThat(response.getName()).isEqualTo("John Doe");
+        assertThat(response.getEmail()).isEqualTo("john@example.com");
+    }
+
+    @Test
+    void getCustomerById_ShouldWriteJson_WhenNoFormatIsRequested() throws Exception {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").email("john@example.com").version(0L).build();
+        when(customerService.getCustomerById(1L)).thenReturn(customer);
+        when(customerMapper.toResponse(customer)).thenReturn(new CustomerResponse(1L, "John Doe", "john@example.com"));
+
+        // When/Then
+        mockMvc.perform(get("/customers/{id}", 1L).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.name").value("John Doe"));
+    }
+
+    @Test
+    void createCustomer_ShouldReadAndWriteSmile() throws Exception {
+        // Given
+        CustomerRequest request = new CustomerRequest("John Doe", "john@example.com");
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        Customer created = Customer.builder().id(1L).name("John Doe").email("john@example.com").version(0L).build();
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.createCustomer(customer)).thenReturn(created);
+        when(customerMapper.toResponse(created)).thenReturn(new CustomerResponse(1L, "John Doe", "john@example.com"));
+
+        // When
+        byte[] body = mockMvc.perform(post("/customers")
+                        .contentType(SMILE)
+                        .accept(SMILE)
+                        .content(smileMapper.writeValueAsBytes(request)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        assertThat(smileMapper.readValue(body, CustomerResponse.class).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void createCustomer_ShouldReadCbor_AndAnswerJson_WhenAcceptIsJson() throws Exception {
+        // Given
+        CustomerRequest request = new CustomerRequest("John Doe", "john@example.com");
+        Customer customer = Customer.builder().name("John Doe").email("john@example.com").build();
+        Customer created = Customer.builder().id(1L).name("John Doe").email("john@example.com").version(0L).build();
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.createCustomer(customer)).thenReturn(created);
+        when(customerMapper.toResponse(created)).thenReturn(new CustomerResponse(1L, "John Doe", "john@example.com"));
+
+        // When/Then
+        mockMvc.perform(post("/customers")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(cborMapper.writeValueAsBytes(request)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void getCustomerById_ShouldWriteErrorAsCbor_WhenAcceptIsCbor() throws Exception {
+        // Given
+        when(customerService.getCustomerById(123L)).thenThrow(new CustomerNotFoundException(123L));
+
+        // When
+        byte[] body = mockMvc.perform(get("/customers/{id}", 123L).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        ErrorResponse error = cborMapper.readValue(body, ErrorResponse.class);
+        assertThat(error.getStatus()).isEqualTo(404);
+        assertThat(error.getMessage()).isEqualTo("Cliente no encontrado con id: 123");
+        assertThat(error.getPath()).isEqualTo("/customers/123");
+        assertThat(error.getTimestamp()).isNotNull();
+    }
+
+    @Test
+    void createCustomer_ShouldWriteErrorAsSmile_WhenAcceptIsSmile() throws Exception {
+        // Given
+        CustomerRequest request = new CustomerRequest("", "john@example.com");
+        Customer customer = Customer.builder().name("").email("john@example.com").build();
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.createCustomer(customer))
+                .thenThrow(new CustomerValidationException("El nombre es obligatorio"));
+
+        // When
+        byte[] body = mockMvc.perform(post("/customers")
+                        .contentType(SMILE)
+                        .accept(SMILE)
+                        .content(smileMapper.writeValueAsBytes(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        ErrorResponse error = smileMapper.readValue(body, ErrorResponse.class);
+        assertThat(error.getStatus()).isEqualTo(400);
+        assertThat(error.getMessage()).isEqualTo("El nombre es obligatorio");
+    }
+}
@@ -0,0 +1,122 @@
+package com.jgonzal.retail.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Starts the database stand-in and the boot executable jar in its own JVM, or simply
+ * points at an already running instance when a target URL is given.
+ */
+public class ApplicationLauncher implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final LoadTestConfig config;
+    private EmbeddedPostgres postgres;
+    private Process application;
+
+    public ApplicationLauncher(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public URI start() throws IOException, InterruptedException {
+        if (config.getTarget() != null) {
+            return URI.create(config.getTarget());
+        }
+        if (!Files.isRegularFile(config.getAppJar())) {
+            throw new IllegalStateException("Application jar not found: " + config.getAppJar()
+                    + " (build it with mvn -f customer/pom.xml -pl boot -am package)");
+        }
+        int port = freePort();
+        var command = new ArrayList<String>();
+        command.add(javaExecutable());
+        if (!config.getAppJvmArgs().isBlank()) {
+            command.addAll(Arrays.asList(config.getAppJvmArgs().trim().split("\\s+")));
+        }
+        command.add("-jar");
+        command.add(config.getAppJar().toString());
+        command.add("--server.port=" + port);
+        // SQL logging would dominate the measurements
+        command.add("--spring.jpa.show-sql=false");
+        command.addAll(databaseArguments());
+        if (!config.getProfiles().isBlank()) {
+            command.add("--spring.profiles.active=" + config.getProfiles());
+        }
+        Files.createDirectories(config.getReportDir());
+        application = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(config.getReportDir().resolve("application.log").toFile())
+                .start();
+        var baseUri = URI.create("http://localhost:" + port);
+        awaitHealthy(baseUri);
+        return baseUri;
+    }
+
+    private List<String> databaseArguments() throws IOException {
+        if (config.getDatabaseUrl() != null) {
+            return List.of("--spring.datasource.url=" + config.getDatabaseUrl());
+        }
+        postgres = EmbeddedPostgres.builder().start();
+        int port = postgres.getPort();
+        return List.of(
+                "--spring.datasource.url=jdbc:postgresql://localhost:" + port + "/postgres?reWriteBatchedInserts=true",
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.r2dbc.url=r2dbc:postgresql://localhost:" + port + "/postgres",
+                "--spring.r2dbc.username=postgres",
+                "--spring.r2dbc.password=");
+    }
+
+    private void awaitHealthy(URI baseUri) throws InterruptedException {
+        var client = HttpClient.newHttpClient();
+        var request = HttpRequest.newBuilder(baseUri.resolve("/actuator/health")).GET().build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!application.isAlive()) {
+                throw new IllegalStateException("Application exited during startup, see application.log");
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ex) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Application did not become healthy within " + STARTUP_TIMEOUT);
+    }
+
+    // Runs the application on the same Java installation as the load generator
+    private static String javaExecutable() {
+        return ProcessHandle.current().info().command().orElse("java");
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws IOException, InterruptedException {
+        if (application != null) {
+            application.destroy();
+            application.waitFor();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.jgonzal.retail.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Builds the HTTP requests for each operation against the /customers API and
+ * seeds the data set the reads and updates pick from.
+ */
+public class CustomerApi {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final int SEED_CHUNK_SIZE = 1_000;
+    private static final int LIST_PAGE_SIZE = 50;
+
+    private final URI customersUri;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicReference<String> listCursor = new AtomicReference<>();
+    private long[] ids = new long[0];
+
+    public CustomerApi(URI baseUri, ObjectMapper objectMapper) {
+        this.customersUri = baseUri.resolve("/customers");
+        this.objectMapper = objectMapper;
+    }
+
+    public void seed(HttpClient client, int size) throws IOException, InterruptedException {
+        var seeded = new long[size];
+        int count = 0;
+        while (count < size) {
+            int chunk = Math.min(SEED_CHUNK_SIZE, size - count);
+            var body = objectMapper.createArrayNode();
+            for (int i = 0; i < chunk; i++) {
+                long n = sequence.incrementAndGet();
+                body.addObject().put("name", "Seed " + n).put("email", "seed" + n + "@example.com");
+            }
+            var request = HttpRequest.newBuilder(customersUri.resolve("/customers/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+            var response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode());
+            }
+            var results = (ArrayNode) objectMapper.readTree(response.body()).get("results");
+            for (JsonNode result : results) {
+                seeded[count++] = result.get("customer").get("id").asLong();
+            }
+        }
+        ids = Arrays.copyOf(seeded, count);
+    }
+
+    public HttpRequest request(Operation operation) {
+        var random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case GET_BY_ID -> HttpRequest.newBuilder(customerUri(randomId(random)))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+            case LIST -> HttpRequest.newBuilder(listUri())
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+            case CREATE -> HttpRequest.newBuilder(customersUri)
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(customerJson("Load")))
+                    .build();
+            case UPDATE -> HttpRequest.newBuilder(customerUri(randomId(random)))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(customerJson("Updated")))
+                    .build();
+        };
+    }
+
+    // Successive list requests walk the keyset pages and start over after the last one
+    public void onListResponse(String body) {
+        try {
+            var nextCursor = objectMapper.readTree(body).path("nextCursor");
+            listCursor.set(nextCursor.isTextual() ? nextCursor.asText() : null);
+        } catch (IOException ex) {
+            listCursor.set(null);
+        }
+    }
+
+    private URI listUri() {
+        var cursor = listCursor.get();
+        var query = "?size=" + LIST_PAGE_SIZE + (cursor == null ? "" : "&cursor=" + cursor);
+        return URI.create(customersUri + query);
+    }
+
+    private URI customerUri(long id) {
+        return URI.create(customersUri + "/" + id);
+    }
+
+    private long randomId(ThreadLocalRandom random) {
+        if (ids.length == 0) {
+            throw new IllegalStateException("Seed the data set before running reads or updates");
+        }
+        return ids[random.nextInt(ids.length)];
+    }
+
+    private String customerJson(String prefix) {
+        long n = sequence.incrementAndGet();
+        return "{\"name\":\"" + prefix + " " + n + "\",\"email\":\"" + prefix.toLowerCase() + n + "@example.com\"}";
+    }
+}
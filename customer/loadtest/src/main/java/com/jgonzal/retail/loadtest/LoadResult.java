@@ -0,0 +1,27 @@
+package com.jgonzal.retail.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class LoadResult {
+
+    private Map<Operation, Histogram> histograms;
+    private Map<Operation, Long> errors;
+    private long unfinished;
+    private long elapsedNanos;
+
+    public Histogram total() {
+        var total = new Histogram(3);
+        histograms.values().forEach(total::add);
+        return total;
+    }
+
+    public long errorCount() {
+        return errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,56 @@
+package com.jgonzal.retail.loadtest;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Builder(toBuilder = true)
+@Getter
+public class LoadTestConfig {
+
+    private TrafficMix mix;
+    private int rate;
+    private Duration duration;
+    private Duration warmup;
+    private int seedSize;
+    private Path appJar;
+    private String appJvmArgs;
+    private String profiles;
+    private String target;
+    private String databaseUrl;
+    private Path reportDir;
+    private String label;
+
+    public static LoadTestConfig fromArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return LoadTestConfig.builder()
+                .mix(TrafficMix.fromName(options.getOrDefault("mix", "read-heavy")))
+                .rate(Integer.parseInt(options.getOrDefault("rate", "500")))
+                .duration(Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60"))))
+                .warmup(Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "20"))))
+                .seedSize(Integer.parseInt(options.getOrDefault("seed-size", "10000")))
+                .appJar(Path.of(options.getOrDefault("app-jar", "customer/boot/target/boot-0.0.1-SNAPSHOT.jar")))
+                .appJvmArgs(options.getOrDefault("app-jvm-args", ""))
+                .profiles(options.getOrDefault("profiles", ""))
+                .target(blankToNull(options.get("target")))
+                .databaseUrl(blankToNull(options.get("db-url")))
+                .reportDir(Path.of(options.getOrDefault("report-dir", "loadtest-reports")))
+                .label(options.get("label"))
+                .build();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,74 @@
+package com.jgonzal.retail.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one JSON document per run, with stable keys, so runs from different
+ * commits can be diffed or plotted by a script.
+ */
+public class LoadTestReport {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper;
+
+    public LoadTestReport(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    public Path write(LoadTestConfig config, LoadResult result) throws IOException {
+        var now = Instant.now();
+        double elapsedSeconds = result.getElapsedNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        var total = result.total();
+
+        var report = new LinkedHashMap<String, Object>();
+        report.put("label", config.getLabel());
+        report.put("timestamp", now.toString());
+        report.put("mix", config.getMix().getName());
+        report.put("profiles", config.getProfiles());
+        report.put("targetRate", config.getRate());
+        report.put("durationSeconds", config.getDuration().toSeconds());
+        report.put("requests", total.getTotalCount());
+        report.put("errors", result.errorCount());
+        report.put("unfinished", result.getUnfinished());
+        report.put("throughput", total.getTotalCount() / elapsedSeconds);
+        var latency = new LinkedHashMap<String, Object>();
+        latency.put("all", summary(total));
+        result.getHistograms().forEach((operation, histogram) -> {
+            var operationSummary = summary(histogram);
+            operationSummary.put("errors", result.getErrors().get(operation));
+            latency.put(operation.name(), operationSummary);
+        });
+        report.put("latencyMicros", latency);
+
+        Files.createDirectories(config.getReportDir());
+        var file = config.getReportDir().resolve(config.getMix().getName() + "-" + FILE_TIMESTAMP.format(now) + ".json");
+        objectMapper.writeValue(file.toFile(), report);
+        return file;
+    }
+
+    private static Map<String, Object> summary(Histogram histogram) {
+        var summary = new LinkedHashMap<String, Object>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("mean", histogram.getMean());
+        summary.put("p50", histogram.getValueAtPercentile(50));
+        summary.put("p90", histogram.getValueAtPercentile(90));
+        summary.put("p99", histogram.getValueAtPercentile(99));
+        summary.put("p999", histogram.getValueAtPercentile(99.9));
+        summary.put("max", histogram.getMaxValue());
+        return summary;
+    }
+}
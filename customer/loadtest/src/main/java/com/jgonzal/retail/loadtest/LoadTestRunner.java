@@ -0,0 +1,68 @@
+package com.jgonzal.retail.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Entry point: starts the application, seeds it, runs a warmup and then the measured
+ * phase of the selected traffic mix, and writes the JSON report.
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var config = LoadTestConfig.fromArgs(args);
+        if (config.getLabel() == null) {
+            config = config.toBuilder().label(gitRevision()).build();
+        }
+        var objectMapper = new ObjectMapper();
+        var client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        try (var launcher = new ApplicationLauncher(config)) {
+            var baseUri = launcher.start();
+            var api = new CustomerApi(baseUri, objectMapper);
+            var driver = new OpenModelDriver(client, api);
+
+            System.out.printf("Seeding %d customers at %s%n", config.getSeedSize(), baseUri);
+            api.seed(client, config.getSeedSize());
+
+            System.out.printf("Warmup: %s at %d req/s for %ds%n",
+                    config.getMix().getName(), config.getRate(), config.getWarmup().toSeconds());
+            driver.run(config.getMix(), config.getRate(), config.getWarmup());
+
+            System.out.printf("Measuring: %s at %d req/s for %ds%n",
+                    config.getMix().getName(), config.getRate(), config.getDuration().toSeconds());
+            var result = driver.run(config.getMix(), config.getRate(), config.getDuration());
+
+            var report = new LoadTestReport(objectMapper).write(config, result);
+            var total = result.total();
+            System.out.printf("requests=%d errors=%d p50=%dus p99=%dus p999=%dus max=%dus%n",
+                    total.getTotalCount(), result.errorCount(),
+                    total.getValueAtPercentile(50), total.getValueAtPercentile(99),
+                    total.getValueAtPercentile(99.9), total.getMaxValue());
+            System.out.println("Report written to " + report);
+        }
+    }
+
+    private static String gitRevision() {
+        try {
+            var process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            var revision = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return process.waitFor() == 0 ? revision : "unknown";
+        } catch (IOException ex) {
+            return "unknown";
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+}
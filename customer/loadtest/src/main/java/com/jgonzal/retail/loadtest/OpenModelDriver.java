@@ -0,0 +1,91 @@
+package com.jgonzal.retail.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests are issued on a fixed schedule whether or not earlier ones
+ * have completed, and each latency is measured from the request's intended start time.
+ * A stalled server therefore shows up as queueing delay in the histogram instead of
+ * silently lowering the offered load (coordinated omission).
+ */
+public class OpenModelDriver {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+    // Two hours in microseconds; anything slower is clamped rather than dropped
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(2);
+
+    private final HttpClient client;
+    private final CustomerApi api;
+
+    public OpenModelDriver(HttpClient client, CustomerApi api) {
+        this.client = client;
+        this.api = api;
+    }
+
+    public LoadResult run(TrafficMix mix, int rate, Duration duration) throws InterruptedException {
+        var recorders = new EnumMap<Operation, Recorder>(Operation.class);
+        var errors = new EnumMap<Operation, LongAdder>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(3));
+            errors.put(operation, new LongAdder());
+        }
+        var inFlight = new AtomicLong();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            var operation = mix.pick(ThreadLocalRandom.current().nextInt(mix.totalWeight()));
+            inFlight.incrementAndGet();
+            var bodyHandler = operation == Operation.LIST
+                    ? HttpResponse.BodyHandlers.ofString()
+                    : HttpResponse.BodyHandlers.discarding();
+            client.sendAsync(api.request(operation), bodyHandler).whenComplete((response, failure) -> {
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+                recorders.get(operation).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                if (failure != null || response.statusCode() >= 400) {
+                    errors.get(operation).increment();
+                } else if (operation == Operation.LIST) {
+                    api.onListResponse((String) response.body());
+                }
+                inFlight.decrementAndGet();
+            });
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        var histograms = new EnumMap<Operation, Histogram>(Operation.class);
+        var errorCounts = new EnumMap<Operation, Long>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            var histogram = recorders.get(operation).getIntervalHistogram();
+            if (histogram.getTotalCount() > 0) {
+                histograms.put(operation, histogram);
+                errorCounts.put(operation, errors.get(operation).sum());
+            }
+        }
+        return new LoadResult(histograms, errorCounts, inFlight.get(), elapsedNanos);
+    }
+}
@@ -0,0 +1,8 @@
+package com.jgonzal.retail.loadtest;
+
+public enum Operation {
+    GET_BY_ID,
+    LIST,
+    CREATE,
+    UPDATE
+}
@@ -0,0 +1,50 @@
+package com.jgonzal.retail.loadtest;
+
+import java.util.Arrays;
+
+public enum TrafficMix {
+
+    READ_HEAVY("read-heavy", new Operation[] {Operation.GET_BY_ID, Operation.UPDATE, Operation.CREATE},
+            new int[] {90, 5, 5}),
+    WRITE_HEAVY("write-heavy", new Operation[] {Operation.GET_BY_ID, Operation.CREATE, Operation.UPDATE},
+            new int[] {30, 35, 35}),
+    LIST("list", new Operation[] {Operation.LIST, Operation.GET_BY_ID},
+            new int[] {80, 20});
+
+    private final String name;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    TrafficMix(String name, Operation[] operations, int[] weights) {
+        this.name = name;
+        this.operations = operations;
+        this.cumulativeWeights = Arrays.copyOf(weights, weights.length);
+        Arrays.parallelPrefix(this.cumulativeWeights, Integer::sum);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Operation pick(int roll) {
+        int bounded = roll % totalWeight();
+        for (int i = 0; i < operations.length; i++) {
+            if (bounded < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    public int totalWeight() {
+        return cumulativeWeights[cumulativeWeights.length - 1];
+    }
+
+    public static TrafficMix fromName(String name) {
+        return Arrays.stream(values())
+                .filter(mix -> mix.name.equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown traffic mix: " + name
+                        + " (expected read-heavy, write-heavy or list)"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.jgonzal.retail.reactive.adapters.input.rest;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.jgonzal.retail.adapters.input.rest.conditional.ETagCodec;
+import com.jgonzal.retail.adapters.input.rest.data.request.CustomerRequest;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerPageResponse;
+import com.jgonzal.retail.adapters.input.rest.mapper.CustomerRestMapper;
+import com.jgonzal.retail.adapters.input.rest.pagination.CursorCodec;
+import com.jgonzal.retail.exception.CustomerValidationException;
+import com.jgonzal.retail.reactive.ports.input.ReactiveCustomerService;
+
+import reactor.core.publisher.Mono;
+
+@Component
+@ConditionalOnProperty(name = "customer.stack", havingValue = "reactive")
+public class CustomerHandler {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    private final ReactiveCustomerService customerService;
+    private final CustomerRestMapper customerMapper;
+
+    public CustomerHandler(ReactiveCustomerService customerService, CustomerRestMapper customerMapper) {
+        this.customerService = customerService;
+        this.customerMapper = customerMapper;
+    }
+
+    public Mono<ServerResponse> createCustomer(ServerRequest request) {
+        return request.bodyToMono(CustomerRequest.class)
+                .map(customerMapper::toDomain)
+                .flatMap(customerService::createCustomer)
+                .flatMap(customer -> ServerResponse.status(HttpStatus.CREATED)
+                        .eTag(ETagCodec.encode(customer.getVersion()))
+                        .bodyValue(customerMapper.toResponse(customer)));
+    }
+
+    public Mono<ServerResponse> getCustomerById(ServerRequest request) {
+        return Mono.fromCallable(() -> pathId(request))
+                .flatMap(customerService::getCustomerById)
+                .flatMap(customer -> {
+                    var etag = ETagCodec.encode(customer.getVersion());
+                    return request.checkNotModified(etag)
+                            .orElseGet(() -> ServerResponse.ok().eTag(etag).bodyValue(customerMapper.toResponse(customer)));
+                });
+    }
+
+    public Mono<ServerResponse> getCustomers(ServerRequest request) {
+        // Deferred so invalid parameters fail inside the Mono, where the router's onError maps them to 400
+        return Mono.defer(() -> {
+                    var cursor = CursorCodec.decode(request.queryParam("cursor").orElse(null));
+                    int size = request.queryParam("size").map(CustomerHandler::parseSize).orElse(DEFAULT_PAGE_SIZE);
+                    return customerService.getCustomersPage(cursor, size);
+                })
+                .map(page -> CustomerPageResponse.builder()
+                        .content(customerMapper.toResponseList(page.getCustomers()))
+                        .nextCursor(CursorCodec.encode(page.getNextCursor()))
+                        .build())
+                .flatMap(response -> ServerResponse.ok().bodyValue(response));
+    }
+
+    public Mono<ServerResponse> deleteCustomer(ServerRequest request) {
+        return Mono.fromCallable(() -> pathId(request))
+                .flatMap(customerService::deleteCustomer)
+                .then(ServerResponse.noContent().build());
+    }
+
+    public Mono<ServerResponse> updateCustomer(ServerRequest request) {
+        return Mono.defer(() -> {
+                    var id = pathId(request);
+                    var expectedVersion = ETagCodec.decode(request.headers().firstHeader(HttpHeaders.IF_MATCH));
+                    return request.bodyToMono(CustomerRequest.class)
+                            .map(customerMapper::toDomain)
+                            .flatMap(customer -> {
+                                customer.setVersion(expectedVersion);
+                                return customerService.updateCustomer(id, customer);
+                            });
+                })
+                .flatMap(customer -> ServerResponse.ok()
+                        .eTag(ETagCodec.encode(customer.getVersion()))
+                        .bodyValue(customerMapper.toResponse(customer)));
+    }
+
+    private static Long pathId(ServerRequest request) {
+        try {
+            return Long.parseLong(request.pathVariable("id"));
+        } catch (NumberFormatException ex) {
+            throw new CustomerValidationException("Parámetro inválido: id");
+        }
+    }
+
+    private static int parseSize(String size) {
+        try {
+            return Integer.parseInt(size);
+        } catch (NumberFormatException ex) {
+            throw new CustomerValidationException("Parámetro inválido: size");
+        }
+    }
+}
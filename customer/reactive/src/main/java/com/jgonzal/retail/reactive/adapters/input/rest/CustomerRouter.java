@@ -0,0 +1,56 @@
+package com.jgonzal.retail.reactive.adapters.input.rest;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.jgonzal.retail.adapters.input.rest.data.response.ErrorResponse;
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
+import com.jgonzal.retail.exception.CustomerNotFoundException;
+import com.jgonzal.retail.exception.CustomerValidationException;
+import com.jgonzal.retail.exception.CustomerVersionConflictException;
+
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+@Configuration
+@ConditionalOnProperty(name = "customer.stack", havingValue = "reactive")
+public class CustomerRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> customerRoutes(CustomerHandler handler) {
+        return route()
+                .path("/customers", builder -> builder
+                        .POST("", handler::createCustomer)
+                        .GET("", handler::getCustomers)
+                        .GET("/{id}", handler::getCustomerById)
+                        .PUT("/{id}", handler::updateCustomer)
+                        .DELETE("/{id}", handler::deleteCustomer))
+                // Same status codes and ErrorResponse body as GlobalExceptionHandler on the servlet stack
+                .onError(CustomerNotFoundException.class, (ex, request) -> error(HttpStatus.NOT_FOUND, ex.getMessage(), request))
+                .onError(CustomerValidationException.class, (ex, request) -> error(HttpStatus.BAD_REQUEST, ex.getMessage(), request))
+                .onError(CustomerVersionConflictException.class,
+                        (ex, request) -> error(HttpStatus.PRECONDITION_FAILED, ex.getMessage(), request))
+                .onError(CustomerEmailAlreadyExistsException.class,
+                        (ex, request) -> error(HttpStatus.CONFLICT, ex.getMessage(), request))
+                .build();
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String message, ServerRequest request) {
+        var error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path(request.path())
+                .build();
+        return ServerResponse.status(status).bodyValue(error);
+    }
+}
@@ -0,0 +1,92 @@
+package com.jgonzal.retail.reactive.adapters.out.persistence;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import com.jgonzal.retail.adapters.out.persistence.DuplicateEmails;
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.reactive.ports.output.ReactiveCustomerRepository;
+import io.r2dbc.spi.Row;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+@ConditionalOnProperty(name = "customer.stack", havingValue = "reactive")
+public class R2dbcCustomerRepository implements ReactiveCustomerRepository {
+
+    private static final String COLUMNS = "id, name, email, version";
+
+    private final DatabaseClient databaseClient;
+
+    public R2dbcCustomerRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<Customer> save(Customer customer) {
+        // Same sequence as the JPA entity; Hibernate reserves ids in blocks of its increment, so taking
+        // nextval directly never collides with ids it has handed out, it only leaves gaps
+        return databaseClient.sql("INSERT INTO customers (id, name, email, version) "
+                        + "VALUES (nextval('customers_seq'), :name, :email, 0) RETURNING " + COLUMNS)
+                .bind("name", customer.getName())
+                .bind("email", customer.getEmail())
+                .map((row, metadata) -> toDomain(row))
+                .one()
+                .onErrorMap(DuplicateEmails::isDuplicateEmail, CustomerEmailAlreadyExistsException::new);
+    }
+
+    @Override
+    public Mono<Customer> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM customers WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> toDomain(row))
+                .one();
+    }
+
+    @Override
+    public Flux<Customer> findPage(Long afterId, int limit) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM customers WHERE id > :afterId ORDER BY id LIMIT :limit")
+                .bind("afterId", afterId == null ? 0L : afterId)
+                .bind("limit", limit)
+                .map((row, metadata) -> toDomain(row))
+                .all();
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(Long id) {
+        return databaseClient.sql("DELETE FROM customers WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .map(count -> count > 0);
+    }
+
+    @Override
+    public Mono<Customer> update(Customer customer) {
+        var spec = databaseClient.sql("UPDATE customers SET name = :name, email = :email, "
+                        + "version = COALESCE(version, 0) + 1 WHERE id = :id "
+                        + "AND (CAST(:version AS BIGINT) IS NULL OR COALESCE(version, 0) = :version) "
+                        + "RETURNING " + COLUMNS)
+                .bind("id", customer.getId())
+                .bind("name", customer.getName())
+                .bind("email", customer.getEmail());
+        spec = customer.getVersion() == null
+                ? spec.bindNull("version", Long.class)
+                : spec.bind("version", customer.getVersion());
+        return spec.map((row, metadata) -> toDomain(row))
+                .one()
+                .onErrorMap(DuplicateEmails::isDuplicateEmail, CustomerEmailAlreadyExistsException::new);
+    }
+
+    private static Customer toDomain(Row row) {
+        return Customer.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .email(row.get("email", String.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
@@ -0,0 +1,14 @@
+package com.jgonzal.retail.reactive.ports.input;
+
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerPage;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCustomerService {
+    Mono<Customer> createCustomer(Customer customer);
+    Mono<Customer> getCustomerById(Long id);
+    Mono<CustomerPage> getCustomersPage(Long afterId, int size);
+    Mono<Void> deleteCustomer(Long id);
+    Mono<Customer> updateCustomer(Long id, Customer customer);
+}
@@ -0,0 +1,14 @@
+package com.jgonzal.retail.reactive.ports.output;
+
+import com.jgonzal.retail.model.Customer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCustomerRepository {
+    Mono<Customer> save(Customer customer);
+    Mono<Customer> findById(Long id);
+    Flux<Customer> findPage(Long afterId, int limit);
+    Mono<Boolean> deleteById(Long id);
+    Mono<Customer> update(Customer customer);
+}
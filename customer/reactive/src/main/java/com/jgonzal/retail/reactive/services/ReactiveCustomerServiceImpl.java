@@ -0,0 +1,82 @@
+package com.jgonzal.retail.reactive.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.jgonzal.retail.exception.CustomerNotFoundException;
+import com.jgonzal.retail.exception.CustomerValidationException;
+import com.jgonzal.retail.exception.CustomerVersionConflictException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerPage;
+import com.jgonzal.retail.reactive.ports.input.ReactiveCustomerService;
+import com.jgonzal.retail.reactive.ports.output.ReactiveCustomerRepository;
+import com.jgonzal.retail.services.CustomerServiceImpl;
+
+import reactor.core.publisher.Mono;
+
+@Service
+@ConditionalOnProperty(name = "customer.stack", havingValue = "reactive")
+public class ReactiveCustomerServiceImpl implements ReactiveCustomerService {
+
+    private final ReactiveCustomerRepository customerRepository;
+
+    public ReactiveCustomerServiceImpl(ReactiveCustomerRepository customerRepository) {
+        this.customerRepository = customerRepository;
+    }
+
+    public Mono<Customer> createCustomer(Customer customer) {
+        var error = CustomerServiceImpl.validate(customer);
+        if (error != null) {
+            return Mono.error(new CustomerValidationException(error));
+        }
+        customer.setEmail(CustomerServiceImpl.normalizeEmail(customer.getEmail()));
+        return customerRepository.save(customer);
+    }
+
+    public Mono<Customer> getCustomerById(Long id) {
+        return customerRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new CustomerNotFoundException(id)));
+    }
+
+    public Mono<CustomerPage> getCustomersPage(Long afterId, int size) {
+        if (size < 1) {
+            return Mono.error(new CustomerValidationException("El tamaño de página debe ser mayor que 0"));
+        }
+        int limit = Math.min(size, CustomerServiceImpl.MAX_PAGE_SIZE);
+        // Same keyset rule as the blocking service: one extra row signals the next page
+        return customerRepository.findPage(afterId, limit + 1)
+                .collectList()
+                .map(customers -> {
+                    if (customers.size() <= limit) {
+                        return new CustomerPage(customers, null);
+                    }
+                    var page = customers.subList(0, limit);
+                    return new CustomerPage(page, page.get(limit - 1).getId());
+                });
+    }
+
+    public Mono<Void> deleteCustomer(Long id) {
+        return customerRepository.deleteById(id)
+                .flatMap(deleted -> deleted ? Mono.<Void>empty() : Mono.error(new CustomerNotFoundException(id)));
+    }
+
+    public Mono<Customer> updateCustomer(Long id, Customer customer) {
+        var error = CustomerServiceImpl.validate(customer);
+        if (error != null) {
+            return Mono.error(new CustomerValidationException(error));
+        }
+        customer.setId(id);
+        customer.setEmail(CustomerServiceImpl.normalizeEmail(customer.getEmail()));
+        return customerRepository.update(customer)
+                .switchIfEmpty(Mono.defer(() -> notFoundOrConflict(id, customer.getVersion())));
+    }
+
+    private Mono<Customer> notFoundOrConflict(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.error(new CustomerNotFoundException(id));
+        }
+        return customerRepository.findById(id)
+                .flatMap(existing -> Mono.<Customer>error(new CustomerVersionConflictException(id, expectedVersion)))
+                .switchIfEmpty(Mono.error(() -> new CustomerNotFoundException(id)));
+    }
+}
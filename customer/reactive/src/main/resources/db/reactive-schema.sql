@@ -0,0 +1,11 @@
+-- Matches the schema Hibernate generates for CustomerEntity, so both stacks can share a database
+CREATE SEQUENCE IF NOT EXISTS customers_seq START WITH 1 INCREMENT BY 100;
+
+CREATE TABLE IF NOT EXISTS customers (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    version BIGINT
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS customers_email_key ON customers (email);
@@ -0,0 +1,218 @@
+package com.jgonzal.retail.reactive.adapters.input.rest;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.jgonzal.retail.adapters.input.rest.data.request.CustomerRequest;
+import com.jgonzal.retail.adapters.input.rest.data.response.CustomerResponse;
+import com.jgonzal.retail.adapters.input.rest.mapper.CustomerRestMapper;
+import com.jgonzal.retail.exception.CustomerEmailAlreadyExistsException;
+import com.jgonzal.retail.exception.CustomerNotFoundException;
+import com.jgonzal.retail.exception.CustomerVersionConflictException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.model.CustomerPage;
+import com.jgonzal.retail.reactive.ports.input.ReactiveCustomerService;
+
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerRouterTest {
+
+    @Mock
+    private ReactiveCustomerService customerService;
+
+    @Mock
+    private CustomerRestMapper customerMapper;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        var handler = new CustomerHandler(customerService, customerMapper);
+        webTestClient = WebTestClient.bindToRouterFunction(new CustomerRouter().customerRoutes(handler)).build();
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnCustomerWithETag() {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").email("john@example.com").version(2L).build();
+        when(customerService.getCustomerById(1L)).thenReturn(Mono.just(customer));
+        when(customerMapper.toResponse(customer)).thenReturn(new CustomerResponse(1L, "John Doe", "john@example.com"));
+
+        // When/Then
+        webTestClient.get().uri("/customers/{id}", 1L)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"2\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("John Doe");
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnNotModified_WhenETagMatches() {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").version(2L).build();
+        when(customerService.getCustomerById(1L)).thenReturn(Mono.just(customer));
+
+        // When/Then
+        webTestClient.get().uri("/customers/{id}", 1L)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+                .exchange()
+                .expectStatus().isNotModified();
+        verify(customerMapper, never()).toResponse(any());
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnNotFound_WhenCustomerDoesNotExist() {
+        // Given
+        when(customerService.getCustomerById(999L)).thenReturn(Mono.error(new CustomerNotFoundException(999L)));
+
+        // When/Then
+        webTestClient.get().uri("/customers/{id}", 999L)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Cliente no encontrado con id: 999");
+    }
+
+    @Test
+    void getCustomers_ShouldReturnPageWithNextCursor() {
+        // Given
+        List<Customer> customers = List.of(Customer.builder().id(1L).build());
+        when(customerService.getCustomersPage(null, 1)).thenReturn(Mono.just(new CustomerPage(customers, 1L)));
+        when(customerMapper.toResponseList(customers)).thenReturn(List.of(new CustomerResponse(1L, null, null)));
+
+        // When/Then
+        webTestClient.get().uri("/customers?size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].id").isEqualTo(1)
+                .jsonPath("$.nextCursor").isNotEmpty();
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnPreconditionFailed_WhenVersionIsStale() {
+        // Given
+        CustomerRequest request = new CustomerRequest("John", "john@example.com");
+        Customer customer = Customer.builder().name("John").email("john@example.com").build();
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.updateCustomer(1L, customer))
+                .thenReturn(Mono.error(new CustomerVersionConflictException(1L, 1L)));
+
+        // When/Then
+        webTestClient.put().uri("/customers/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    void createCustomer_ShouldReturnConflict_WhenEmailIsTaken() {
+        // Given
+        CustomerRequest request = new CustomerRequest("John", "john@example.com");
+        Customer customer = Customer.builder().name("John").email("john@example.com").build();
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.createCustomer(customer)).thenReturn(Mono.error(new CustomerEmailAlreadyExistsException()));
+
+        // When/Then
+        webTestClient.post().uri("/customers")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("El email ya está registrado");
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnConflict_WhenEmailIsTaken() {
+        // Given
+        CustomerRequest request = new CustomerRequest("John", "john@example.com");
+        Customer customer = Customer.builder().name("John").email("john@example.com").build();
+        when(customerMapper.toDomain(request)).thenReturn(customer);
+        when(customerService.updateCustomer(1L, customer))
+                .thenReturn(Mono.error(new CustomerEmailAlreadyExistsException()));
+
+        // When/Then
+        webTestClient.put().uri("/customers/{id}", 1L)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void deleteCustomer_ShouldReturnNoContent() {
+        // Given
+        when(customerService.deleteCustomer(1L)).thenReturn(Mono.empty());
+
+        // When/Then
+        webTestClient.delete().uri("/customers/{id}", 1L)
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnBadRequest_WhenIdIsNotANumber() {
+        // When/Then
+        webTestClient.get().uri("/customers/abc")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Parámetro inválido: id");
+    }
+
+    @Test
+    void getCustomers_ShouldReturnBadRequest_WhenCursorIsInvalid() {
+        // When/Then
+        webTestClient.get().uri("/customers?cursor=not-a-cursor")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Cursor de paginación inválido");
+    }
+
+    @Test
+    void getCustomers_ShouldReturnBadRequest_WhenSizeIsNotANumber() {
+        // When/Then
+        webTestClient.get().uri("/customers?size=ten")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Parámetro inválido: size");
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnBadRequest_WhenIfMatchIsMalformed() {
+        // When/Then
+        webTestClient.put().uri("/customers/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "1")
+                .bodyValue(new CustomerRequest("John", "john@example.com"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Cabecera If-Match inválida");
+        verify(customerService, never()).updateCustomer(any(), any());
+    }
+
+    @Test
+    void deleteCustomer_ShouldReturnBadRequest_WhenIdIsNotANumber() {
+        // When/Then
+        webTestClient.delete().uri("/customers/abc")
+                .exchange()
+                .expectStatus().isBadRequest();
+        verify(customerService, never()).deleteCustomer(any());
+    }
+}
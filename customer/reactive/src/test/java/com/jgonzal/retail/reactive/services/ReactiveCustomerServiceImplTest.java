@@ -0,0 +1,145 @@
+package com.jgonzal.retail.reactive.services;
+
+import com.jgonzal.retail.exception.CustomerNotFoundException;
+import com.jgonzal.retail.exception.CustomerValidationException;
+import com.jgonzal.retail.exception.CustomerVersionConflictException;
+import com.jgonzal.retail.model.Customer;
+import com.jgonzal.retail.reactive.ports.output.ReactiveCustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCustomerServiceImplTest {
+
+    @Mock
+    private ReactiveCustomerRepository customerRepository;
+
+    @InjectMocks
+    private ReactiveCustomerServiceImpl customerService;
+
+    @Test
+    void getCustomerById_ShouldReturnCustomer_WhenCustomerExists() {
+        // Given
+        Customer customer = Customer.builder().id(1L).name("John Doe").email("john@example.com").build();
+        when(customerRepository.findById(1L)).thenReturn(Mono.just(customer));
+
+        // When/Then
+        StepVerifier.create(customerService.getCustomerById(1L))
+                .expectNext(customer)
+                .verifyComplete();
+    }
+
+    @Test
+    void getCustomerById_ShouldFail_WhenCustomerNotFound() {
+        // Given
+        when(customerRepository.findById(999L)).thenReturn(Mono.empty());
+
+        // When/Then
+        StepVerifier.create(customerService.getCustomerById(999L))
+                .expectError(CustomerNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void getCustomersPage_ShouldFetchOneExtraRowAndReturnNextCursor() {
+        // Given
+        when(customerRepository.findPage(null, 3)).thenReturn(Flux.just(
+                Customer.builder().id(1L).build(),
+                Customer.builder().id(2L).build(),
+                Customer.builder().id(3L).build()));
+
+        // When/Then
+        StepVerifier.create(customerService.getCustomersPage(null, 2))
+                .assertNext(page -> {
+                    assertThat(page.getCustomers()).extracting(Customer::getId).containsExactly(1L, 2L);
+                    assertThat(page.getNextCursor()).isEqualTo(2L);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getCustomersPage_ShouldFail_WhenSizeIsNotPositive() {
+        // When/Then
+        StepVerifier.create(customerService.getCustomersPage(null, 0))
+                .expectError(CustomerValidationException.class)
+                .verify();
+        verify(customerRepository, never()).findPage(any(), anyInt());
+    }
+
+    @Test
+    void deleteCustomer_ShouldFail_WhenNothingWasDeleted() {
+        // Given
+        when(customerRepository.deleteById(1L)).thenReturn(Mono.just(false));
+
+        // When/Then
+        StepVerifier.create(customerService.deleteCustomer(1L))
+                .expectError(CustomerNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void updateCustomer_ShouldFailWithConflict_WhenVersionIsStale() {
+        // Given
+        Customer changes = Customer.builder().name("John").email("john@example.com").version(1L).build();
+        when(customerRepository.update(changes)).thenReturn(Mono.empty());
+        when(customerRepository.findById(1L)).thenReturn(Mono.just(Customer.builder().id(1L).version(2L).build()));
+
+        // When/Then
+        StepVerifier.create(customerService.updateCustomer(1L, changes))
+                .expectError(CustomerVersionConflictException.class)
+                .verify();
+        assertThat(changes.getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void updateCustomer_ShouldFailWithNotFound_WhenNoVersionGiven() {
+        // Given
+        Customer changes = Customer.builder().name("John").email("john@example.com").build();
+        when(customerRepository.update(changes)).thenReturn(Mono.empty());
+
+        // When/Then
+        StepVerifier.create(customerService.updateCustomer(1L, changes))
+                .expectError(CustomerNotFoundException.class)
+                .verify();
+        verify(customerRepository, never()).findById(any());
+    }
+
+    @Test
+    void createCustomer_ShouldLowerCaseEmail() {
+        // Given
+        Customer customer = Customer.builder().name("John").email("  John@Example.COM ").build();
+        when(customerRepository.save(customer)).thenReturn(Mono.just(customer));
+
+        // When/Then
+        StepVerifier.create(customerService.createCustomer(customer))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(customer.getEmail()).isEqualTo("john@example.com");
+    }
+
+    @Test
+    void createCustomer_ShouldFailValidation_WhenEmailIsMissing() {
+        // Given
+        Customer customer = Customer.builder().name("John").build();
+
+        // When/Then
+        StepVerifier.create(customerService.createCustomer(customer))
+                .expectError(CustomerValidationException.class)
+                .verify();
+        verify(customerRepository, never()).save(any());
+    }
+}